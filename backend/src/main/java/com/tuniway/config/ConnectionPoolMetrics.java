@@ -0,0 +1,75 @@
+package com.tuniway.config;
+
+import com.tuniway.util.metrics.LatencyHistogram;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects HikariCP pool statistics (active/idle/pending gauges) and
+ * acquire/usage/creation time histograms for the metrics endpoint.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+    private final LatencyHistogram creationTime = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireTime.recordNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTime.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                creationTime.record(connectionCreatedMillis, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("pool", poolName);
+
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            snapshot.put("active", stats.getActiveConnections());
+            snapshot.put("idle", stats.getIdleConnections());
+            snapshot.put("pending", stats.getPendingThreads());
+            snapshot.put("total", stats.getTotalConnections());
+            snapshot.put("max", stats.getMaxConnections());
+            snapshot.put("min", stats.getMinConnections());
+        }
+
+        snapshot.put("timeouts", timeouts.sum());
+        snapshot.put("acquireTime", acquireTime.snapshot());
+        snapshot.put("usageTime", usageTime.snapshot());
+        snapshot.put("creationTime", creationTime.snapshot());
+        return snapshot;
+    }
+}
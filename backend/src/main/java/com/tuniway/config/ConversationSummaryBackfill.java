@@ -0,0 +1,53 @@
+package com.tuniway.config;
+
+import com.tuniway.repository.ConversationSummaryRepository;
+import com.tuniway.service.MessageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds conversation summaries for message history that predates them.
+ * Checks every startup for users with a conversation but no summary row, so
+ * an interrupted run or a send that came first doesn't leave history behind.
+ * One user per transaction; a user that fails is retried on the next start.
+ */
+@Component
+@ConditionalOnProperty(name = "tuniway.messages.summary-backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class ConversationSummaryBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationSummaryBackfill.class);
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> userIds = conversationSummaryRepository.findOwnerIdsMissingSummaries();
+        if (userIds.isEmpty()) {
+            return;
+        }
+        logger.info("Building conversation summaries for {} users", userIds.size());
+
+        int rows = 0;
+        int failed = 0;
+        for (Long userId : userIds) {
+            try {
+                rows += messageService.rebuildConversationSummaries(userId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not build conversation summaries for user {}: {}", userId, e.getMessage());
+                failed++;
+            }
+        }
+        logger.info("Conversation summary backfill done: {} rows, {} users failed", rows, failed);
+    }
+}
@@ -1,11 +1,12 @@
 package com.tuniway.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -43,15 +44,65 @@ public class DatabaseConfig {
     @Value("${spring.jpa.properties.hibernate.format_sql}")
     private String formatSql;
 
+    // Connection pool settings
+    @Value("${tuniway.datasource.pool.max-size:20}")
+    private int poolMaxSize;
+
+    @Value("${tuniway.datasource.pool.min-idle:5}")
+    private int poolMinIdle;
+
+    @Value("${tuniway.datasource.pool.connection-timeout-ms:5000}")
+    private long connectionTimeoutMs;
+
+    @Value("${tuniway.datasource.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    @Value("${tuniway.datasource.pool.max-lifetime-ms:1500000}")
+    private long maxLifetimeMs;
+
+    @Value("${tuniway.datasource.pool.leak-detection-threshold-ms:20000}")
+    private long leakDetectionThresholdMs;
+
+    @Value("${tuniway.datasource.pool.prep-stmt-cache-size:250}")
+    private int prepStmtCacheSize;
+
+    @Value("${tuniway.datasource.pool.prep-stmt-cache-sql-limit:2048}")
+    private int prepStmtCacheSqlLimit;
+
     @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
+    @Bean(destroyMethod = "close")
     @DependsOn("databaseCreator") // This ensures database is created first
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(dbDriverClassName);
-        dataSource.setUrl(dbUrl);
-        dataSource.setUsername(dbUsername);
-        dataSource.setPassword(dbPassword);
-        return dataSource;
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("tuniway-pool");
+        config.setDriverClassName(dbDriverClassName);
+        config.setJdbcUrl(dbUrl);
+        config.setUsername(dbUsername);
+        config.setPassword(dbPassword);
+
+        config.setMaximumPoolSize(poolMaxSize);
+        config.setMinimumIdle(poolMinIdle);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setIdleTimeout(idleTimeoutMs);
+        config.setMaxLifetime(maxLifetimeMs);
+        config.setLeakDetectionThreshold(leakDetectionThresholdMs);
+
+        // Let Connector/J cache prepared statements per connection
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(prepStmtCacheSize));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(prepStmtCacheSqlLimit));
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        // Send JDBC batches (message write-behind) as multi-row statements
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+        config.setMetricsTrackerFactory(connectionPoolMetrics());
+        return new HikariDataSource(config);
     }
 
     @Bean
@@ -0,0 +1,47 @@
+package com.tuniway.config;
+
+import com.tuniway.util.metrics.RateMeter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts STOMP MESSAGE frames handed to client sessions. Registered on the
+ * client outbound channel, so a broadcast to N subscribers counts N times.
+ */
+@Component
+public class MessageDeliveryMetrics implements ChannelInterceptor {
+
+    private final RateMeter topicDeliveries = new RateMeter();
+    private final RateMeter userDeliveries = new RateMeter();
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination != null && destination.startsWith("/topic/")) {
+            topicDeliveries.mark();
+        } else {
+            userDeliveries.mark();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("topicDeliveries", topicDeliveries.getTotal());
+        stats.put("userDeliveries", userDeliveries.getTotal());
+        stats.put("topicDeliveriesPerSecond1s", topicDeliveries.ratePerSecond(1));
+        stats.put("topicDeliveriesPerSecond60s", topicDeliveries.ratePerSecond(60));
+        stats.put("userDeliveriesPerSecond1s", userDeliveries.ratePerSecond(1));
+        stats.put("userDeliveriesPerSecond60s", userDeliveries.ratePerSecond(60));
+        return stats;
+    }
+}
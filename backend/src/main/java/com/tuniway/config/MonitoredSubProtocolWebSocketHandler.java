@@ -0,0 +1,58 @@
+package com.tuniway.config;
+
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.io.IOException;
+
+/**
+ * Registers each session's send buffer with the WebSocketSessionMonitor so
+ * buffered bytes can be reported and slow consumers evicted.
+ */
+public class MonitoredSubProtocolWebSocketHandler extends SubProtocolWebSocketHandler {
+
+    private final WebSocketSessionMonitor sessionMonitor;
+
+    public MonitoredSubProtocolWebSocketHandler(MessageChannel clientInboundChannel,
+                                                SubscribableChannel clientOutboundChannel,
+                                                WebSocketSessionMonitor sessionMonitor) {
+        super(clientInboundChannel, clientOutboundChannel);
+        this.sessionMonitor = sessionMonitor;
+    }
+
+    @Override
+    protected WebSocketSession decorateSession(WebSocketSession session) {
+        MonitoredSession decorated = new MonitoredSession(session, getSendTimeLimit(), getSendBufferSizeLimit());
+        sessionMonitor.register(decorated);
+        return decorated;
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        sessionMonitor.unregister(session.getId());
+        super.afterConnectionClosed(session, closeStatus);
+    }
+
+    private class MonitoredSession extends ConcurrentWebSocketSessionDecorator {
+
+        MonitoredSession(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit) {
+            super(delegate, sendTimeLimit, bufferSizeLimit);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } catch (SessionLimitExceededException e) {
+                sessionMonitor.recordOverflow(getId());
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tuniway.config;
+
+import com.tuniway.model.User;
+import com.tuniway.repository.UserRepository;
+import com.tuniway.service.ProfilePictureService;
+import com.tuniway.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves legacy base64 profile pictures out of the user table into the picture
+ * store. Users are processed one at a time so only a single image is held in
+ * memory; once every row is migrated the startup query returns nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "tuniway.pictures.migrate-on-startup", havingValue = "true", matchIfMissing = true)
+public class ProfilePictureMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilePictureMigration.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> ids = userRepository.findIdsWithInlineProfilePicture();
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        logger.info("Migrating {} inline profile pictures to the picture store", ids.size());
+        int migrated = 0;
+        int cleared = 0;
+        int failed = 0;
+        for (Long id : ids) {
+            try {
+                User user = userRepository.findById(id).orElse(null);
+                if (user == null || !ProfilePictureService.isInlineImage(user.getProfilePicture())) {
+                    continue;
+                }
+                if (migrate(user)) {
+                    migrated++;
+                } else {
+                    cleared++;
+                }
+            } catch (RuntimeException e) {
+                // Store or database failure: leave the row inline, the next startup tries it again
+                logger.error("Could not migrate profile picture for user {}", id, e);
+                failed++;
+            }
+        }
+        logger.info("Profile picture migration done: {} migrated, {} cleared, {} failed", migrated, cleared, failed);
+    }
+
+    // False when the picture was unreadable and has been cleared instead
+    private boolean migrate(User user) {
+        try {
+            userService.updateUser(user);
+            return true;
+        } catch (IllegalArgumentException e) {
+            // Unreadable legacy data: drop it rather than keep it in the row
+            logger.warn("Clearing unreadable profile picture for user {}: {}", user.getId(), e.getMessage());
+            user.setProfilePicture(null);
+            userService.updateUser(user);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tuniway.config;
+
+import com.tuniway.jwt.JwtClaims;
+import com.tuniway.jwt.JwtUtils;
+import com.tuniway.security.UserPrincipalCache;
+import com.tuniway.service.UserDetailsImpl;
+import com.tuniway.service.UserDetailsServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Optional;
+
+/**
+ * Authenticates STOMP CONNECT frames that carry an "Authorization: Bearer"
+ * header. The session principal is named by user id, which is what
+ * /user destinations resolve against. Connections without a token stay
+ * anonymous (public chat room); an invalid token is rejected.
+ */
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthInterceptor.class);
+
+    private final JwtUtils jwtUtils;
+    private final UserPrincipalCache principalCache;
+    private final UserDetailsServiceImpl userDetailsService;
+
+    public StompAuthInterceptor(JwtUtils jwtUtils, UserPrincipalCache principalCache,
+                                UserDetailsServiceImpl userDetailsService) {
+        this.jwtUtils = jwtUtils;
+        this.principalCache = principalCache;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (!StringUtils.hasText(header) || !header.startsWith("Bearer ")) {
+            return message;
+        }
+
+        Optional<JwtClaims> claims = jwtUtils.verifyJwtToken(header.substring(7));
+        if (claims.isEmpty()) {
+            throw new MessageDeliveryException("Invalid or expired token");
+        }
+        UserDetailsImpl userDetails = (UserDetailsImpl) principalCache.getOrLoad(
+                claims.get().getSubject(), userDetailsService::loadUserByUsername);
+        accessor.setUser(new StompUser(userDetails));
+        logger.debug("STOMP session {} authenticated as user {}", accessor.getSessionId(), userDetails.getId());
+        return message;
+    }
+
+    /**
+     * Authenticated STOMP principal; getName() is the user id.
+     */
+    public static class StompUser extends UsernamePasswordAuthenticationToken {
+
+        public StompUser(UserDetailsImpl userDetails) {
+            super(userDetails, null, userDetails.getAuthorities());
+        }
+
+        @Override
+        public String getName() {
+            return String.valueOf(((UserDetailsImpl) getPrincipal()).getId());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.tuniway.config;
+
+import com.tuniway.repository.UnreadCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Brings unread counters back in line with the message table: on startup,
+ * for history received before counters existed, and then periodically for
+ * any drift. Each user is recounted in its own transaction.
+ */
+@Component
+public class UnreadCounterReconciler implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounterReconciler.class);
+
+    @Autowired
+    private UnreadCounterRepository unreadCounterRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${tuniway.messages.unread-reconcile-ms:3600000}",
+            initialDelayString = "${tuniway.messages.unread-reconcile-ms:3600000}")
+    public int reconcile() {
+        List<Long> userIds = unreadCounterRepository.findDriftedUserIds();
+        int fixed = 0;
+        for (Long userId : userIds) {
+            try {
+                unreadCounterRepository.reconcile(userId);
+                fixed++;
+            } catch (DataAccessException e) {
+                // Usually a lock conflict with a concurrent send; the next run picks the user up again
+                logger.warn("Could not reconcile unread counter for user {}: {}", userId, e.getMessage());
+            }
+        }
+        if (!userIds.isEmpty()) {
+            logger.info("Reconciled {} of {} drifted unread counters", fixed, userIds.size());
+        }
+        return fixed;
+    }
+}
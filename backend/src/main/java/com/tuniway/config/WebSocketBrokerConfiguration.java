@@ -0,0 +1,31 @@
+package com.tuniway.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Replaces @EnableWebSocketMessageBroker so the STOMP session handler can be
+ * swapped for one that reports per-session send buffers. Broker, channel and
+ * transport settings still come from WebSocketConfig.
+ */
+@Configuration
+public class WebSocketBrokerConfiguration extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    @Autowired
+    private WebSocketSessionMonitor sessionMonitor;
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        SubProtocolWebSocketHandler handler =
+                new MonitoredSubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel, sessionMonitor);
+        handler.setPhase(getPhase());
+        return handler;
+    }
+}
@@ -2,6 +2,9 @@ package com.tuniway.config;
 
 
 import com.tuniway.model.chatbot.ChatMessage;
+import com.tuniway.service.PresenceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -10,24 +13,41 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
 @Component
 public class WebSocketEventListener {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
-        System.out.println(" New WebSocket connection established");
+        connects.increment();
+        logger.debug("WebSocket session connected: {}", StompHeaderAccessor.wrap(event.getMessage()).getSessionId());
     }
 
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
+        disconnects.increment();
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
-        String username = (String) headerAccessor.getSessionAttributes().get("username");
+        Map<String, Object> sessionAttributes = headerAccessor.getSessionAttributes();
+        String username = sessionAttributes != null ? (String) sessionAttributes.get("username") : null;
+        logger.debug("WebSocket session {} disconnected ({})", event.getSessionId(), event.getCloseStatus());
 
-        if (username != null) {
-            System.out.println(" User disconnected: " + username);
+        presenceRegistry.leave(event.getSessionId());
 
+        // Announce LEAVE only once the user's last session is gone
+        if (username != null && !presenceRegistry.isOnline(username)) {
             ChatMessage chatMessage = new ChatMessage();
             chatMessage.setType(ChatMessage.MessageType.LEAVE);
             chatMessage.setSender(username);
@@ -35,4 +55,12 @@ public class WebSocketEventListener {
             messagingTemplate.convertAndSend("/topic/public", chatMessage);
         }
     }
-}
\ No newline at end of file
+
+    public long getConnectCount() {
+        return connects.sum();
+    }
+
+    public long getDisconnectCount() {
+        return disconnects.sum();
+    }
+}
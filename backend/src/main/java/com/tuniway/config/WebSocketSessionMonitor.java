@@ -0,0 +1,141 @@
+package com.tuniway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the send buffer of every STOMP WebSocket session and evicts slow
+ * consumers. A session is evicted when its pending bytes stay above
+ * bufferThreshold for longer than graceMs, or when a single send has been
+ * stuck for longer than stallMs. Sessions that overflow the hard buffer
+ * limit are closed by Spring on the next send and only counted here.
+ */
+@Component
+public class WebSocketSessionMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSessionMonitor.class);
+
+    private final int bufferThreshold;
+    private final long graceMs;
+    private final long stallMs;
+    private final int topSessions;
+    private final LongSupplier clock;
+
+    private final Map<String, ConcurrentWebSocketSessionDecorator> sessions = new ConcurrentHashMap<>();
+    // session id -> first time its buffer was seen above the threshold
+    private final Map<String, Long> slowSince = new ConcurrentHashMap<>();
+
+    private final LongAdder slowConsumerEvictions = new LongAdder();
+    private final LongAdder stalledSendEvictions = new LongAdder();
+    private final LongAdder bufferOverflows = new LongAdder();
+
+    @Autowired
+    public WebSocketSessionMonitor(@Value("${chat.websocket.slow-consumer.buffer-threshold:262144}") int bufferThreshold,
+                                   @Value("${chat.websocket.slow-consumer.grace-ms:5000}") long graceMs,
+                                   @Value("${chat.websocket.slow-consumer.stall-ms:10000}") long stallMs,
+                                   @Value("${chat.websocket.slow-consumer.top-sessions:10}") int topSessions) {
+        this(bufferThreshold, graceMs, stallMs, topSessions, System::currentTimeMillis);
+    }
+
+    public WebSocketSessionMonitor(int bufferThreshold, long graceMs, long stallMs, int topSessions, LongSupplier clock) {
+        this.bufferThreshold = bufferThreshold;
+        this.graceMs = graceMs;
+        this.stallMs = stallMs;
+        this.topSessions = topSessions;
+        this.clock = clock;
+    }
+
+    public void register(ConcurrentWebSocketSessionDecorator session) {
+        sessions.put(session.getId(), session);
+    }
+
+    public void unregister(String sessionId) {
+        sessions.remove(sessionId);
+        slowSince.remove(sessionId);
+    }
+
+    public void recordOverflow(String sessionId) {
+        bufferOverflows.increment();
+        logger.warn("WebSocket session {} exceeded its send limits and is being closed", sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.websocket.slow-consumer.check-interval-ms:1000}")
+    public void evictSlowConsumers() {
+        long now = clock.getAsLong();
+        for (ConcurrentWebSocketSessionDecorator session : sessions.values()) {
+            String id = session.getId();
+            if (session.getTimeSinceSendStarted() > stallMs) {
+                stalledSendEvictions.increment();
+                evict(session, "send stalled for " + session.getTimeSinceSendStarted() + " ms");
+                continue;
+            }
+            if (session.getBufferSize() <= bufferThreshold) {
+                slowSince.remove(id);
+                continue;
+            }
+            long since = slowSince.computeIfAbsent(id, key -> now);
+            if (now - since >= graceMs) {
+                slowConsumerEvictions.increment();
+                evict(session, session.getBufferSize() + " bytes pending for " + (now - since) + " ms");
+            }
+        }
+    }
+
+    private void evict(ConcurrentWebSocketSessionDecorator session, String reason) {
+        logger.warn("Evicting slow WebSocket consumer {}: {}", session.getId(), reason);
+        unregister(session.getId());
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Failed to close WebSocket session {}", session.getId(), e);
+        }
+    }
+
+    public int getConnectedSessions() {
+        return sessions.size();
+    }
+
+    public Map<String, Object> snapshot() {
+        List<ConcurrentWebSocketSessionDecorator> current = new ArrayList<>(sessions.values());
+        long totalBuffered = 0;
+        for (ConcurrentWebSocketSessionDecorator session : current) {
+            totalBuffered += session.getBufferSize();
+        }
+        current.sort(Comparator.comparingInt(ConcurrentWebSocketSessionDecorator::getBufferSize).reversed());
+
+        List<Map<String, Object>> largest = new ArrayList<>();
+        for (ConcurrentWebSocketSessionDecorator session : current.subList(0, Math.min(topSessions, current.size()))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("sessionId", session.getId());
+            entry.put("bufferedBytes", session.getBufferSize());
+            entry.put("sendInProgressMs", session.getTimeSinceSendStarted());
+            largest.add(entry);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connectedSessions", current.size());
+        stats.put("totalBufferedBytes", totalBuffered);
+        stats.put("slowSessions", slowSince.size());
+        stats.put("slowConsumerEvictions", slowConsumerEvictions.sum());
+        stats.put("stalledSendEvictions", stalledSendEvictions.sum());
+        stats.put("bufferOverflows", bufferOverflows.sum());
+        stats.put("largestBuffers", largest);
+        return stats;
+    }
+}
@@ -1,32 +1,47 @@
 package com.tuniway.controller;
 
 import com.tuniway.model.chatbot.ChatMessage;
-import com.tuniway.service.ChatbotService;
+import com.tuniway.service.ChatbotDispatcher;
 import com.tuniway.service.ChatbotService.ChatbotResponse;
+import com.tuniway.service.PresenceRegistry;
+import com.tuniway.service.TypingAggregator;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Controller
 public class ChatController {
 
+    // Bot replies go only to the asking session: clients subscribe to /user/queue/bot
+    private static final String BOT_QUEUE = "/queue/bot";
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
     @Autowired
-    private ChatbotService chatbotService;
+    private ChatbotDispatcher chatbotDispatcher;
+
+    @Autowired
+    private TypingAggregator typingAggregator;
+
+    @Autowired
+    private PresenceRegistry presenceRegistry;
 
     @MessageMapping("/chat.sendMessage")
     @SendTo("/topic/public")
-    public ChatMessage sendMessage(@Payload ChatMessage chatMessage) {
+    public ChatMessage sendMessage(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor) {
         chatMessage.setTimestamp(LocalDateTime.now());
         System.out.println("📨 Message received from " + chatMessage.getSender() + ": " + chatMessage.getContent());
+        typingAggregator.stopped(chatMessage.getSender());
+        presenceRegistry.touch(sessionUsername(headerAccessor), headerAccessor.getSessionId());
 
         // If message is from a user (not from bot), send to Flask chatbot
         if (chatMessage.getSender() != null &&
@@ -34,23 +49,44 @@ public class ChatController {
                 chatMessage.getContent() != null &&
                 !chatMessage.getContent().trim().isEmpty()) {
 
-            // Send to Flask in a separate thread to avoid blocking
-            processChatbotResponse(chatMessage);
+            // Send to Flask on the dispatcher pool to avoid blocking
+            processChatbotResponse(chatMessage, headerAccessor.getSessionId());
         }
 
         return chatMessage;
     }
 
+    // Ask the bot without broadcasting the question to the room
+    @MessageMapping("/chat.askBot")
+    public void askBot(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor) {
+        if (chatMessage.getContent() != null && !chatMessage.getContent().trim().isEmpty()) {
+            processChatbotResponse(chatMessage, headerAccessor.getSessionId());
+        }
+    }
+
     @MessageMapping("/chat.addUser")
     @SendTo("/topic/public")
     public ChatMessage addUser(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor) {
         headerAccessor.getSessionAttributes().put("username", chatMessage.getSender());
+        presenceRegistry.join(chatMessage.getSender(), headerAccessor.getSessionId());
         chatMessage.setType(ChatMessage.MessageType.JOIN);
         chatMessage.setTimestamp(LocalDateTime.now());
         System.out.println("✅ User joined: " + chatMessage.getSender());
         return chatMessage;
     }
 
+    // Keeps the session's presence alive; clients send this periodically
+    @MessageMapping("/presence.heartbeat")
+    public void heartbeat(SimpMessageHeaderAccessor headerAccessor) {
+        presenceRegistry.touch(sessionUsername(headerAccessor), headerAccessor.getSessionId());
+    }
+
+    // Set by /chat.addUser; lets a heartbeat restore presence after the session was expired
+    private static String sessionUsername(SimpMessageHeaderAccessor headerAccessor) {
+        Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+        return attributes == null ? null : (String) attributes.get("username");
+    }
+
     @MessageMapping("/chat.sendPrivate")
     public void sendPrivateMessage(@Payload ChatMessage chatMessage) {
         chatMessage.setTimestamp(LocalDateTime.now());
@@ -65,53 +101,53 @@ public class ChatController {
                 " to " + chatMessage.getReceiver());
     }
 
+    // Coalesced into periodic /topic/typing snapshots instead of rebroadcasting each keystroke
     @MessageMapping("/chat.typing")
-    @SendTo("/topic/typing")
-    public ChatMessage userTyping(@Payload ChatMessage chatMessage) {
-        chatMessage.setType(ChatMessage.MessageType.TYPING);
-        return chatMessage;
+    public void userTyping(@Payload ChatMessage chatMessage) {
+        typingAggregator.typing(chatMessage.getSender());
     }
 
     /**
-     * Process chatbot response asynchronously
+     * Process chatbot response asynchronously on the bounded dispatcher pool
      */
-    private void processChatbotResponse(ChatMessage userMessage) {
-        new Thread(() -> {
-            try {
-                System.out.println("🤖 Forwarding to Flask chatbot: " + userMessage.getContent());
-
-                // Send message to Flask chatbot
-                ChatbotResponse botResponse = chatbotService.sendMessageToBot(userMessage.getContent());
-
-                if (botResponse.isSuccess()) {
-                    // Create bot response message
-                    ChatMessage botMessage = new ChatMessage();
-                    botMessage.setType(ChatMessage.MessageType.CHAT);
-                    botMessage.setSender("TuniWay_Bot");
-                    botMessage.setContent(botResponse.getMessage());
-                    botMessage.setTimestamp(LocalDateTime.now());
-
-                    // Send bot response to all clients
-                    messagingTemplate.convertAndSend("/topic/public", botMessage);
-
-                    System.out.println("✅ Bot response sent: " + botResponse.getMessage());
-                } else {
-                    // Send error message if Flask is down
-                    ChatMessage errorMessage = new ChatMessage();
-                    errorMessage.setType(ChatMessage.MessageType.CHAT);
-                    errorMessage.setSender("TuniWay_Bot");
-                    errorMessage.setContent("Sorry, I'm having trouble connecting right now. Please try again in a moment.");
-                    errorMessage.setTimestamp(LocalDateTime.now());
-
-                    messagingTemplate.convertAndSend("/topic/public", errorMessage);
-
-                    System.err.println("❌ Chatbot error: " + botResponse.getError());
-                }
-
-            } catch (Exception e) {
-                System.err.println("❌ Error processing chatbot response: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }).start();
+    private void processChatbotResponse(ChatMessage userMessage, String sessionId) {
+        System.out.println("🤖 Forwarding to Flask chatbot: " + userMessage.getContent());
+
+        boolean accepted = chatbotDispatcher.dispatch(userMessage.getContent(),
+                botResponse -> publishBotResponse(botResponse, sessionId));
+        if (!accepted) {
+            // Dispatcher saturated: answer right away instead of queueing unbounded work
+            sendBotMessage(sessionId, "Sorry, I'm getting a lot of questions right now. Please try again in a moment.");
+        }
+    }
+
+    private void publishBotResponse(ChatbotResponse botResponse, String sessionId) {
+        if (botResponse.isSuccess()) {
+            // Send bot response to the asking session only
+            sendBotMessage(sessionId, botResponse.getMessage());
+            System.out.println("✅ Bot response sent: " + botResponse.getMessage());
+        } else {
+            // Send error message if Flask is down
+            sendBotMessage(sessionId, "Sorry, I'm having trouble connecting right now. Please try again in a moment.");
+            System.err.println("❌ Chatbot error: " + botResponse.getError());
+        }
+    }
+
+    private void sendBotMessage(String sessionId, String content) {
+        ChatMessage botMessage = new ChatMessage();
+        botMessage.setType(ChatMessage.MessageType.CHAT);
+        botMessage.setSender("TuniWay_Bot");
+        botMessage.setContent(content);
+        botMessage.setTimestamp(LocalDateTime.now());
+
+        messagingTemplate.convertAndSendToUser(sessionId, BOT_QUEUE, botMessage, sessionHeaders(sessionId));
+    }
+
+    // Addressing by session id lets anonymous sessions receive user-destination messages
+    private static Map<String, Object> sessionHeaders(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
     }
 }
\ No newline at end of file
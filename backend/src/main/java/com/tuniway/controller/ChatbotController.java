@@ -1,5 +1,6 @@
 package com.tuniway.controller;
 
+import com.tuniway.service.ChatbotHealthMonitor;
 import com.tuniway.service.ChatbotService;
 import com.tuniway.service.ChatbotService.ChatbotResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/chatbot")
@@ -17,6 +19,9 @@ public class ChatbotController {
     @Autowired
     private ChatbotService chatbotService;
 
+    @Autowired
+    private ChatbotHealthMonitor chatbotHealthMonitor;
+
     /**
      * Send message to Flask chatbot and get response
      *
@@ -24,39 +29,35 @@ public class ChatbotController {
      * Body: { "message": "your message here" }
      */
     @PostMapping("/chat")
-    public ResponseEntity<ChatbotResponse> chat(@RequestBody ChatRequest request) {
+    public CompletableFuture<ResponseEntity<ChatbotResponse>> chat(@RequestBody ChatRequest request) {
         if (request.getMessage() == null || request.getMessage().trim().isEmpty()) {
             ChatbotResponse errorResponse = ChatbotResponse.builder()
                     .success(false)
                     .message("Message cannot be empty")
                     .error("Invalid request")
                     .build();
-            return ResponseEntity.badRequest().body(errorResponse);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errorResponse));
         }
 
-        ChatbotResponse response = chatbotService.sendMessageToBot(request.getMessage());
-
-        if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
-        }
+        // Servlet thread is released while Flask answers
+        return chatbotService.sendMessageToBotAsync(request.getMessage()).thenApply(response -> {
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            }
+        });
     }
 
     /**
-     * Health check endpoint for chatbot service
+     * Health check endpoint for chatbot service.
+     * Served from the background prober's last result.
      *
      * GET /api/chatbot/health
      */
     @GetMapping("/health")
     public ResponseEntity<?> checkHealth() {
-        boolean isAlive = chatbotService.isFlaskServerAlive();
-
-        return ResponseEntity.ok(Map.of(
-                "status", isAlive ? "UP" : "DOWN",
-                "service", "Flask Chatbot",
-                "available", isAlive
-        ));
+        return ResponseEntity.ok(chatbotHealthMonitor.snapshot());
     }
 
     /**
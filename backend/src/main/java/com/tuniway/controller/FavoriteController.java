@@ -4,6 +4,7 @@ import com.tuniway.model.Place;
 import com.tuniway.model.User;
 import com.tuniway.service.UserService;
 import com.tuniway.service.PlaceService;
+import com.tuniway.jwt.JwtClaims;
 import com.tuniway.jwt.JwtUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,12 +33,12 @@ public class FavoriteController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getFavorites(HttpServletRequest httpRequest) {
         try {
-            String token = extractTokenFromHeader(httpRequest);
-            if (token == null || !jwtUtils.validateJwtToken(token)) {
+            Optional<JwtClaims> claims = jwtUtils.verifyJwtToken(extractTokenFromHeader(httpRequest));
+            if (claims.isEmpty()) {
                 return ResponseEntity.status(401).body(createError("Invalid token"));
             }
 
-            String username = jwtUtils.getUserNameFromJwtToken(token);
+            String username = claims.get().getSubject();
             User user = userService.getUserByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -53,12 +54,12 @@ public class FavoriteController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> addFavorite(@PathVariable Long placeId, HttpServletRequest httpRequest) {
         try {
-            String token = extractTokenFromHeader(httpRequest);
-            if (token == null || !jwtUtils.validateJwtToken(token)) {
+            Optional<JwtClaims> claims = jwtUtils.verifyJwtToken(extractTokenFromHeader(httpRequest));
+            if (claims.isEmpty()) {
                 return ResponseEntity.status(401).body(createError("Invalid token"));
             }
 
-            String username = jwtUtils.getUserNameFromJwtToken(token);
+            String username = claims.get().getSubject();
             User user = userService.getUserByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -82,12 +83,12 @@ public class FavoriteController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> removeFavorite(@PathVariable Long placeId, HttpServletRequest httpRequest) {
         try {
-            String token = extractTokenFromHeader(httpRequest);
-            if (token == null || !jwtUtils.validateJwtToken(token)) {
+            Optional<JwtClaims> claims = jwtUtils.verifyJwtToken(extractTokenFromHeader(httpRequest));
+            if (claims.isEmpty()) {
                 return ResponseEntity.status(401).body(createError("Invalid token"));
             }
 
-            String username = jwtUtils.getUserNameFromJwtToken(token);
+            String username = claims.get().getSubject();
             User user = userService.getUserByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -111,12 +112,12 @@ public class FavoriteController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> checkFavorite(@PathVariable Long placeId, HttpServletRequest httpRequest) {
         try {
-            String token = extractTokenFromHeader(httpRequest);
-            if (token == null || !jwtUtils.validateJwtToken(token)) {
+            Optional<JwtClaims> claims = jwtUtils.verifyJwtToken(extractTokenFromHeader(httpRequest));
+            if (claims.isEmpty()) {
                 return ResponseEntity.status(401).body(createError("Invalid token"));
             }
 
-            String username = jwtUtils.getUserNameFromJwtToken(token);
+            String username = claims.get().getSubject();
             User user = userService.getUserByUsername(username)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
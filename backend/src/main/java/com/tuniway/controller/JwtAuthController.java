@@ -5,6 +5,7 @@ import com.tuniway.model.Client;
 import com.tuniway.model.Guide;
 import com.tuniway.model.User;
 import com.tuniway.model.enums.RoleType;
+import com.tuniway.jwt.JwtClaims;
 import com.tuniway.jwt.JwtUtils;
 import com.tuniway.service.UserDetailsImpl;
 import com.tuniway.service.UserService;
@@ -267,13 +268,14 @@ public class JwtAuthController {
             // Extract token from "Bearer <token>"
             String token = authHeader.substring(7);
 
-            if (!jwtUtils.validateJwtToken(token)) {
+            Optional<JwtClaims> claims = jwtUtils.verifyJwtToken(token);
+            if (claims.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid token"));
             }
 
             // Get username from token
-            String username = jwtUtils.getUserNameFromJwtToken(token);
+            String username = claims.get().getSubject();
 
             // Get user details
             Optional<User> userOpt = userService.findByUsername(username);
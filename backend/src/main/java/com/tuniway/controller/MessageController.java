@@ -1,5 +1,7 @@
 package com.tuniway.controller;
 
+import com.tuniway.dto.MessagePage;
+import com.tuniway.model.ConversationSummary;
 import com.tuniway.model.Message;
 import com.tuniway.model.User;
 import com.tuniway.service.MessageService;
@@ -10,8 +12,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/messages")
@@ -38,15 +43,26 @@ public class MessageController {
             return ResponseEntity.badRequest().body("Receiver not found");
         }
 
+        if (request.getClientRef() != null && request.getClientRef().length() > Message.CLIENT_REF_LENGTH) {
+            return ResponseEntity.badRequest().body("clientRef is too long");
+        }
+
         Message message = new Message();
         message.setSender(sender.get());
         message.setReceiver(receiver.get());
         message.setContent(request.getContent());
         message.setSentAt(LocalDateTime.now());
         message.setIsRead(false);
-
-        Message savedMessage = messageService.sendMessage(message);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedMessage);
+        message.setClientRef(request.getClientRef());
+
+        try {
+            Message savedMessage = messageService.sendMessage(message);
+            // Without an id the message is queued for write-behind, not stored yet
+            HttpStatus status = savedMessage.getId() != null ? HttpStatus.CREATED : HttpStatus.ACCEPTED;
+            return ResponseEntity.status(status).body(savedMessage);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
     }
 
     // Get conversation between two users
@@ -63,6 +79,31 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
 
+    // Get one page of a conversation, newest messages first.
+    // Without ?before= this is the latest page and marks the conversation read.
+    @GetMapping("/conversation/{user1Id}/{user2Id}/page")
+    public ResponseEntity<?> getConversationPage(
+            @PathVariable Long user1Id,
+            @PathVariable Long user2Id,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "" + MessageService.DEFAULT_PAGE_SIZE) int limit) {
+
+        MessagePage page;
+        try {
+            page = messageService.getConversationPage(user1Id, user2Id, before, limit);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        if (before == null || before.isBlank()) {
+            messageService.markMessagesAsRead(user1Id, user2Id);
+        }
+
+        return ResponseEntity.ok(page);
+    }
+
     // Get all conversation participants for a user
     @GetMapping("/conversations/{userId}")
     public ResponseEntity<List<User>> getConversations(@PathVariable Long userId) {
@@ -70,6 +111,12 @@ public class MessageController {
         return ResponseEntity.ok(participants);
     }
 
+    // Get inbox: one row per conversation with last message and unread count
+    @GetMapping("/inbox/{userId}")
+    public ResponseEntity<List<ConversationSummary>> getInbox(@PathVariable Long userId) {
+        return ResponseEntity.ok(messageService.getInbox(userId));
+    }
+
     // Get unread message count
     @GetMapping("/unread/{userId}")
     public ResponseEntity<Long> getUnreadCount(@PathVariable Long userId) {
@@ -79,9 +126,11 @@ public class MessageController {
 
     // Mark messages as read
     @PutMapping("/mark-read")
-    public ResponseEntity<Void> markAsRead(@RequestBody MarkReadRequest request) {
-        messageService.markMessagesAsRead(request.getReceiverId(), request.getSenderId());
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Map<String, Integer>> markAsRead(@RequestBody MarkReadRequest request) {
+        int updated = messageService.markMessagesAsRead(request.getReceiverId(), request.getSenderId());
+        Map<String, Integer> response = new HashMap<>();
+        response.put("updated", updated);
+        return ResponseEntity.ok(response);
     }
 
     // Inner class for message request
@@ -89,6 +138,7 @@ public class MessageController {
         private Long senderId;
         private Long receiverId;
         private String content;
+        private String clientRef;   // optional idempotency key chosen by the client
 
         public Long getSenderId() {
             return senderId;
@@ -113,6 +163,14 @@ public class MessageController {
         public void setContent(String content) {
             this.content = content;
         }
+
+        public String getClientRef() {
+            return clientRef;
+        }
+
+        public void setClientRef(String clientRef) {
+            this.clientRef = clientRef;
+        }
     }
 
     // Inner class for mark read request
@@ -136,4 +194,4 @@ public class MessageController {
             this.senderId = senderId;
         }
     }
-}
\ No newline at end of file
+}
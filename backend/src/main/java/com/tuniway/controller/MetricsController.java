@@ -0,0 +1,229 @@
+package com.tuniway.controller;
+
+import com.tuniway.config.ConnectionPoolMetrics;
+import com.tuniway.config.MessageDeliveryMetrics;
+import com.tuniway.config.WebSocketEventListener;
+import com.tuniway.config.WebSocketSessionMonitor;
+import com.tuniway.jwt.JwtUtils;
+import com.tuniway.security.UserPrincipalCache;
+import com.tuniway.service.ChatbotDispatcher;
+import com.tuniway.service.ChatbotService;
+import com.tuniway.service.MessageWriteBehind;
+import com.tuniway.service.PlaceClusterIndex;
+import com.tuniway.service.PlaceFacetIndex;
+import com.tuniway.service.PlaceSpatialIndex;
+import com.tuniway.service.PlaceSuggestService;
+import com.tuniway.service.SearchIndexService;
+import com.tuniway.service.TypingAggregator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricsController {
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ChatbotDispatcher chatbotDispatcher;
+
+    @Autowired
+    private ChatbotService chatbotService;
+
+    @Autowired
+    private MessageDeliveryMetrics messageDeliveryMetrics;
+
+    @Autowired
+    private TypingAggregator typingAggregator;
+
+    @Autowired
+    private WebSocketSessionMonitor webSocketSessionMonitor;
+
+    @Autowired
+    private WebSocketEventListener webSocketEventListener;
+
+    @Autowired
+    private MessageWriteBehind messageWriteBehind;
+
+    @Autowired
+    private PlaceSpatialIndex placeSpatialIndex;
+
+    @Autowired
+    private PlaceClusterIndex placeClusterIndex;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private PlaceSuggestService placeSuggestService;
+
+    @Autowired
+    private PlaceFacetIndex placeFacetIndex;
+
+    /**
+     * Connection pool gauges and acquire/usage time histograms
+     *
+     * GET /api/metrics/database
+     */
+    @GetMapping("/database")
+    public ResponseEntity<Map<String, Object>> getDatabasePoolMetrics() {
+        return ResponseEntity.ok(connectionPoolMetrics.snapshot());
+    }
+
+    /**
+     * Hit/miss/eviction counters of the JWT filter's principal cache
+     *
+     * GET /api/metrics/principal-cache
+     */
+    @GetMapping("/principal-cache")
+    public ResponseEntity<Map<String, Object>> getPrincipalCacheMetrics() {
+        return ResponseEntity.ok(userPrincipalCache.snapshot());
+    }
+
+    /**
+     * Hit/miss counters of the recently-verified JWT cache
+     *
+     * GET /api/metrics/jwt
+     */
+    @GetMapping("/jwt")
+    public ResponseEntity<Map<String, Object>> getJwtMetrics() {
+        return ResponseEntity.ok(jwtUtils.getVerifiedCacheStats());
+    }
+
+    /**
+     * Queue depth, in-flight count and latency of WebSocket chatbot dispatch
+     *
+     * GET /api/metrics/chatbot-dispatch
+     */
+    @GetMapping("/chatbot-dispatch")
+    public ResponseEntity<Map<String, Object>> getChatbotDispatchMetrics() {
+        return ResponseEntity.ok(chatbotDispatcher.snapshot());
+    }
+
+    /**
+     * Request counters and latency of the HTTP client talking to Flask
+     *
+     * GET /api/metrics/chatbot-client
+     */
+    @GetMapping("/chatbot-client")
+    public ResponseEntity<Map<String, Object>> getChatbotClientMetrics() {
+        return ResponseEntity.ok(chatbotService.getClientStats());
+    }
+
+    /**
+     * Hit rate and size of the normalized-question answer cache
+     *
+     * GET /api/metrics/chatbot-cache
+     */
+    @GetMapping("/chatbot-cache")
+    public ResponseEntity<Map<String, Object>> getChatbotCacheMetrics() {
+        return ResponseEntity.ok(chatbotService.getAnswerCacheStats());
+    }
+
+    /**
+     * STOMP frames delivered to client sessions, broadcast vs. per-user
+     *
+     * GET /api/metrics/websocket-delivery
+     */
+    @GetMapping("/websocket-delivery")
+    public ResponseEntity<Map<String, Object>> getWebSocketDeliveryMetrics() {
+        return ResponseEntity.ok(messageDeliveryMetrics.snapshot());
+    }
+
+    /**
+     * Typing signals received vs. snapshots published to /topic/typing
+     *
+     * GET /api/metrics/typing
+     */
+    @GetMapping("/typing")
+    public ResponseEntity<Map<String, Object>> getTypingMetrics() {
+        return ResponseEntity.ok(typingAggregator.snapshot());
+    }
+
+    /**
+     * Connected sessions, pending send bytes per session and slow-consumer evictions
+     *
+     * GET /api/metrics/websocket-sessions
+     */
+    @GetMapping("/websocket-sessions")
+    public ResponseEntity<Map<String, Object>> getWebSocketSessionMetrics() {
+        Map<String, Object> stats = new LinkedHashMap<>(webSocketSessionMonitor.snapshot());
+        stats.put("connects", webSocketEventListener.getConnectCount());
+        stats.put("disconnects", webSocketEventListener.getDisconnectCount());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Direct message write-behind queue: depth, batches and flush latency
+     *
+     * GET /api/metrics/message-write-behind
+     */
+    @GetMapping("/message-write-behind")
+    public ResponseEntity<Map<String, Object>> getMessageWriteBehindMetrics() {
+        return ResponseEntity.ok(messageWriteBehind.snapshot());
+    }
+
+    /**
+     * Place spatial index: size, occupied cells and query latency
+     *
+     * GET /api/metrics/place-geo
+     */
+    @GetMapping("/place-geo")
+    public ResponseEntity<Map<String, Object>> getPlaceGeoMetrics() {
+        return ResponseEntity.ok(placeSpatialIndex.snapshot());
+    }
+
+    /**
+     * Place cluster pyramid: occupied cells per zoom level and query latency
+     *
+     * GET /api/metrics/place-clusters
+     */
+    @GetMapping("/place-clusters")
+    public ResponseEntity<Map<String, Object>> getPlaceClusterMetrics() {
+        return ResponseEntity.ok(placeClusterIndex.snapshot());
+    }
+
+    /**
+     * Full-text search index: documents, distinct terms and query latency
+     *
+     * GET /api/metrics/search
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> getSearchMetrics() {
+        return ResponseEntity.ok(searchIndexService.snapshot());
+    }
+
+    /**
+     * Place/city autocomplete: indexed names and per-keystroke latency
+     *
+     * GET /api/metrics/place-suggest
+     */
+    @GetMapping("/place-suggest")
+    public ResponseEntity<Map<String, Object>> getPlaceSuggestMetrics() {
+        return ResponseEntity.ok(placeSuggestService.snapshot());
+    }
+
+    /**
+     * Faceted place browsing: indexed places and query latency
+     *
+     * GET /api/metrics/place-facets
+     */
+    @GetMapping("/place-facets")
+    public ResponseEntity<Map<String, Object>> getPlaceFacetMetrics() {
+        return ResponseEntity.ok(placeFacetIndex.snapshot());
+    }
+}
@@ -4,17 +4,28 @@ import com.tuniway.util.cache.CategoryData;
 import com.tuniway.util.cache.PlaceCategoryFactory;
 import com.tuniway.model.Place;
 import com.tuniway.model.enums.PlaceCategory;
+import com.tuniway.service.PlaceClusterIndex;
+import com.tuniway.service.PlaceFacetIndex;
 import com.tuniway.service.PlaceService;
+import com.tuniway.service.PlaceSpatialIndex;
+import com.tuniway.service.PlaceSuggestService;
 import com.tuniway.service.ReviewService;
+import com.tuniway.util.geo.ClusterPyramid.Cluster;
+import com.tuniway.util.geo.GeoGrid.Hit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/places")
@@ -27,6 +38,18 @@ public class PlaceController {
     @Autowired
     private ReviewService reviewService;
 
+    @Autowired
+    private PlaceSpatialIndex placeSpatialIndex;
+
+    @Autowired
+    private PlaceClusterIndex placeClusterIndex;
+
+    @Autowired
+    private PlaceSuggestService placeSuggestService;
+
+    @Autowired
+    private PlaceFacetIndex placeFacetIndex;
+
     @GetMapping
     public ResponseEntity<List<Place>> getAllPlaces() {
         List<Place> places = placeService.getAllPlaces();
@@ -58,6 +81,92 @@ public class PlaceController {
         return ResponseEntity.ok(places);
     }
 
+    // Filtered browsing with sidebar counts: /api/places/facets?category=BEACH&category=HOTEL&city=Sousse&minRating=4
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> browsePlaces(@RequestParam(required = false) Set<PlaceCategory> category,
+                                                            @RequestParam(required = false) Set<String> city,
+                                                            @RequestParam(required = false) Double minRating,
+                                                            @RequestParam(required = false) Double maxRating,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(placeFacetIndex.browse(category, city, minRating, maxRating, page, size));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    // Type-ahead for place and city names, called on every keystroke: /api/places/suggest?q=hamam
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Map<String, Object>>> suggestPlaces(@RequestParam(defaultValue = "") String q,
+                                                                   @RequestParam(defaultValue = "8") int limit) {
+        // Same prefix, same answer for a while: let the browser and CDN reuse it
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic())
+                .body(placeSuggestService.suggest(q, limit));
+    }
+
+    // Places around a point, nearest first: /api/places/nearby?lat=36.85&lon=10.32&radius=5000&category=BEACH
+    @GetMapping("/nearby")
+    public ResponseEntity<Map<String, Object>> getNearbyPlaces(@RequestParam double lat,
+                                                               @RequestParam double lon,
+                                                               @RequestParam(defaultValue = "5000") double radius,
+                                                               @RequestParam(defaultValue = "50") int limit,
+                                                               @RequestParam(required = false) Set<PlaceCategory> category) {
+        try {
+            return ResponseEntity.ok(geoResults(placeSpatialIndex.nearby(lat, lon, radius, limit, category)));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    // Places in a map viewport, nearest to its centre first
+    @GetMapping("/within")
+    public ResponseEntity<Map<String, Object>> getPlacesWithin(@RequestParam double south,
+                                                               @RequestParam double west,
+                                                               @RequestParam double north,
+                                                               @RequestParam double east,
+                                                               @RequestParam(defaultValue = "200") int limit,
+                                                               @RequestParam(required = false) Set<PlaceCategory> category) {
+        try {
+            return ResponseEntity.ok(geoResults(placeSpatialIndex.within(south, west, north, east, limit, category)));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    // Marker clusters for a map viewport; the payload grows with the viewport, not the catalogue
+    @GetMapping("/clusters")
+    public ResponseEntity<Map<String, Object>> getPlaceClusters(@RequestParam double south,
+                                                                @RequestParam double west,
+                                                                @RequestParam double north,
+                                                                @RequestParam double east,
+                                                                @RequestParam int zoom) {
+        List<Cluster> clusters;
+        try {
+            clusters = placeClusterIndex.clusters(south, west, north, east, zoom);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(clusters.size());
+        for (Cluster cluster : clusters) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("latitude", cluster.getLatitude());
+            result.put("longitude", cluster.getLongitude());
+            result.put("count", cluster.getCount());
+            result.put("categories", PlaceClusterIndex.categoryBreakdown(cluster));
+            if (cluster.getPointId() != null) {
+                result.put("placeId", cluster.getPointId());
+            }
+            results.add(result);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("zoom", Math.max(0, Math.min(zoom, placeClusterIndex.getMaxZoom())));
+        response.put("clusters", results);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping
     public ResponseEntity<Place> createPlace(@RequestBody Place place) {
         if (place.getName() == null || place.getName().trim().isEmpty()) {
@@ -141,4 +250,24 @@ public class PlaceController {
 
         return ResponseEntity.ok(response);
     }
+
+    private static Map<String, Object> geoResults(List<Hit<Place>> hits) {
+        List<Map<String, Object>> results = new ArrayList<>(hits.size());
+        for (Hit<Place> hit : hits) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("place", hit.getValue());
+            result.put("distanceMeters", Math.round(hit.getDistanceMeters()));
+            results.add(result);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("count", results.size());
+        response.put("results", results);
+        return response;
+    }
+
+    private static ResponseEntity<Map<String, Object>> badRequest(IllegalArgumentException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
 }
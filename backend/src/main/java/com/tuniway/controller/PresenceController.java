@@ -0,0 +1,44 @@
+package com.tuniway.controller;
+
+import com.tuniway.service.PresenceRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Online users from the in-memory presence registry; live changes are
+ * pushed as deltas on /topic/presence.
+ */
+@RestController
+@RequestMapping("/api/presence")
+@CrossOrigin(origins = "*")
+public class PresenceController {
+
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+
+    /**
+     * Full snapshot; "version" matches the last delta included in it
+     *
+     * GET /api/presence
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getOnlineUsers() {
+        return ResponseEntity.ok(presenceRegistry.snapshot());
+    }
+
+    /**
+     * GET /api/presence/{username}
+     */
+    @GetMapping("/{username}")
+    public ResponseEntity<Map<String, Object>> getUserPresence(@PathVariable String username) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("username", username);
+        response.put("online", presenceRegistry.isOnline(username));
+        response.put("sessions", presenceRegistry.getSessionCount(username));
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,57 @@
+package com.tuniway.controller;
+
+import com.tuniway.service.ProfilePictureService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+@RestController
+@RequestMapping("/api/pictures")
+@CrossOrigin(origins = "*")
+public class ProfilePictureController {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private ProfilePictureService profilePictureService;
+
+    /**
+     * Streams a stored picture. Content is immutable for a given hash, so the
+     * ETag is derived from the hash and the response may be cached forever.
+     *
+     * GET /api/pictures/{hash}?size=original|small|thumb
+     */
+    @GetMapping("/{hash}")
+    public void getPicture(@PathVariable String hash,
+                           @RequestParam(defaultValue = ProfilePictureService.ORIGINAL) String size,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        if (!profilePictureService.exists(hash, size)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + hash + "-" + size + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(profilePictureService.contentType(hash, size));
+        response.setContentLengthLong(profilePictureService.size(hash, size));
+        // The servlet stream is not a socket channel, so this is a buffered copy, not sendfile
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        profilePictureService.transferTo(hash, size, channel);
+        response.flushBuffer();
+    }
+}
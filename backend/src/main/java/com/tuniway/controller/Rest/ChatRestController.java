@@ -2,38 +2,53 @@ package com.tuniway.controller.Rest;
 
 
 import com.tuniway.model.chatbot.ChatMessage;
+import com.tuniway.service.ChatHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/rest/chat")
 @CrossOrigin(origins = "*")
 public class ChatRestController {
 
-    private List<ChatMessage> chatHistory = new ArrayList<>();
+    @Autowired
+    private ChatHistoryService chatHistoryService;
 
     @GetMapping("/history")
     public ResponseEntity<List<ChatMessage>> getChatHistory() {
-        return ResponseEntity.ok(chatHistory);
+        return ResponseEntity.ok(chatHistoryService.getHistory(ChatHistoryService.DEFAULT_ROOM));
     }
 
-    @PostMapping("/save")
-    public ResponseEntity<ChatMessage> saveMessage(@RequestBody ChatMessage message) {
-        chatHistory.add(message);
-
-        if (chatHistory.size() > 100) {
-            chatHistory.remove(0);
+    @GetMapping("/history/{room}")
+    public ResponseEntity<?> getRoomHistory(@PathVariable String room) {
+        if (!ChatHistoryService.isValidRoom(room)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid room"));
         }
+        return ResponseEntity.ok(chatHistoryService.getHistory(room));
+    }
 
+    @PostMapping("/save")
+    public ResponseEntity<?> saveMessage(@RequestBody ChatMessage message,
+                                         @RequestParam(defaultValue = ChatHistoryService.DEFAULT_ROOM) String room) {
+        if (!ChatHistoryService.isValidRoom(room)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid room"));
+        }
+        try {
+            chatHistoryService.append(room, message);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
         return ResponseEntity.ok(message);
     }
 
     @DeleteMapping("/clear")
-    public ResponseEntity<Void> clearHistory() {
-        chatHistory.clear();
+    public ResponseEntity<Void> clearHistory(@RequestParam(defaultValue = ChatHistoryService.DEFAULT_ROOM) String room) {
+        chatHistoryService.clear(room);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package com.tuniway.controller;
+
+import com.tuniway.service.SearchIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranked full-text search over places and tours. Places are public; tours
+ * are only searched for the roles that may read /api/tours.
+ */
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    private static final Set<String> TOUR_ROLES = Set.of("ROLE_CLIENT", "ROLE_GUIDE", "ROLE_ADMIN");
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    /**
+     * GET /api/search?q=hammamet plage&type=place&page=0&size=20
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> search(@RequestParam String q,
+                                                      @RequestParam(required = false) String type,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int size,
+                                                      Authentication authentication) {
+        boolean canSeeTours = authentication != null && authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(TOUR_ROLES::contains);
+        if (SearchIndexService.TYPE_TOUR.equals(type) && !canSeeTours) {
+            return error(HttpStatus.FORBIDDEN, "Searching tours requires a client, guide or admin account");
+        }
+
+        try {
+            String effectiveType = type == null && !canSeeTours ? SearchIndexService.TYPE_PLACE : type;
+            return ResponseEntity.ok(searchIndexService.search(q, effectiveType, page, size));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
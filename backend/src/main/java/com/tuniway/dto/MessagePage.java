@@ -0,0 +1,17 @@
+package com.tuniway.dto;
+
+import com.tuniway.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePage {
+    private List<Message> messages;   // oldest first, ready to render
+    private String nextCursor;        // pass as ?before= to load older messages, null when exhausted
+    private boolean hasMore;
+}
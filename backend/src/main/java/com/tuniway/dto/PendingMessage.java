@@ -0,0 +1,44 @@
+package com.tuniway.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tuniway.model.Message;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A direct message accepted by the write-behind queue but not yet in MySQL.
+ * This is also the journal record format.
+ */
+@Data
+@NoArgsConstructor
+public class PendingMessage {
+    private String clientRef;
+    private Long senderId;
+    private Long receiverId;
+    private String content;
+    private LocalDateTime sentAt;
+
+    // Copied on the request thread for the push; the writer thread can't read the entities
+    @JsonIgnore
+    private String senderName;
+    @JsonIgnore
+    private String receiverName;
+
+    // Journal segment holding this record, so the segment can be dropped once it is stored
+    @JsonIgnore
+    private int journalSegment;
+
+    public static PendingMessage of(Message message, String clientRef) {
+        PendingMessage pending = new PendingMessage();
+        pending.setClientRef(clientRef);
+        pending.setSenderId(message.getSender().getId());
+        pending.setReceiverId(message.getReceiver().getId());
+        pending.setContent(message.getContent());
+        pending.setSentAt(message.getSentAt());
+        pending.setSenderName(message.getSender().getUsername());
+        pending.setReceiverName(message.getReceiver().getUsername());
+        return pending;
+    }
+}
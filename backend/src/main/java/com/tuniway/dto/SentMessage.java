@@ -0,0 +1,42 @@
+package com.tuniway.dto;
+
+import com.tuniway.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Direct message as pushed on /user/queue/messages. Pushes can run on the
+ * write-behind thread, outside the session that loaded the sender and
+ * receiver, so only their ids and usernames are carried.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentMessage {
+    private Long id;
+    private Long senderId;
+    private String senderName;
+    private Long receiverId;
+    private String receiverName;
+    private String content;
+    private LocalDateTime sentAt;
+    private Boolean isRead;
+    private String clientRef;
+
+    public static SentMessage of(Message message) {
+        return new SentMessage(message.getId(),
+                message.getSender().getId(), message.getSender().getUsername(),
+                message.getReceiver().getId(), message.getReceiver().getUsername(),
+                message.getContent(), message.getSentAt(), message.getIsRead(), message.getClientRef());
+    }
+
+    public static SentMessage of(PendingMessage pending, Long id) {
+        return new SentMessage(id,
+                pending.getSenderId(), pending.getSenderName(),
+                pending.getReceiverId(), pending.getReceiverName(),
+                pending.getContent(), pending.getSentAt(), false, pending.getClientRef());
+    }
+}
@@ -0,0 +1,33 @@
+package com.tuniway.dto;
+
+import com.tuniway.model.TourPersonnalise;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Tour as returned by /api/search. The search index outlives the session
+ * that loaded the tour, so it keeps plain values instead of the entity and
+ * its guide (whose lazy associations could no longer be loaded).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TourSearchResult {
+    private Long id;
+    private String titre;
+    private String description;
+    private Double prix;
+    private LocalDate date;
+    private Long guideId;
+    private String guideName;
+
+    public static TourSearchResult of(TourPersonnalise tour) {
+        return new TourSearchResult(tour.getId(), tour.getTitre(), tour.getDescription(), tour.getPrix(),
+                tour.getDate(),
+                tour.getGuide() == null ? null : tour.getGuide().getId(),
+                tour.getGuide() == null ? null : tour.getGuide().getUsername());
+    }
+}
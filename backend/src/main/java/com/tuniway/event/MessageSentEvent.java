@@ -0,0 +1,18 @@
+package com.tuniway.event;
+
+import com.tuniway.dto.SentMessage;
+
+/**
+ * Published inside MessageService.sendMessage; listeners that push to
+ * clients should only act once the transaction has committed.
+ */
+public class MessageSentEvent {
+
+    private final SentMessage message;
+
+    public MessageSentEvent(SentMessage message) {
+        this.message = message;
+    }
+
+    public SentMessage getMessage() { return message; }
+}
@@ -0,0 +1,21 @@
+package com.tuniway.event;
+
+/**
+ * Published when receiverId marks count messages from senderId as read.
+ */
+public class MessagesReadEvent {
+
+    private final Long receiverId;
+    private final Long senderId;
+    private final int count;
+
+    public MessagesReadEvent(Long receiverId, Long senderId, int count) {
+        this.receiverId = receiverId;
+        this.senderId = senderId;
+        this.count = count;
+    }
+
+    public Long getReceiverId() { return receiverId; }
+    public Long getSenderId() { return senderId; }
+    public int getCount() { return count; }
+}
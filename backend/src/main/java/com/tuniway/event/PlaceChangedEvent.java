@@ -0,0 +1,30 @@
+package com.tuniway.event;
+
+import com.tuniway.model.Place;
+
+/**
+ * Published after a place is created, updated or deleted. The place is
+ * null for a deletion.
+ */
+public class PlaceChangedEvent {
+
+    private final Long placeId;
+    private final Place place;
+
+    public PlaceChangedEvent(Long placeId, Place place) {
+        this.placeId = placeId;
+        this.place = place;
+    }
+
+    public static PlaceChangedEvent saved(Place place) {
+        return new PlaceChangedEvent(place.getId(), place);
+    }
+
+    public static PlaceChangedEvent deleted(Long placeId) {
+        return new PlaceChangedEvent(placeId, null);
+    }
+
+    public Long getPlaceId() { return placeId; }
+    public Place getPlace() { return place; }
+    public boolean isDeleted() { return place == null; }
+}
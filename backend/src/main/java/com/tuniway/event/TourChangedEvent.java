@@ -0,0 +1,30 @@
+package com.tuniway.event;
+
+import com.tuniway.model.TourPersonnalise;
+
+/**
+ * Published after a tour is created, updated or deleted. The tour is null
+ * for a deletion.
+ */
+public class TourChangedEvent {
+
+    private final Long tourId;
+    private final TourPersonnalise tour;
+
+    public TourChangedEvent(Long tourId, TourPersonnalise tour) {
+        this.tourId = tourId;
+        this.tour = tour;
+    }
+
+    public static TourChangedEvent saved(TourPersonnalise tour) {
+        return new TourChangedEvent(tour.getId(), tour);
+    }
+
+    public static TourChangedEvent deleted(Long tourId) {
+        return new TourChangedEvent(tourId, null);
+    }
+
+    public Long getTourId() { return tourId; }
+    public TourPersonnalise getTour() { return tour; }
+    public boolean isDeleted() { return tour == null; }
+}
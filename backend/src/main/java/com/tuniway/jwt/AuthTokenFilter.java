@@ -1,4 +1,5 @@
 package com.tuniway.jwt;
+import com.tuniway.security.UserPrincipalCache;
 import com.tuniway.service.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,6 +24,7 @@ import java.io.IOException;
 import java.security.Key;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Component
@@ -31,6 +33,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
+    @Autowired
+    private UserPrincipalCache principalCache;
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
     
     @Override
@@ -52,9 +56,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Optional<JwtClaims> claims = jwtUtils.verifyJwtToken(jwt);
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
+                UserDetails userDetails = principalCache.getOrLoad(username, userDetailsService::loadUserByUsername);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
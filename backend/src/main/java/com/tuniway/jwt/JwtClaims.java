@@ -0,0 +1,45 @@
+package com.tuniway.jwt;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Typed view of the claims carried by a verified Tuniway JWT.
+ */
+public class JwtClaims {
+
+    private final String subject;
+    private final List<String> roles;
+    private final Date issuedAt;
+    private final Date expiration;
+
+    public JwtClaims(String subject, List<String> roles, Date issuedAt, Date expiration) {
+        this.subject = subject;
+        this.roles = roles != null ? Collections.unmodifiableList(roles) : Collections.emptyList();
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    // Roles are stored as a comma separated "roles" claim
+    static List<String> parseRoles(Object rolesClaim) {
+        if (rolesClaim == null || rolesClaim.toString().isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(rolesClaim.toString().split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+
+    public String getSubject() { return subject; }
+    public List<String> getRoles() { return roles; }
+    public Date getIssuedAt() { return issuedAt; }
+    public Date getExpiration() { return expiration; }
+}
@@ -5,6 +5,8 @@ import com.tuniway.service.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,6 +16,10 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 @Component
@@ -27,6 +33,30 @@ public class JwtUtils {
     @Value("${tuniway.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${tuniway.app.jwtVerifiedCacheSize:1024}")
+    private int verifiedCacheSize;
+
+    // Signing key and parser are immutable and thread-safe, so build them once
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    // Recently verified tokens keyed by their signature segment (LRU)
+    private Map<String, VerifiedToken> verifiedTokens;
+    private final LongAdder verifiedCacheHits = new LongAdder();
+    private final LongAdder verifiedCacheMisses = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
+    }
+
     // Generate JWT token from username
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
@@ -41,30 +71,56 @@ public class JwtUtils {
                 .claim("roles", roles)  // Add roles to JWT
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    // Get signing key
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
+    /**
+     * Verifies the token signature and expiry with a single parse and returns its claims.
+     * Tokens verified recently are served from a small LRU until they expire,
+     * skipping the HMAC computation entirely.
+     *
+     * @param token compact JWT (without the "Bearer " prefix)
+     * @return the claims, or empty if the token is invalid or expired
+     */
+    public Optional<JwtClaims> verifyJwtToken(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
 
-    // Get username from JWT token
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
+        long now = System.currentTimeMillis();
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        VerifiedToken cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(signature);
+        }
+        if (cached != null && cached.token.equals(token)) {
+            if (!cached.claims.isExpired(now)) {
+                verifiedCacheHits.increment();
+                return Optional.of(cached.claims);
+            }
+            synchronized (verifiedTokens) {
+                verifiedTokens.remove(signature);
+            }
+            logger.error("JWT token is expired: {}", cached.claims.getExpiration());
+            return Optional.empty();
+        }
 
-    // Validate JWT token
-    public boolean validateJwtToken(String authToken) {
+        verifiedCacheMisses.increment();
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            Claims body = jwtParser.parseClaimsJws(token).getBody();
+            JwtClaims claims = new JwtClaims(
+                    body.getSubject(),
+                    JwtClaims.parseRoles(body.get("roles")),
+                    body.getIssuedAt(),
+                    body.getExpiration()
+            );
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(signature, new VerifiedToken(token, claims));
+            }
+            return Optional.of(claims);
+        } catch (SecurityException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -75,7 +131,30 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    // Get username from JWT token
+    public String getUserNameFromJwtToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    // Validate JWT token
+    public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken).isPresent();
+    }
+
+    public Map<String, Object> getVerifiedCacheStats() {
+        int size;
+        synchronized (verifiedTokens) {
+            size = verifiedTokens.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", verifiedCacheSize);
+        stats.put("hits", verifiedCacheHits.sum());
+        stats.put("misses", verifiedCacheMisses.sum());
+        return stats;
     }
 
 
@@ -86,11 +165,17 @@ public class JwtUtils {
                 .claim("roles",  user.getRole().name())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-    
-    
-    
-    
+
+    private static final class VerifiedToken {
+        private final String token;
+        private final JwtClaims claims;
+
+        private VerifiedToken(String token, JwtClaims claims) {
+            this.token = token;
+            this.claims = claims;
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package com.tuniway.model;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.LocalDateTime;
+
+/**
+ * One inbox row per (owner, peer) pair: the latest message and how many of
+ * the peer's messages the owner hasn't read. Maintained by MessageService.
+ */
+@Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_summary_owner_peer", columnNames = {"ownerId", "peerId"}),
+        indexes = @Index(name = "idx_summary_owner_recent", columnList = "ownerId, lastMessageAt")
+)
+public class ConversationSummary {
+
+    public static final int PREVIEW_LENGTH = 140;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private Long peerId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "peerId", insertable = false, updatable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "password"})
+    private User peer;
+
+    @Column(length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    private LocalDateTime lastMessageAt;
+
+    private Long lastSenderId;
+
+    @Column(nullable = false)
+    private Long unreadCount;
+
+    // Constructors
+    public ConversationSummary() {
+        this.unreadCount = 0L;
+    }
+
+    public static String preview(String content) {
+        if (content == null) {
+            return null;
+        }
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public Long getPeerId() {
+        return peerId;
+    }
+
+    public void setPeerId(Long peerId) {
+        this.peerId = peerId;
+    }
+
+    public User getPeer() {
+        return peer;
+    }
+
+    public void setPeer(User peer) {
+        this.peer = peer;
+    }
+
+    public String getLastMessagePreview() {
+        return lastMessagePreview;
+    }
+
+    public void setLastMessagePreview(String lastMessagePreview) {
+        this.lastMessagePreview = lastMessagePreview;
+    }
+
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public void setLastMessageAt(LocalDateTime lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public Long getLastSenderId() {
+        return lastSenderId;
+    }
+
+    public void setLastSenderId(Long lastSenderId) {
+        this.lastSenderId = lastSenderId;
+    }
+
+    public Long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
@@ -5,8 +5,16 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        // Serves the unread COUNT and the bulk mark-read update
+        @Index(name = "idx_message_receiver_sender_read", columnList = "receiver_id, sender_id, isRead"),
+        // Keyset pagination of conversation history on (sentAt, id)
+        @Index(name = "idx_message_sender_receiver_sent", columnList = "sender_id, receiver_id, sentAt, id")
+})
 public class Message {
 
+    public static final int CLIENT_REF_LENGTH = 64;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,6 +36,10 @@ public class Message {
 
     private Boolean isRead;
 
+    // Idempotency key: retries and write-behind replays with the same ref insert once
+    @Column(unique = true, length = CLIENT_REF_LENGTH)
+    private String clientRef;
+
     // Constructors
     public Message() {
         this.sentAt = LocalDateTime.now();
@@ -82,4 +94,12 @@ public class Message {
     public void setIsRead(Boolean isRead) {
         this.isRead = isRead;
     }
+
+    public String getClientRef() {
+        return clientRef;
+    }
+
+    public void setClientRef(String clientRef) {
+        this.clientRef = clientRef;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.tuniway.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Denormalized count of unread messages per receiver, kept in step with
+ * Message.isRead by MessageService so reads don't need a COUNT scan.
+ */
+@Entity
+public class UnreadCounter {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long unreadCount;
+
+    // Constructors
+    public UnreadCounter() {
+    }
+
+    public UnreadCounter(Long userId, Long unreadCount) {
+        this.userId = userId;
+        this.unreadCount = unreadCount;
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
@@ -46,9 +46,9 @@ public class User {
     @Enumerated(EnumType.STRING)
     private RoleType role;
 
-    // UPDATED: Add columnDefinition to handle large base64 images
-    @Column(name = "profilePicture ", columnDefinition = "LONGTEXT")
-    @Lob  // Large Object annotation for JPA
+    // URL of the picture (/api/pictures/{hash} or an external avatar URL);
+    // image bytes live in the picture store, see ProfilePictureService
+    @Column(name = "profilePicture ", length = 1024)
     private String profilePicture;
 
 
@@ -0,0 +1,56 @@
+package com.tuniway.repository;
+
+import com.tuniway.model.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    // Inbox for a user, most recent conversation first (idx_summary_owner_recent)
+    @Query("SELECT s FROM ConversationSummary s JOIN FETCH s.peer WHERE s.ownerId = :ownerId " +
+            "ORDER BY s.lastMessageAt DESC")
+    List<ConversationSummary> findInbox(@Param("ownerId") Long ownerId);
+
+    // Creates or advances the (owner, peer) row in one statement. The last-message
+    // columns only move forward in time; lastMessageAt is assigned last because
+    // MySQL evaluates ON DUPLICATE KEY assignments left to right.
+    @Modifying
+    @Query(value = "INSERT INTO ConversationSummary " +
+            "(ownerId, peerId, lastMessagePreview, lastMessageAt, lastSenderId, unreadCount) " +
+            "VALUES (:ownerId, :peerId, :preview, :sentAt, :senderId, :unreadDelta) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "unreadCount = unreadCount + VALUES(unreadCount), " +
+            "lastMessagePreview = IF(lastMessageAt IS NULL OR VALUES(lastMessageAt) >= lastMessageAt, " +
+            "VALUES(lastMessagePreview), lastMessagePreview), " +
+            "lastSenderId = IF(lastMessageAt IS NULL OR VALUES(lastMessageAt) >= lastMessageAt, " +
+            "VALUES(lastSenderId), lastSenderId), " +
+            "lastMessageAt = IF(lastMessageAt IS NULL OR VALUES(lastMessageAt) >= lastMessageAt, " +
+            "VALUES(lastMessageAt), lastMessageAt)",
+            nativeQuery = true)
+    int recordMessage(@Param("ownerId") Long ownerId, @Param("peerId") Long peerId,
+                      @Param("preview") String preview, @Param("sentAt") LocalDateTime sentAt,
+                      @Param("senderId") Long senderId, @Param("unreadDelta") long unreadDelta);
+
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.unreadCount = 0 WHERE s.ownerId = :ownerId AND s.peerId = :peerId")
+    int clearUnread(@Param("ownerId") Long ownerId, @Param("peerId") Long peerId);
+
+    @Query("SELECT s.peerId FROM ConversationSummary s WHERE s.ownerId = :ownerId")
+    List<Long> findPeerIds(@Param("ownerId") Long ownerId);
+
+    // Users with at least one conversation in the message table that has no summary row
+    @Query(value = "SELECT DISTINCT c.ownerId FROM (" +
+            "SELECT m.sender_id AS ownerId, m.receiver_id AS peerId FROM Message m " +
+            "UNION SELECT m.receiver_id, m.sender_id FROM Message m) c " +
+            "WHERE NOT EXISTS (SELECT 1 FROM ConversationSummary s WHERE s.ownerId = c.ownerId AND s.peerId = c.peerId) " +
+            "ORDER BY c.ownerId",
+            nativeQuery = true)
+    List<Long> findOwnerIdsMissingSummaries();
+}
@@ -0,0 +1,212 @@
+package com.tuniway.repository;
+
+import com.tuniway.dto.PendingMessage;
+import com.tuniway.model.ConversationSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persists write-behind batches with plain JDBC batches, one transaction per
+ * batch. IDENTITY ids rule out Hibernate insert batching, so the rows, the
+ * unread counters and the inbox summaries are written as JDBC batches
+ * (aggregated per user / conversation) and the generated ids are read back
+ * by clientRef.
+ */
+@Repository
+public class MessageBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageBatchWriter.class);
+
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO Message (sender_id, receiver_id, content, sentAt, isRead, clientRef) " +
+            "VALUES (?, ?, ?, ?, false, ?)";
+
+    // Same statement as UnreadCounterRepository.add
+    private static final String ADD_UNREAD =
+            "INSERT INTO UnreadCounter (userId, unreadCount) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE unreadCount = unreadCount + VALUES(unreadCount)";
+
+    // Same rules as ConversationSummaryRepository.recordMessage, split into update-then-insert.
+    // lastMessageAt is assigned last so MySQL's left-to-right SET sees the old value in every CASE.
+    private static final String UPDATE_SUMMARY =
+            "UPDATE ConversationSummary SET " +
+            "unreadCount = unreadCount + ?, " +
+            "lastMessagePreview = CASE WHEN lastMessageAt IS NULL OR ? >= lastMessageAt THEN ? ELSE lastMessagePreview END, " +
+            "lastSenderId = CASE WHEN lastMessageAt IS NULL OR ? >= lastMessageAt THEN ? ELSE lastSenderId END, " +
+            "lastMessageAt = CASE WHEN lastMessageAt IS NULL OR ? >= lastMessageAt THEN ? ELSE lastMessageAt END " +
+            "WHERE ownerId = ? AND peerId = ?";
+
+    private static final String INSERT_SUMMARY =
+            "INSERT INTO ConversationSummary " +
+            "(ownerId, peerId, lastMessagePreview, lastMessageAt, lastSenderId, unreadCount) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public MessageBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Writes the batch, skipping clientRefs that are already stored, and
+     * returns clientRef -> id for the rows inserted by this call. A row
+     * that violates a constraint (typically a sender or receiver deleted
+     * since the message was queued) fails its whole batch, so the batch is
+     * then written row by row and only the offending rows are dropped.
+     */
+    public Map<String, Long> write(List<PendingMessage> batch) {
+        try {
+            return transactionTemplate.execute(status -> writeRows(batch));
+        } catch (DataIntegrityViolationException e) {
+            Map<String, Long> ids = new HashMap<>();
+            for (PendingMessage pending : batch) {
+                try {
+                    ids.putAll(transactionTemplate.execute(status -> writeRows(List.of(pending))));
+                } catch (DataIntegrityViolationException rowError) {
+                    logger.warn("Dropping queued message {} from {} to {}: {}", pending.getClientRef(),
+                            pending.getSenderId(), pending.getReceiverId(), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+            return ids;
+        }
+    }
+
+    private Map<String, Long> writeRows(List<PendingMessage> batch) {
+        Set<String> existing = new HashSet<>(findIds(refsOf(batch)).keySet());
+        List<PendingMessage> fresh = new ArrayList<>();
+        for (PendingMessage pending : batch) {
+            if (existing.add(pending.getClientRef())) {
+                fresh.add(pending);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, fresh, fresh.size(), (ps, pending) -> {
+            ps.setLong(1, pending.getSenderId());
+            ps.setLong(2, pending.getReceiverId());
+            ps.setString(3, pending.getContent());
+            ps.setTimestamp(4, pending.getSentAt() != null ? Timestamp.valueOf(pending.getSentAt()) : null);
+            ps.setString(5, pending.getClientRef());
+        });
+        // Counters and summaries only move for rows that are really in the Message table
+        Map<String, Long> ids = findIds(refsOf(fresh));
+        List<PendingMessage> stored = new ArrayList<>(ids.size());
+        for (PendingMessage pending : fresh) {
+            if (ids.containsKey(pending.getClientRef())) {
+                stored.add(pending);
+            }
+        }
+        if (!stored.isEmpty()) {
+            updateUnreadCounters(stored);
+            recordSummaries(stored);
+        }
+        return ids;
+    }
+
+    private void updateUnreadCounters(List<PendingMessage> fresh) {
+        // Write-behind messages are always stored unread
+        Map<Long, Long> unreadByReceiver = new LinkedHashMap<>();
+        for (PendingMessage pending : fresh) {
+            unreadByReceiver.merge(pending.getReceiverId(), 1L, Long::sum);
+        }
+        List<Map.Entry<Long, Long>> increments = new ArrayList<>(unreadByReceiver.entrySet());
+        jdbcTemplate.batchUpdate(ADD_UNREAD, increments, increments.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setLong(2, entry.getValue());
+        });
+    }
+
+    private void recordSummaries(List<PendingMessage> fresh) {
+        // One row per (owner, peer): the latest message plus the summed unread delta
+        Map<List<Long>, Object[]> rows = new LinkedHashMap<>();
+        for (PendingMessage pending : fresh) {
+            Long sender = pending.getSenderId();
+            Long receiver = pending.getReceiverId();
+            String preview = ConversationSummary.preview(pending.getContent());
+            Timestamp sentAt = pending.getSentAt() != null ? Timestamp.valueOf(pending.getSentAt()) : null;
+            mergeSummary(rows, sender, receiver, preview, sentAt, sender, 0);
+            mergeSummary(rows, receiver, sender, preview, sentAt, sender, 1);
+        }
+        List<Object[]> summaries = new ArrayList<>(rows.values());
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SUMMARY, summaries, summaries.size(), (ps, row) -> {
+            ps.setInt(1, (int) row[5]);
+            ps.setTimestamp(2, (Timestamp) row[3]);
+            ps.setString(3, (String) row[2]);
+            ps.setTimestamp(4, (Timestamp) row[3]);
+            ps.setLong(5, (Long) row[4]);
+            ps.setTimestamp(6, (Timestamp) row[3]);
+            ps.setTimestamp(7, (Timestamp) row[3]);
+            ps.setLong(8, (Long) row[0]);
+            ps.setLong(9, (Long) row[1]);
+        });
+
+        // A concurrent insert of the same pair fails the unique key; write() then retries row by row
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < summaries.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(summaries.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SUMMARY, missing);
+        }
+    }
+
+    private static void mergeSummary(Map<List<Long>, Object[]> rows, Long owner, Long peer, String preview,
+                                     Timestamp sentAt, Long lastSender, int unreadDelta) {
+        Object[] row = rows.get(List.of(owner, peer));
+        if (row == null) {
+            rows.put(List.of(owner, peer), new Object[]{owner, peer, preview, sentAt, lastSender, unreadDelta});
+            return;
+        }
+        Timestamp current = (Timestamp) row[3];
+        if (current == null || (sentAt != null && !sentAt.before(current))) {
+            row[2] = preview;
+            row[3] = sentAt;
+            row[4] = lastSender;
+        }
+        row[5] = (int) row[5] + unreadDelta;
+    }
+
+    private Map<String, Long> findIds(Collection<String> clientRefs) {
+        if (clientRefs.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(clientRefs.size(), "?"));
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, clientRef FROM Message WHERE clientRef IN (" + placeholders + ")",
+                rs -> {
+                    ids.put(rs.getString("clientRef"), rs.getLong("id"));
+                },
+                clientRefs.toArray());
+        return ids;
+    }
+
+    private static List<String> refsOf(List<PendingMessage> batch) {
+        List<String> refs = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            refs.add(pending.getClientRef());
+        }
+        return refs;
+    }
+}
@@ -1,13 +1,16 @@
 package com.tuniway.repository;
 
 import com.tuniway.model.Message;
-import com.tuniway.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
@@ -19,14 +22,6 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
             "ORDER BY m.sentAt ASC")
     List<Message> findMessagesBetweenUsers(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
 
-    // ✅ FIXED: Simpler query - get sender IDs where user is receiver
-    @Query("SELECT DISTINCT m.sender FROM Message m WHERE m.receiver.id = :userId")
-    List<User> findSendersToUser(@Param("userId") Long userId);
-
-    // ✅ FIXED: Get receiver IDs where user is sender
-    @Query("SELECT DISTINCT m.receiver FROM Message m WHERE m.sender.id = :userId")
-    List<User> findReceiversFromUser(@Param("userId") Long userId);
-
     // Count unread messages for a user
     @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :userId AND m.isRead = false")
     Long countUnreadMessages(@Param("userId") Long userId);
@@ -34,4 +29,35 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     // Get unread messages from a specific sender
     @Query("SELECT m FROM Message m WHERE m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.isRead = false")
     List<Message> findUnreadMessagesFrom(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId);
+
+    // Mark every unread message from a sender as read in one statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.isRead = false")
+    int markReadFrom(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId);
+
+    // Keyset pages for one direction of a conversation, newest first.
+    // Both are range scans on idx_message_sender_receiver_sent.
+    @Query("SELECT m FROM Message m WHERE m.sender.id = :senderId AND m.receiver.id = :receiverId " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findLatestSent(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId,
+                                 Pageable pageable);
+
+    @Query("SELECT m FROM Message m WHERE m.sender.id = :senderId AND m.receiver.id = :receiverId " +
+            "AND (m.sentAt < :beforeSentAt OR (m.sentAt = :beforeSentAt AND m.id < :beforeId)) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findSentBefore(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId,
+                                 @Param("beforeSentAt") LocalDateTime beforeSentAt, @Param("beforeId") Long beforeId,
+                                 Pageable pageable);
+
+    // Used to rebuild conversation summaries from the message history
+    @Query("SELECT DISTINCT m.sender.id FROM Message m WHERE m.receiver.id = :userId")
+    List<Long> findSenderIdsToUser(@Param("userId") Long userId);
+
+    @Query("SELECT DISTINCT m.receiver.id FROM Message m WHERE m.sender.id = :userId")
+    List<Long> findReceiverIdsFromUser(@Param("userId") Long userId);
+
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.isRead = false")
+    long countUnreadFrom(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId);
+
+    Optional<Message> findByClientRef(String clientRef);
 }
\ No newline at end of file
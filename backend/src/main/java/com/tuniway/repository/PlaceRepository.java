@@ -3,6 +3,7 @@ package com.tuniway.repository;
 import com.tuniway.model.Place;
 import com.tuniway.model.enums.PlaceCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +14,14 @@ public interface PlaceRepository extends JpaRepository<Place, Long> {
     List<Place> findByCategory(PlaceCategory category);
     List<Place> findByCity(String city);
     List<Place> findByNameContainingIgnoreCase(String name);
+
+    // How many users saved each place as a favorite
+    @Query(value = "SELECT place_id AS placeId, COUNT(*) AS favoriteCount FROM user_favorite_places " +
+            "GROUP BY place_id", nativeQuery = true)
+    List<PlaceFavoriteCount> findFavoriteCounts();
+
+    interface PlaceFavoriteCount {
+        Long getPlaceId();
+        Long getFavoriteCount();
+    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.tuniway.model.Review;
 import com.tuniway.model.Place;
 import com.tuniway.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +15,15 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByPlace(Place place);
     List<Review> findByUser(User user);
     List<Review> findByRatingGreaterThanEqual(Integer rating);
+
+    // Review count and average rating of every reviewed place, for the in-memory place indexes
+    @Query("SELECT r.place.id AS placeId, COUNT(r) AS reviewCount, AVG(r.rating) AS averageRating " +
+            "FROM Review r WHERE r.place IS NOT NULL GROUP BY r.place.id")
+    List<PlaceReviewStats> findPlaceReviewStats();
+
+    interface PlaceReviewStats {
+        Long getPlaceId();
+        Long getReviewCount();
+        Double getAverageRating();
+    }
 }
\ No newline at end of file
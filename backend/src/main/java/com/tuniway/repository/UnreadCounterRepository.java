@@ -0,0 +1,52 @@
+package com.tuniway.repository;
+
+import com.tuniway.model.UnreadCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UnreadCounterRepository extends JpaRepository<UnreadCounter, Long> {
+
+    @Query("SELECT c.unreadCount FROM UnreadCounter c WHERE c.userId = :userId")
+    Optional<Long> findUnreadCount(@Param("userId") Long userId);
+
+    // Creates the row or adds to it in one statement, so two first messages to a user can't race
+    @Modifying
+    @Query(value = "INSERT INTO UnreadCounter (userId, unreadCount) VALUES (:userId, :amount) " +
+            "ON DUPLICATE KEY UPDATE unreadCount = unreadCount + VALUES(unreadCount)",
+            nativeQuery = true)
+    int add(@Param("userId") Long userId, @Param("amount") long amount);
+
+    // Clamped at zero so a counter seeded concurrently with a read can't go negative
+    @Modifying
+    @Query("UPDATE UnreadCounter c SET c.unreadCount = " +
+            "CASE WHEN c.unreadCount > :amount THEN c.unreadCount - :amount ELSE 0 END " +
+            "WHERE c.userId = :userId")
+    int decrement(@Param("userId") Long userId, @Param("amount") long amount);
+
+    // Sets the counter to the current COUNT, creating it if needed
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO UnreadCounter (userId, unreadCount) " +
+            "SELECT :userId, COUNT(*) FROM Message m WHERE m.receiver_id = :userId AND m.isRead = false " +
+            "ON DUPLICATE KEY UPDATE unreadCount = VALUES(unreadCount)",
+            nativeQuery = true)
+    int reconcile(@Param("userId") Long userId);
+
+    // Users whose counter is missing or differs from the COUNT of their unread messages
+    @Query(value = "SELECT u.userId FROM (SELECT m.receiver_id AS userId, COUNT(*) AS unread FROM Message m " +
+            "WHERE m.isRead = false GROUP BY m.receiver_id) u " +
+            "LEFT JOIN UnreadCounter c ON c.userId = u.userId " +
+            "WHERE c.unreadCount IS NULL OR c.unreadCount <> u.unread " +
+            "UNION SELECT c.userId FROM UnreadCounter c WHERE c.unreadCount > 0 AND NOT EXISTS " +
+            "(SELECT 1 FROM Message m WHERE m.receiver_id = c.userId AND m.isRead = false)",
+            nativeQuery = true)
+    List<Long> findDriftedUserIds();
+}
@@ -2,8 +2,10 @@ package com.tuniway.repository;
 
 import com.tuniway.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +15,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.profilePicture LIKE 'data:%'")
+    List<Long> findIdsWithInlineProfilePicture();
 }
\ No newline at end of file
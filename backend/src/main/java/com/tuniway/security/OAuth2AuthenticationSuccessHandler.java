@@ -4,6 +4,7 @@ import com.tuniway.jwt.JwtUtils;
 import com.tuniway.model.User;
 import com.tuniway.repository.UserRepository;
 import com.tuniway.model.Client;
+import com.tuniway.service.UserService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -29,6 +30,9 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     @Lazy
     private PasswordEncoder passwordEncoder;
@@ -70,7 +74,8 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
             user = userOptional.get();
             if (avatarUrl != null && !avatarUrl.isBlank()) {
                 user.setProfilePicture(avatarUrl);
-                userRepository.save(user);
+                // Through the service so the cached principal is dropped as well
+                user = userService.updateUser(user);
             }
         } else {
             user = new Client();
@@ -82,7 +87,7 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
                 user.setProfilePicture(avatarUrl);
             }
 
-            userRepository.save(user);
+            user = userService.createUser(user);
         }
 
         String token = jwtUtils.generateJwtTokenForUser(user);
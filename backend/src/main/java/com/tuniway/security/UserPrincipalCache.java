@@ -0,0 +1,180 @@
+package com.tuniway.security;
+
+import com.tuniway.service.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting cache of authenticated principals keyed by username.
+ * Lets the JWT filter authenticate steady-state traffic without reloading the
+ * user row; UserService invalidates entries whenever a user is changed.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final int maxSize;
+    private final long ttlMs;
+
+    // Access-ordered so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, String> usernamesById = new HashMap<>();
+
+    // A principal loaded while its user was invalidated must not be cached.
+    // The id of a user being loaded is only known once the load returns, so
+    // invalidations are recorded by id (with the generation they happened at)
+    // for as long as any load is in flight.
+    private long generation;
+    private int loadsInFlight;
+    private final Map<Long, Long> invalidatedDuringLoads = new HashMap<>();
+    private long clearedAt = -1;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public UserPrincipalCache(@Value("${tuniway.security.principal-cache.max-size:10000}") int maxSize,
+                              @Value("${tuniway.security.principal-cache.ttl-ms:300000}") long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Returns the cached principal for the username, loading it on a miss.
+     */
+    public UserDetails getOrLoad(String username, Function<String, UserDetails> loader) {
+        long now = System.currentTimeMillis();
+        long startedAt;
+        synchronized (this) {
+            Entry entry = entries.get(username);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hits.increment();
+                    return entry.userDetails;
+                }
+                remove(username);
+                evictions.increment();
+            }
+            startedAt = generation;
+            loadsInFlight++;
+        }
+
+        misses.increment();
+        UserDetails loaded = null;
+        try {
+            loaded = loader.apply(username);
+            return loaded;
+        } finally {
+            finishLoad(username, loaded, now + ttlMs, startedAt);
+        }
+    }
+
+    public synchronized void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        generation++;
+        if (loadsInFlight > 0) {
+            invalidatedDuringLoads.put(userId, generation);
+        }
+        String username = usernamesById.get(userId);
+        if (username != null) {
+            remove(username);
+            invalidations.increment();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        clearedAt = ++generation;
+        invalidations.add(entries.size());
+        entries.clear();
+        usernamesById.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> snapshot() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("size", size());
+        snapshot.put("maxSize", maxSize);
+        snapshot.put("ttlMs", ttlMs);
+        snapshot.put("hits", hitCount);
+        snapshot.put("misses", missCount);
+        snapshot.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        snapshot.put("evictions", evictions.sum());
+        snapshot.put("invalidations", invalidations.sum());
+        return snapshot;
+    }
+
+    // Caches the loaded principal unless its user was invalidated after the load started
+    private synchronized void finishLoad(String username, UserDetails loaded, long expiresAt, long startedAt) {
+        loadsInFlight--;
+        Long userId = loaded == null ? null : idOf(loaded);
+        Long invalidatedAt = userId == null ? null : invalidatedDuringLoads.get(userId);
+        boolean stale = clearedAt > startedAt || (invalidatedAt != null && invalidatedAt > startedAt);
+        if (loadsInFlight == 0) {
+            invalidatedDuringLoads.clear();
+        }
+        if (loaded != null && !stale) {
+            put(username, loaded, expiresAt);
+        }
+    }
+
+    private void put(String username, UserDetails userDetails, long expiresAt) {
+        remove(username);
+        entries.put(username, new Entry(userDetails, expiresAt));
+        Long userId = idOf(userDetails);
+        if (userId != null) {
+            usernamesById.put(userId, username);
+        }
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            Long evictedId = idOf(evicted.getValue().userDetails);
+            if (evictedId != null) {
+                usernamesById.remove(evictedId, evicted.getKey());
+            }
+            evictions.increment();
+        }
+    }
+
+    private void remove(String username) {
+        Entry removed = entries.remove(username);
+        if (removed != null) {
+            Long userId = idOf(removed.userDetails);
+            if (userId != null) {
+                usernamesById.remove(userId, username);
+            }
+        }
+    }
+
+    private static Long idOf(UserDetails userDetails) {
+        return userDetails instanceof UserDetailsImpl ? ((UserDetailsImpl) userDetails).getId() : null;
+    }
+
+    private static final class Entry {
+        private final UserDetails userDetails;
+        private final long expiresAt;
+
+        private Entry(UserDetails userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
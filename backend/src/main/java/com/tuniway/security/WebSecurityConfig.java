@@ -79,6 +79,9 @@ public class WebSecurityConfig {
                         .requestMatchers("/api/places/**").permitAll()
                         .requestMatchers("/api/rest/places/**").permitAll()
                         .requestMatchers("/api/reviews/**").permitAll()
+                        .requestMatchers("/api/pictures/**").permitAll()
+                        .requestMatchers("/api/search/**").permitAll()
+                        .requestMatchers("/api/metrics/**").hasRole("ADMIN")
                         .requestMatchers("/api/messages/**").authenticated()
                         .requestMatchers("/api/users/**").authenticated()
                         .requestMatchers("/api/reservations/**").hasAnyRole("CLIENT", "GUIDE", "ADMIN")
@@ -0,0 +1,150 @@
+package com.tuniway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tuniway.model.chatbot.ChatMessage;
+import com.tuniway.util.concurrent.RingBuffer;
+import com.tuniway.util.storage.SegmentLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Recent chat messages per room (a room can be a channel or a user id),
+ * each held in a fixed-capacity ring buffer. When the segment log is
+ * enabled, every append is also written to disk and replayed on startup.
+ */
+@Service
+public class ChatHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatHistoryService.class);
+
+    public static final String DEFAULT_ROOM = "public";
+    private static final Pattern ROOM_PATTERN = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final int maxRooms;
+    private final SegmentLog segmentLog;
+
+    private final ConcurrentMap<String, RingBuffer<ChatMessage>> rooms = new ConcurrentHashMap<>();
+
+    public ChatHistoryService(ObjectMapper objectMapper,
+                              @Value("${chat.history.capacity:100}") int capacity,
+                              @Value("${chat.history.max-rooms:10000}") int maxRooms,
+                              @Value("${chat.history.log.enabled:false}") boolean logEnabled,
+                              @Value("${chat.history.log.dir:./data/chat-history}") String logDir,
+                              @Value("${chat.history.log.segment-max-bytes:4194304}") long segmentMaxBytes,
+                              @Value("${chat.history.log.max-segments:8}") int maxSegments) {
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.maxRooms = maxRooms;
+        this.segmentLog = logEnabled ? new SegmentLog(Path.of(logDir), segmentMaxBytes, maxSegments) : null;
+    }
+
+    public static boolean isValidRoom(String room) {
+        return room != null && ROOM_PATTERN.matcher(room).matches();
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        if (segmentLog == null) {
+            return;
+        }
+        int[] replayed = {0};
+        segmentLog.replay(record -> {
+            try {
+                JsonNode node = objectMapper.readTree(record);
+                String room = node.path("room").asText();
+                if (node.path("clear").asBoolean(false)) {
+                    buffer(room).clear();
+                } else {
+                    buffer(room).add(objectMapper.treeToValue(node.path("message"), ChatMessage.class));
+                }
+                replayed[0]++;
+            } catch (IOException | RuntimeException e) {
+                // Typically a record cut short by a crash
+                logger.warn("Skipping unreadable chat history record: {}", e.getMessage());
+            }
+        });
+        logger.info("Recovered {} chat history records into {} rooms", replayed[0], rooms.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (segmentLog != null) {
+            segmentLog.close();
+        }
+    }
+
+    /**
+     * Snapshot of a room's history, oldest first. Never blocks writers.
+     */
+    public List<ChatMessage> getHistory(String room) {
+        RingBuffer<ChatMessage> buffer = rooms.get(room);
+        return buffer == null ? Collections.emptyList() : buffer.snapshot();
+    }
+
+    /**
+     * @throws IllegalStateException if the room is new and the room limit is reached
+     */
+    public void append(String room, ChatMessage message) {
+        buffer(room).add(message);
+        if (segmentLog != null) {
+            ObjectNode record = objectMapper.createObjectNode();
+            record.put("room", room);
+            record.set("message", objectMapper.valueToTree(message));
+            write(record);
+        }
+    }
+
+    public void clear(String room) {
+        RingBuffer<ChatMessage> buffer = rooms.get(room);
+        if (buffer == null) {
+            return;
+        }
+        buffer.clear();
+        if (segmentLog != null) {
+            ObjectNode record = objectMapper.createObjectNode();
+            record.put("room", room);
+            record.put("clear", true);
+            write(record);
+        }
+    }
+
+    public int roomCount() {
+        return rooms.size();
+    }
+
+    private RingBuffer<ChatMessage> buffer(String room) {
+        RingBuffer<ChatMessage> buffer = rooms.get(room);
+        if (buffer != null) {
+            return buffer;
+        }
+        if (rooms.size() >= maxRooms) {
+            throw new IllegalStateException("Too many chat rooms");
+        }
+        return rooms.computeIfAbsent(room, key -> new RingBuffer<>(capacity));
+    }
+
+    private void write(ObjectNode record) {
+        try {
+            segmentLog.append(objectMapper.writeValueAsString(record));
+        } catch (IOException e) {
+            // History stays available in memory; only durability is lost
+            logger.error("Failed to append chat history record: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.tuniway.service;
+
+import com.tuniway.service.ChatbotService.ChatbotResponse;
+import com.tuniway.util.metrics.LatencyHistogram;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Runs chatbot round trips for the WebSocket chat on a bounded pool.
+ * At most poolSize requests are in flight, up to queueCapacity wait behind
+ * them, and anything beyond that is rejected so the caller can answer with
+ * a "busy" reply instead of piling up threads.
+ */
+@Service
+public class ChatbotDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatbotDispatcher.class);
+
+    private final ChatbotService chatbotService;
+    private final ThreadPoolExecutor executor;
+    private final long shutdownTimeoutMs;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram botLatency = new LatencyHistogram();
+
+    public ChatbotDispatcher(ChatbotService chatbotService,
+                             @Value("${chatbot.dispatch.pool-size:8}") int poolSize,
+                             @Value("${chatbot.dispatch.queue-capacity:100}") int queueCapacity,
+                             @Value("${chatbot.dispatch.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.chatbotService = chatbotService;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a message for the bot; onReply runs on a pool thread with the
+     * bot's response.
+     *
+     * @return false if the dispatcher is saturated or shutting down
+     */
+    public boolean dispatch(String message, Consumer<ChatbotResponse> onReply) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> run(message, onReply, enqueuedAt));
+            submitted.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Chatbot dispatch rejected: {} in flight, {} queued",
+                    inFlight.get(), executor.getQueue().size());
+            return false;
+        }
+    }
+
+    private void run(String message, Consumer<ChatbotResponse> onReply, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        queueWait.recordNanos(startedAt - enqueuedAt);
+        inFlight.incrementAndGet();
+        try {
+            ChatbotResponse response = chatbotService.sendMessageToBot(message);
+            botLatency.recordNanos(System.nanoTime() - startedAt);
+            onReply.accept(response);
+            completed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.error("Chatbot dispatch failed: {}", e.getMessage(), e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops accepting work and lets queued requests finish within the timeout.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                int dropped = executor.shutdownNow().size();
+                logger.warn("Chatbot dispatcher did not drain in {} ms, dropped {} queued requests",
+                        shutdownTimeoutMs, dropped);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("inFlight", inFlight.get());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("queueWait", queueWait.snapshot());
+        stats.put("botLatency", botLatency.snapshot());
+        return stats;
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "chatbot-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
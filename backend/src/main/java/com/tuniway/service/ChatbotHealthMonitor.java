@@ -0,0 +1,72 @@
+package com.tuniway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Probes the Flask /health endpoint in the background and keeps the last
+ * result, so health requests are answered without an outbound call.
+ */
+@Component
+public class ChatbotHealthMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatbotHealthMonitor.class);
+
+    @Autowired
+    private ChatbotService chatbotService;
+
+    // Replaced as a whole so readers always see a consistent snapshot
+    private volatile HealthState state = new HealthState(null, 0, 0, 0);
+
+    @Scheduled(fixedDelayString = "${chatbot.health.interval-ms:15000}",
+            initialDelayString = "${chatbot.health.initial-delay-ms:0}")
+    public void probe() {
+        boolean alive = chatbotService.isFlaskServerAlive();
+        long now = System.currentTimeMillis();
+        HealthState previous = state;
+
+        boolean changed = previous.available == null || previous.available != alive;
+        if (changed) {
+            logger.info("Flask chatbot is now {}", alive ? "UP" : "DOWN");
+        }
+        state = new HealthState(alive, now, changed ? now : previous.changedAt,
+                alive ? 0 : previous.consecutiveFailures + 1);
+    }
+
+    public boolean isAvailable() {
+        return Boolean.TRUE.equals(state.available);
+    }
+
+    public Map<String, Object> snapshot() {
+        HealthState current = state;
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", current.available == null ? "UNKNOWN" : current.available ? "UP" : "DOWN");
+        health.put("service", "Flask Chatbot");
+        health.put("available", Boolean.TRUE.equals(current.available));
+        health.put("circuit", chatbotService.getCircuitState().name());
+        health.put("lastCheckedAt", current.checkedAt);
+        health.put("lastChangedAt", current.changedAt);
+        health.put("consecutiveFailures", current.consecutiveFailures);
+        return health;
+    }
+
+    private static final class HealthState {
+        private final Boolean available;
+        private final long checkedAt;
+        private final long changedAt;
+        private final int consecutiveFailures;
+
+        private HealthState(Boolean available, long checkedAt, long changedAt, int consecutiveFailures) {
+            this.available = available;
+            this.checkedAt = checkedAt;
+            this.changedAt = changedAt;
+            this.consecutiveFailures = consecutiveFailures;
+        }
+    }
+}
@@ -2,41 +2,154 @@ package com.tuniway.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuniway.util.cache.CoalescingCache;
+import com.tuniway.util.concurrent.MicroBatcher;
+import com.tuniway.util.metrics.LatencyHistogram;
+import com.tuniway.util.resilience.CircuitBreaker;
+import com.tuniway.util.text.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
 
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class ChatbotService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatbotService.class);
 
-    private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
 
+    // One shared client: keeps connections to Flask alive and reuses them
+    private HttpClient httpClient;
+    private ExecutorService clientExecutor;
+    private URI chatUri;
+    private URI healthUri;
+    private CircuitBreaker circuitBreaker;
+    private CoalescingCache<ChatbotResponse> answerCache;
+    private URI batchUri;
+    private MicroBatcher<String, String> batcher;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
     @Value("${chatbot.flask.url:http://localhost:5000}")
     private String flaskServerUrl;
 
     @Value("${chatbot.flask.endpoint:/chat}")
     private String chatEndpoint;
 
+    // Per-request (read) timeout
     @Value("${chatbot.flask.timeout:5000}")
     private int timeout;
 
+    @Value("${chatbot.flask.connect-timeout:2000}")
+    private int connectTimeout;
+
+    @Value("${chatbot.flask.client-threads:4}")
+    private int clientThreads;
+
+    @Value("${chatbot.circuit.window-size:20}")
+    private int circuitWindowSize;
+
+    @Value("${chatbot.circuit.minimum-calls:10}")
+    private int circuitMinimumCalls;
+
+    @Value("${chatbot.circuit.failure-rate-threshold:50}")
+    private double circuitFailureRateThreshold;
+
+    @Value("${chatbot.circuit.open-duration-ms:30000}")
+    private long circuitOpenDurationMs;
+
+    @Value("${chatbot.circuit.half-open-permits:2}")
+    private int circuitHalfOpenPermits;
+
+    @Value("${chatbot.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${chatbot.cache.max-size:1000}")
+    private int cacheMaxSize;
+
+    @Value("${chatbot.cache.ttl-ms:600000}")
+    private long cacheTtlMs;
+
+    // Micro-batching: collect messages for up to window-ms (or max-size
+    // messages) and classify them with one call to the batch endpoint
+    @Value("${chatbot.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${chatbot.batch.endpoint:/chat/batch}")
+    private String batchEndpoint;
+
+    @Value("${chatbot.batch.window-ms:10}")
+    private long batchWindowMs;
+
+    @Value("${chatbot.batch.max-size:16}")
+    private int batchMaxSize;
+
     public ChatbotService() {
-        this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
     }
 
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        this.clientExecutor = Executors.newFixedThreadPool(clientThreads, runnable -> {
+            Thread thread = new Thread(runnable, "chatbot-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Flask speaks HTTP/1.1 only; skipping the h2c upgrade saves a round trip
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .executor(clientExecutor)
+                .build();
+        this.chatUri = URI.create(flaskServerUrl + chatEndpoint);
+        this.healthUri = URI.create(flaskServerUrl + "/health");
+        this.circuitBreaker = new CircuitBreaker("flask-chatbot", circuitWindowSize, circuitMinimumCalls,
+                circuitFailureRateThreshold, circuitOpenDurationMs, circuitHalfOpenPermits);
+        this.answerCache = new CoalescingCache<>(cacheMaxSize, cacheTtlMs);
+        if (batchEnabled) {
+            this.batchUri = URI.create(flaskServerUrl + batchEndpoint);
+            this.batcher = new MicroBatcher<>("chatbot", batchMaxSize, batchWindowMs, this::sendBatch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        clientExecutor.shutdownNow();
+    }
+
     /**
      * Send message to Flask chatbot and get response
      *
@@ -44,82 +157,215 @@ public class ChatbotService {
      * @return ChatbotResponse containing bot's reply
      */
     public ChatbotResponse sendMessageToBot(String userMessage) {
+        return sendMessageToBotAsync(userMessage).join();
+    }
+
+    /**
+     * Send message to Flask chatbot without blocking the caller. The future
+     * always completes normally; failures are mapped to an unsuccessful
+     * ChatbotResponse carrying a user-facing message.
+     *
+     * Successful answers are cached by normalized question, and identical
+     * questions asked while one is pending share that Flask call.
+     */
+    public CompletableFuture<ChatbotResponse> sendMessageToBotAsync(String userMessage) {
+        String key = TextNormalizer.normalize(userMessage);
+        if (!cacheEnabled || key.isEmpty()) {
+            return callFlask(userMessage);
+        }
+        return answerCache.getOrCompute(key, () -> callFlask(userMessage), ChatbotResponse::isSuccess)
+                .thenApply(answer -> ChatbotResponse.builder()
+                        .success(answer.isSuccess())
+                        .message(answer.getMessage())
+                        .originalMessage(userMessage)
+                        .error(answer.getError())
+                        .build());
+    }
+
+    private CompletableFuture<ChatbotResponse> callFlask(String userMessage) {
         logger.info("📤 Sending message to Flask chatbot: {}", userMessage);
 
-        try {
-            // Prepare request body
-            Map<String, String> requestBody = new HashMap<>();
-            requestBody.put("message", userMessage);
+        // Flask known to be down: answer immediately instead of waiting for a connect timeout
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.completedFuture(ChatbotResponse.builder()
+                    .success(false)
+                    .message("Sorry, the chatbot service is currently unavailable. Please try again later.")
+                    .originalMessage(userMessage)
+                    .error("Circuit breaker open")
+                    .build());
+        }
 
-            // Prepare headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+        long startedAt = System.nanoTime();
+        requests.increment();
+        inFlight.incrementAndGet();
+        CompletableFuture<ChatbotResponse> call = batcher != null ? callBatched(userMessage) : callSingle(userMessage);
+        return call
+                .exceptionally(e -> toFailureResponse(userMessage, e))
+                .whenComplete((response, e) -> {
+                    inFlight.decrementAndGet();
+                    latency.recordNanos(System.nanoTime() - startedAt);
+                    if (response != null && response.isSuccess()) {
+                        successes.increment();
+                    } else {
+                        failures.increment();
+                    }
+                });
+    }
 
-            // Create HTTP entity
-            HttpEntity<Map<String, String>> entity = new HttpEntity<>(requestBody, headers);
+    private CompletableFuture<ChatbotResponse> callSingle(String userMessage) {
+        Map<String, String> requestBody = new HashMap<>();
+        requestBody.put("message", userMessage);
 
-            // Make the request to Flask server
-            String fullUrl = flaskServerUrl + chatEndpoint;
-            logger.debug("🌐 Flask URL: {}", fullUrl);
+        HttpRequest request;
+        try {
+            request = jsonPost(chatUri, requestBody);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> toChatbotResponse(userMessage, response));
+    }
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    fullUrl,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
+    private CompletableFuture<ChatbotResponse> callBatched(String userMessage) {
+        return batcher.submit(userMessage).thenApply(botReply -> {
+            circuitBreaker.onSuccess();
+            logger.info("✅ Received response from chatbot: {}", botReply);
+            return ChatbotResponse.builder()
+                    .success(true)
+                    .message(botReply)
+                    .originalMessage(userMessage)
+                    .build();
+        });
+    }
 
-            // Parse response
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+    // Sends one batch to Flask; replies come back in request order
+    private CompletableFuture<List<String>> sendBatch(List<String> messages) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("messages", messages);
 
-                // Extract bot response (adjust field name based on your Flask response)
-                String botReply = extractBotReply(jsonResponse);
+        HttpRequest request;
+        try {
+            request = jsonPost(batchUri, requestBody);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            try {
+                if (response.statusCode() != 200) {
+                    throw new IOException("Batch request failed with HTTP " + response.statusCode());
+                }
+                JsonNode replies = objectMapper.readTree(response.body()).path("responses");
+                List<String> botReplies = new ArrayList<>(replies.size());
+                for (JsonNode reply : replies) {
+                    botReplies.add(extractBotReply(reply));
+                }
+                return botReplies;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
 
-                logger.info("✅ Received response from chatbot: {}", botReply);
+    private HttpRequest jsonPost(URI uri, Object body) throws IOException {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(timeout))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
 
-                return ChatbotResponse.builder()
-                        .success(true)
-                        .message(botReply)
-                        .originalMessage(userMessage)
-                        .build();
-            } else {
-                logger.error("❌ Unexpected response status: {}", response.getStatusCode());
+    private ChatbotResponse toChatbotResponse(String userMessage, HttpResponse<String> response) {
+        // 4xx means Flask is up and rejected this request; only 5xx count against it
+        if (response.statusCode() >= 500) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+
+        if (response.statusCode() != 200 || response.body() == null) {
+            logger.error("❌ Unexpected response status: {}", response.statusCode());
+            if (response.statusCode() >= 400) {
                 return ChatbotResponse.builder()
                         .success(false)
-                        .message("Sorry, I couldn't process your message right now.")
+                        .message("Sorry, there was an error processing your request.")
                         .originalMessage(userMessage)
-                        .error("Unexpected response status: " + response.getStatusCode())
+                        .error("HTTP " + response.statusCode())
                         .build();
             }
-
-        } catch (ResourceAccessException e) {
-            logger.error("❌ Flask server is not reachable: {}", e.getMessage());
             return ChatbotResponse.builder()
                     .success(false)
-                    .message("Sorry, the chatbot service is currently unavailable. Please try again later.")
+                    .message("Sorry, I couldn't process your message right now.")
                     .originalMessage(userMessage)
-                    .error("Connection timeout or server unreachable")
+                    .error("Unexpected response status: " + response.statusCode())
                     .build();
+        }
+
+        try {
+            JsonNode jsonResponse = objectMapper.readTree(response.body());
+
+            // Extract bot response (adjust field name based on your Flask response)
+            String botReply = extractBotReply(jsonResponse);
+
+            logger.info("✅ Received response from chatbot: {}", botReply);
 
-        } catch (HttpClientErrorException | HttpServerErrorException e) {
-            logger.error("❌ HTTP error from Flask: {} - {}", e.getStatusCode(), e.getMessage());
             return ChatbotResponse.builder()
-                    .success(false)
-                    .message("Sorry, there was an error processing your request.")
+                    .success(true)
+                    .message(botReply)
                     .originalMessage(userMessage)
-                    .error("HTTP " + e.getStatusCode() + ": " + e.getMessage())
                     .build();
-
         } catch (Exception e) {
-            logger.error("❌ Unexpected error: {}", e.getMessage(), e);
+            return unexpectedError(userMessage, e);
+        }
+    }
+
+    private ChatbotResponse toFailureResponse(String userMessage, Throwable e) {
+        circuitBreaker.onFailure();
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+        if (cause instanceof HttpTimeoutException || cause instanceof ConnectException) {
+            if (cause instanceof HttpTimeoutException && !(cause instanceof HttpConnectTimeoutException)) {
+                timeouts.increment();
+            }
+            logger.error("❌ Flask server is not reachable: {}", cause.getMessage());
             return ChatbotResponse.builder()
                     .success(false)
-                    .message("Sorry, an unexpected error occurred.")
+                    .message("Sorry, the chatbot service is currently unavailable. Please try again later.")
                     .originalMessage(userMessage)
-                    .error(e.getMessage())
+                    .error("Connection timeout or server unreachable")
                     .build();
         }
+        return unexpectedError(userMessage, cause);
+    }
+
+    private ChatbotResponse unexpectedError(String userMessage, Throwable e) {
+        logger.error("❌ Unexpected error: {}", e.getMessage(), e);
+        return ChatbotResponse.builder()
+                .success(false)
+                .message("Sorry, an unexpected error occurred.")
+                .originalMessage(userMessage)
+                .error(e.getMessage())
+                .build();
+    }
+
+    public Map<String, Object> getClientStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.get());
+        stats.put("requests", requests.sum());
+        stats.put("successes", successes.sum());
+        stats.put("failures", failures.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("latency", latency.snapshot());
+        stats.put("circuitBreaker", circuitBreaker.snapshot());
+        if (batcher != null) {
+            stats.put("batching", batcher.snapshot());
+        }
+        return stats;
+    }
+
+    public Map<String, Object> getAnswerCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(answerCache.snapshot());
+        stats.put("enabled", cacheEnabled);
+        return stats;
     }
 
     /**
@@ -145,14 +391,25 @@ public class ChatbotService {
         return jsonResponse.toString();
     }
 
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
     /**
-     * Check if Flask chatbot is alive
+     * Check if Flask chatbot is alive. Makes an outbound call; request paths
+     * should read the cached state from ChatbotHealthMonitor instead.
      */
     public boolean isFlaskServerAlive() {
         try {
-            String healthUrl = flaskServerUrl + "/health";
-            ResponseEntity<String> response = restTemplate.getForEntity(healthUrl, String.class);
-            return response.getStatusCode() == HttpStatus.OK;
+            HttpRequest request = HttpRequest.newBuilder(healthUri)
+                    .timeout(Duration.ofMillis(timeout))
+                    .GET()
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
             logger.warn("⚠️ Flask server health check failed: {}", e.getMessage());
             return false;
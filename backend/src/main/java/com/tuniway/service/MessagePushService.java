@@ -0,0 +1,58 @@
+package com.tuniway.service;
+
+import com.tuniway.event.MessageSentEvent;
+import com.tuniway.event.MessagesReadEvent;
+import com.tuniway.dto.SentMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pushes direct messages and unread-count deltas to the users involved as
+ * soon as the writing transaction commits, so clients don't have to poll.
+ * STOMP principals are named by user id (see StompAuthInterceptor), so
+ * clients subscribe to /user/queue/messages and /user/queue/unread.
+ */
+@Service
+public class MessagePushService {
+
+    public static final String MESSAGES_QUEUE = "/queue/messages";
+    public static final String UNREAD_QUEUE = "/queue/unread";
+
+    @Autowired
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        SentMessage message = event.getMessage();
+        String receiver = String.valueOf(message.getReceiverId());
+        String sender = String.valueOf(message.getSenderId());
+
+        messagingTemplate.convertAndSendToUser(receiver, MESSAGES_QUEUE, message);
+        // The sender's other tabs/devices show the message too
+        messagingTemplate.convertAndSendToUser(sender, MESSAGES_QUEUE, message);
+
+        if (!Boolean.TRUE.equals(message.getIsRead())) {
+            messagingTemplate.convertAndSendToUser(receiver, UNREAD_QUEUE,
+                    unreadDelta(message.getSenderId(), 1));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        messagingTemplate.convertAndSendToUser(String.valueOf(event.getReceiverId()), UNREAD_QUEUE,
+                unreadDelta(event.getSenderId(), -event.getCount()));
+    }
+
+    private static Map<String, Object> unreadDelta(Long peerId, int delta) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("peerId", peerId);
+        payload.put("delta", delta);
+        return payload;
+    }
+}
@@ -1,54 +1,233 @@
 package com.tuniway.service;
 
+import com.tuniway.dto.MessagePage;
+import com.tuniway.dto.SentMessage;
+import com.tuniway.event.MessageSentEvent;
+import com.tuniway.event.MessagesReadEvent;
+import com.tuniway.model.ConversationSummary;
 import com.tuniway.model.Message;
 import com.tuniway.model.User;
+import com.tuniway.repository.ConversationSummaryRepository;
 import com.tuniway.repository.MessageRepository;
+import com.tuniway.repository.UnreadCounterRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Service
 public class MessageService {
 
+    public static final int DEFAULT_PAGE_SIZE = 30;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Comparator<Message> NEWEST_FIRST = Comparator
+            .comparing(Message::getSentAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Message::getId)
+            .reversed();
+
     @Autowired
     private MessageRepository messageRepository;
 
+    @Autowired
+    private UnreadCounterRepository unreadCounterRepository;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MessageWriteBehind messageWriteBehind;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Stores a direct message. With write-behind enabled the message is only
+     * journaled and queued here, and is returned without an id.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the write-behind queue is full
+     */
     public Message sendMessage(Message message) {
-        return messageRepository.save(message);
+        if (messageWriteBehind.isEnabled()) {
+            // No transaction or lookup on the request thread: the batch writer skips stored clientRefs
+            return messageWriteBehind.submit(message);
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> storeMessage(message));
+    }
+
+    private Message storeMessage(Message message) {
+        if (message.getClientRef() != null) {
+            // Retried request: return the stored message instead of inserting it twice
+            Optional<Message> existing = messageRepository.findByClientRef(message.getClientRef());
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+
+        Message saved = messageRepository.save(message);
+        if (saved.getSender() == null || saved.getReceiver() == null) {
+            return saved;
+        }
+
+        Long senderId = saved.getSender().getId();
+        Long receiverId = saved.getReceiver().getId();
+        boolean unread = !Boolean.TRUE.equals(saved.getIsRead());
+        if (unread) {
+            unreadCounterRepository.add(receiverId, 1);
+        }
+
+        // Both sides of the conversation see it at the top of their inbox
+        String preview = ConversationSummary.preview(saved.getContent());
+        conversationSummaryRepository.recordMessage(senderId, receiverId, preview, saved.getSentAt(), senderId, 0);
+        conversationSummaryRepository.recordMessage(receiverId, senderId, preview, saved.getSentAt(), senderId, unread ? 1 : 0);
+
+        // Pushed to both users over STOMP after commit
+        eventPublisher.publishEvent(new MessageSentEvent(SentMessage.of(saved)));
+        return saved;
     }
 
     public List<Message> getMessagesBetweenUsers(Long user1Id, Long user2Id) {
         return messageRepository.findMessagesBetweenUsers(user1Id, user2Id);
     }
 
+    /**
+     * Returns the newest messages between two users that are older than the
+     * cursor (or the newest overall when cursor is null). Each direction is
+     * read with its own keyset query so the cost doesn't grow with history.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public MessagePage getConversationPage(Long user1Id, Long user2Id, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, size + 1);
+
+        List<Message> merged = new ArrayList<>();
+        if (cursor == null || cursor.isBlank()) {
+            merged.addAll(messageRepository.findLatestSent(user1Id, user2Id, pageable));
+            merged.addAll(messageRepository.findLatestSent(user2Id, user1Id, pageable));
+        } else {
+            Message before = decodeCursor(cursor);
+            merged.addAll(messageRepository.findSentBefore(user1Id, user2Id, before.getSentAt(), before.getId(), pageable));
+            merged.addAll(messageRepository.findSentBefore(user2Id, user1Id, before.getSentAt(), before.getId(), pageable));
+        }
+        merged.sort(NEWEST_FIRST);
+
+        boolean hasMore = merged.size() > size;
+        List<Message> page = new ArrayList<>(merged.subList(0, Math.min(size, merged.size())));
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+        Collections.reverse(page);
+        return new MessagePage(page, nextCursor, hasMore);
+    }
+
+    // Cursor = base64url("<sentAt>|<id>") of the oldest message already shown
+    private static String encodeCursor(Message message) {
+        String raw = message.getSentAt() + "|" + message.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Message decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            Message position = new Message();
+            position.setSentAt(LocalDateTime.parse(raw.substring(0, separator)));
+            position.setId(Long.parseLong(raw.substring(separator + 1)));
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Conversations of a user with last message preview and unread count,
+     * most recent first. Served from the summary table in one query.
+     */
+    public List<ConversationSummary> getInbox(Long userId) {
+        return conversationSummaryRepository.findInbox(userId);
+    }
 
     public List<User> getConversationParticipants(Long userId) {
-        List<User> senders = messageRepository.findSendersToUser(userId);
-        List<User> receivers = messageRepository.findReceiversFromUser(userId);
+        List<User> participants = new ArrayList<>();
+        for (ConversationSummary summary : conversationSummaryRepository.findInbox(userId)) {
+            participants.add(summary.getPeer());
+        }
+        return participants;
+    }
 
-        // Combine and remove duplicates
-        Set<User> allParticipants = new HashSet<>(senders);
-        allParticipants.addAll(receivers);
+    /**
+     * Adds the inbox rows of one user that are missing, from the message
+     * table. Only needed for history written before summaries existed; rows
+     * already there are kept up to date by sends and left alone.
+     */
+    @Transactional
+    public int rebuildConversationSummaries(Long ownerId) {
+        Set<Long> peerIds = new HashSet<>(messageRepository.findSenderIdsToUser(ownerId));
+        peerIds.addAll(messageRepository.findReceiverIdsFromUser(ownerId));
+        peerIds.removeAll(conversationSummaryRepository.findPeerIds(ownerId));
 
-        return new ArrayList<>(allParticipants);
+        Pageable latest = PageRequest.of(0, 1);
+        int rows = 0;
+        for (Long peerId : peerIds) {
+            List<Message> last = new ArrayList<>(messageRepository.findLatestSent(ownerId, peerId, latest));
+            last.addAll(messageRepository.findLatestSent(peerId, ownerId, latest));
+            last.sort(NEWEST_FIRST);
+            if (last.isEmpty()) {
+                continue;
+            }
+            Message lastMessage = last.get(0);
+            // Same upsert as a send, so a first message sent meanwhile merges into the row instead of colliding
+            conversationSummaryRepository.recordMessage(ownerId, peerId,
+                    ConversationSummary.preview(lastMessage.getContent()), lastMessage.getSentAt(),
+                    lastMessage.getSender().getId(), messageRepository.countUnreadFrom(ownerId, peerId));
+            rows++;
+        }
+        return rows;
     }
 
 
 
+    @Transactional
     public Long countUnreadMessages(Long userId) {
+        Optional<Long> count = unreadCounterRepository.findUnreadCount(userId);
+        if (count.isPresent()) {
+            return count.get();
+        }
+        // No row yet: answer from the message table and leave creating it to add() or the reconciler
         return messageRepository.countUnreadMessages(userId);
     }
 
-    public void markMessagesAsRead(Long receiverId, Long senderId) {
-        List<Message> unreadMessages = messageRepository.findUnreadMessagesFrom(receiverId, senderId);
-        for (Message message : unreadMessages) {
-            message.setIsRead(true);
-            messageRepository.save(message);
+    /**
+     * Marks every unread message from senderId to receiverId as read with a
+     * single UPDATE and returns the number of messages that changed.
+     */
+    @Transactional
+    public int markMessagesAsRead(Long receiverId, Long senderId) {
+        int updated = messageRepository.markReadFrom(receiverId, senderId);
+        if (updated > 0) {
+            unreadCounterRepository.decrement(receiverId, updated);
+            conversationSummaryRepository.clearUnread(receiverId, senderId);
+            eventPublisher.publishEvent(new MessagesReadEvent(receiverId, senderId, updated));
         }
+        return updated;
     }
 
     public Message getMessageById(Long id) {
@@ -0,0 +1,313 @@
+package com.tuniway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuniway.dto.PendingMessage;
+import com.tuniway.dto.SentMessage;
+import com.tuniway.event.MessageSentEvent;
+import com.tuniway.model.Message;
+import com.tuniway.repository.MessageBatchWriter;
+import com.tuniway.util.metrics.LatencyHistogram;
+import com.tuniway.util.storage.SegmentLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional write-behind path for direct messages. A message is acknowledged
+ * once it is appended to a local journal and queued in memory; a single
+ * writer thread drains the queue into MySQL in JDBC batches. The journal
+ * is replayed on startup, and clientRef makes replays idempotent. The
+ * in-memory queue is bounded: when it is full, new messages are rejected
+ * rather than buffered.
+ */
+@Service
+public class MessageWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageWriteBehind.class);
+
+    private final MessageBatchWriter batchWriter;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Path journalDir;
+    private final long segmentMaxBytes;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final boolean fsync;
+    private final long retryBackoffMs;
+    private final long shutdownTimeoutMs;
+
+    private final BlockingQueue<PendingMessage> queue;
+    // Journal append + enqueue, and the journal cleanup after a drain, happen under this lock
+    private final Object journalLock = new Object();
+    private SegmentLog journal;
+    // Group commit: records appended so far, and how many of them a finished fsync covers
+    private volatile long appended;
+    private final Object syncLock = new Object();
+    private long synced;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+
+    public MessageWriteBehind(MessageBatchWriter batchWriter, ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${tuniway.messages.write-behind.enabled:false}") boolean enabled,
+                              @Value("${tuniway.messages.write-behind.journal-dir:./data/message-journal}") String journalDir,
+                              @Value("${tuniway.messages.write-behind.segment-max-bytes:16777216}") long segmentMaxBytes,
+                              @Value("${tuniway.messages.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${tuniway.messages.write-behind.batch-size:200}") int batchSize,
+                              @Value("${tuniway.messages.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+                              @Value("${tuniway.messages.write-behind.fsync:true}") boolean fsync,
+                              @Value("${tuniway.messages.write-behind.retry-backoff-ms:1000}") long retryBackoffMs,
+                              @Value("${tuniway.messages.write-behind.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.batchWriter = batchWriter;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.journalDir = Path.of(journalDir);
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = flushIntervalMs;
+        this.fsync = fsync;
+        this.retryBackoffMs = retryBackoffMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays the journal into MySQL, then starts the writer thread.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        // Segments are never dropped by count: each one is deleted once every message in it is stored
+        journal = new SegmentLog(journalDir, segmentMaxBytes, Integer.MAX_VALUE);
+        recover();
+
+        running = true;
+        writer = new Thread(this::drainLoop, "message-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Message write-behind enabled (journal {}, batch size {})", journalDir, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(shutdownTimeoutMs);
+        if (!queue.isEmpty()) {
+            logger.warn("{} queued messages left in the journal for the next start", queue.size());
+        }
+        journal.close();
+    }
+
+    /**
+     * Journals and queues the message. The returned message has no id yet;
+     * its clientRef identifies it until the row is written. With fsync on,
+     * this returns once the record is on disk; concurrent senders share
+     * one fsync rather than queueing behind one each.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public Message submit(Message message) {
+        String clientRef = message.getClientRef() != null ? message.getClientRef() : UUID.randomUUID().toString();
+        message.setClientRef(clientRef);
+        PendingMessage pending = PendingMessage.of(message, clientRef);
+        long sequence;
+        synchronized (journalLock) {
+            // Only this method adds to the queue, so remaining capacity can't shrink before offer()
+            if (!running || queue.remainingCapacity() == 0) {
+                rejected.increment();
+                throw new RejectedExecutionException("Message queue is full");
+            }
+            try {
+                pending.setJournalSegment(journal.append(objectMapper.writeValueAsString(pending)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot journal message", e);
+            }
+            sequence = ++appended;
+            queue.add(pending);
+        }
+        if (fsync) {
+            awaitSync(sequence);
+        }
+        accepted.increment();
+        return message;
+    }
+
+    // The first waiter forces everything appended so far; waiters it covered return without syncing
+    private void awaitSync(long sequence) {
+        synchronized (syncLock) {
+            if (synced >= sequence) {
+                return;
+            }
+            long covered = appended;
+            try {
+                journal.sync();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot sync message journal", e);
+            }
+            synced = covered;
+            syncs.increment();
+        }
+    }
+
+    /**
+     * Writes every journaled message that is not in MySQL yet, then resets
+     * the journal. Rows already inserted before a crash are skipped by
+     * clientRef.
+     */
+    public void recover() throws IOException {
+        Map<String, PendingMessage> journaled = new LinkedHashMap<>();
+        journal.replay(record -> {
+            try {
+                PendingMessage pending = objectMapper.readValue(record, PendingMessage.class);
+                journaled.put(pending.getClientRef(), pending);
+            } catch (IOException e) {
+                // Typically the last record, cut short by a crash before it was acknowledged
+                logger.warn("Skipping unreadable message journal record: {}", e.getMessage());
+            }
+        });
+
+        List<PendingMessage> pending = new ArrayList<>(journaled.values());
+        int stored = 0;
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            stored += batchWriter.write(pending.subList(from, Math.min(from + batchSize, pending.size()))).size();
+        }
+        recovered.add(stored);
+        journal.reset();
+        if (!pending.isEmpty()) {
+            logger.info("Recovered {} journaled messages, {} were not yet stored", pending.size(), stored);
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    PendingMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Woken by stop(); the loop condition decides whether anything is left to drain
+            } catch (RuntimeException e) {
+                if (!running) {
+                    // The journal still holds these messages; they are written on the next start
+                    return;
+                }
+                sleepQuietly(retryBackoffMs);
+            }
+        }
+    }
+
+    // On failure the caller retries the same batch until it is stored or the service stops
+    private void flush(List<PendingMessage> batch) {
+        long started = System.nanoTime();
+        Map<String, Long> ids;
+        try {
+            ids = batchWriter.write(batch);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            logger.error("Failed to write {} queued messages, will retry: {}", batch.size(), e.getMessage());
+            throw e;
+        }
+        flushLatency.recordNanos(System.nanoTime() - started);
+        batches.increment();
+        written.add(ids.size());
+
+        synchronized (journalLock) {
+            // The queue is FIFO and this is its only consumer: every segment older than the
+            // oldest queued message is stored, and everything journaled is once the queue is empty
+            try {
+                PendingMessage oldest = queue.peek();
+                if (oldest == null) {
+                    journal.reset();
+                } else {
+                    journal.deleteBefore(oldest.getJournalSegment());
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot trim message journal: {}", e.getMessage());
+            }
+        }
+
+        for (PendingMessage pending : batch) {
+            Long id = ids.get(pending.getClientRef());
+            if (id == null) {
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(new MessageSentEvent(SentMessage.of(pending, id)));
+            } catch (RuntimeException e) {
+                // The batch is committed: a failed push must not make the caller retry it
+                logger.warn("Failed to push stored message {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Only stop() interrupts the writer; the drain loop re-checks running
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queued", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("written", written.sum());
+        stats.put("batches", batches.sum());
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("recovered", recovered.sum());
+        stats.put("journalSyncs", syncs.sum());
+        stats.put("flushMs", flushLatency.snapshot());
+        return stats;
+    }
+}
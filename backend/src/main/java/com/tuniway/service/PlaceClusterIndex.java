@@ -0,0 +1,125 @@
+package com.tuniway.service;
+
+import com.tuniway.event.PlaceChangedEvent;
+import com.tuniway.model.Place;
+import com.tuniway.model.enums.PlaceCategory;
+import com.tuniway.repository.PlaceRepository;
+import com.tuniway.util.geo.ClusterPyramid;
+import com.tuniway.util.geo.ClusterPyramid.Cluster;
+import com.tuniway.util.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Map marker clusters per zoom level, kept current through PlaceChangedEvent.
+ * Above max-zoom clients switch to individual markers from /api/places/within.
+ */
+@Service
+public class PlaceClusterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceClusterIndex.class);
+    private static final PlaceCategory[] CATEGORIES = PlaceCategory.values();
+
+    private final PlaceRepository placeRepository;
+    private final int maxZoom;
+    private final int cellsPerTile;
+    private final int maxCells;
+
+    // Swapped as a whole on rebuild so queries never see a half-loaded pyramid
+    private volatile ClusterPyramid pyramid;
+
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+
+    public PlaceClusterIndex(PlaceRepository placeRepository,
+                             @Value("${tuniway.places.clusters.max-zoom:14}") int maxZoom,
+                             @Value("${tuniway.places.clusters.cells-per-tile:4}") int cellsPerTile,
+                             @Value("${tuniway.places.clusters.max-cells:4096}") int maxCells) {
+        this.placeRepository = placeRepository;
+        this.maxZoom = maxZoom;
+        this.cellsPerTile = cellsPerTile;
+        this.maxCells = maxCells;
+        this.pyramid = new ClusterPyramid(maxZoom, cellsPerTile, CATEGORIES.length);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        ClusterPyramid fresh = new ClusterPyramid(maxZoom, cellsPerTile, CATEGORIES.length);
+        for (Place place : placeRepository.findAll()) {
+            if (hasCoordinates(place)) {
+                fresh.put(place.getId(), place.getLatitude(), place.getLongitude(), categoryIndex(place));
+            }
+        }
+        pyramid = fresh;
+        logger.info("Cluster index loaded {} places over zoom 0-{} in {} ms", fresh.size(), maxZoom,
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onPlaceChanged(PlaceChangedEvent event) {
+        Place place = event.getPlace();
+        if (event.isDeleted() || !hasCoordinates(place)) {
+            pyramid.remove(event.getPlaceId());
+        } else {
+            pyramid.put(place.getId(), place.getLatitude(), place.getLongitude(), categoryIndex(place));
+        }
+    }
+
+    /**
+     * Clusters covering the viewport at the given zoom.
+     *
+     * @throws IllegalArgumentException for an invalid box, or one too large for the zoom
+     */
+    public List<Cluster> clusters(double south, double west, double north, double east, int zoom) {
+        long startedAt = System.nanoTime();
+        List<Cluster> clusters = pyramid.clusters(south, west, north, east, zoom, maxCells);
+        queryLatency.recordNanos(System.nanoTime() - startedAt);
+        return clusters;
+    }
+
+    /**
+     * Non-zero category counts of a cluster, keyed by category name.
+     */
+    public static Map<String, Integer> categoryBreakdown(Cluster cluster) {
+        Map<String, Integer> breakdown = new LinkedHashMap<>();
+        int[] counts = cluster.getCategoryCounts();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                breakdown.put(CATEGORIES[i].name(), counts[i]);
+            }
+        }
+        return breakdown;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public Map<String, Object> snapshot() {
+        ClusterPyramid current = pyramid;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("places", current.size());
+        stats.put("maxZoom", maxZoom);
+        stats.put("cellsPerLevel", current.cellsPerLevel());
+        stats.put("queryLatency", queryLatency.snapshot());
+        return stats;
+    }
+
+    private static int categoryIndex(Place place) {
+        return place.getCategory() == null ? -1 : place.getCategory().ordinal();
+    }
+
+    private static boolean hasCoordinates(Place place) {
+        return place.getId() != null && place.getLatitude() != null && place.getLongitude() != null;
+    }
+}
@@ -0,0 +1,263 @@
+package com.tuniway.service;
+
+import com.tuniway.event.PlaceChangedEvent;
+import com.tuniway.model.Place;
+import com.tuniway.model.enums.PlaceCategory;
+import com.tuniway.repository.PlaceRepository;
+import com.tuniway.repository.ReviewRepository;
+import com.tuniway.util.facet.BitmapFacetIndex;
+import com.tuniway.util.facet.BitmapFacetIndex.Filter;
+import com.tuniway.util.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Faceted place browsing: any combination of categories, cities and an
+ * average rating range, with per-value counts for the filter sidebar.
+ * Category, city and whole-star rating bitmaps follow PlaceChangedEvent;
+ * average ratings are reloaded periodically. Cities are keyed case-insensitively
+ * and reported with the first spelling seen for each key.
+ */
+@Service
+public class PlaceFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceFacetIndex.class);
+
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_CITY = "city";
+    public static final String FACET_RATING = "rating";
+    private static final List<String> FACETS = List.of(FACET_CATEGORY, FACET_CITY, FACET_RATING);
+    private static final int MAX_RATING = 5;
+
+    // Best rated first, unrated last
+    private static final Comparator<FacetedPlace> BY_RATING = Comparator
+            .comparing((FacetedPlace place) -> place.averageRating, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(place -> place.reviewCount, Comparator.reverseOrder())
+            .thenComparing(place -> place.place.getId());
+
+    private final PlaceRepository placeRepository;
+    private final ReviewRepository reviewRepository;
+    private final int maxPageSize;
+
+    // Swapped as a whole on rebuild; writers synchronize on this service
+    private volatile BitmapFacetIndex<FacetedPlace> index = new BitmapFacetIndex<>();
+    // City key -> display name, swapped together with the index
+    private volatile Map<String, String> cityNames = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+
+    public PlaceFacetIndex(PlaceRepository placeRepository,
+                           ReviewRepository reviewRepository,
+                           @Value("${tuniway.places.facets.max-page-size:100}") int maxPageSize) {
+        this.placeRepository = placeRepository;
+        this.reviewRepository = reviewRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        Map<Long, ReviewRepository.PlaceReviewStats> ratings = loadRatings();
+        BitmapFacetIndex<FacetedPlace> fresh = new BitmapFacetIndex<>();
+        Map<String, String> freshNames = new ConcurrentHashMap<>();
+        for (Place place : placeRepository.findAll()) {
+            if (place.getId() != null) {
+                put(fresh, freshNames, place, ratings.get(place.getId()));
+            }
+        }
+        index = fresh;
+        cityNames = freshNames;
+        logger.info("Facet index loaded {} places in {} ms", fresh.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onPlaceChanged(PlaceChangedEvent event) {
+        BitmapFacetIndex<FacetedPlace> current = index;
+        if (event.isDeleted()) {
+            current.remove(event.getPlaceId());
+            return;
+        }
+        Place place = event.getPlace();
+        if (place.getId() == null) {
+            return;
+        }
+        // Reviews don't change with the place itself, keep what was loaded
+        FacetedPlace previous = current.get(place.getId());
+        put(current, cityNames, new FacetedPlace(place,
+                previous == null ? null : previous.averageRating,
+                previous == null ? 0 : previous.reviewCount));
+    }
+
+    @Scheduled(fixedDelayString = "${tuniway.places.facets.rating-refresh-ms:600000}",
+            initialDelayString = "${tuniway.places.facets.rating-refresh-ms:600000}")
+    public synchronized void refreshRatings() {
+        Map<Long, ReviewRepository.PlaceReviewStats> ratings = loadRatings();
+        BitmapFacetIndex<FacetedPlace> current = index;
+        int changed = 0;
+        for (FacetedPlace place : current.values()) {
+            ReviewRepository.PlaceReviewStats stats = ratings.get(place.place.getId());
+            Double averageRating = stats == null ? null : stats.getAverageRating();
+            long reviewCount = stats == null ? 0 : stats.getReviewCount();
+            if (!Objects.equals(averageRating, place.averageRating) || reviewCount != place.reviewCount) {
+                put(current, cityNames, place.place, stats);
+                changed++;
+            }
+        }
+        logger.debug("Facet index ratings refreshed, {} places changed", changed);
+    }
+
+    /**
+     * Places matching every given filter, best rated first, with category,
+     * city and rating counts. Several categories (or cities) match any of
+     * them; a rating range leaves out unrated places. City facet counts are
+     * keyed like the city filter, with display names under "cityNames".
+     *
+     * @throws IllegalArgumentException for an invalid rating range or page
+     */
+    public Map<String, Object> browse(Set<PlaceCategory> categories, Set<String> cities,
+                                      Double minRating, Double maxRating, int page, int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + maxPageSize);
+        }
+        if (page > Integer.MAX_VALUE / size) {
+            throw new IllegalArgumentException("page is too large");
+        }
+        double min = minRating == null ? 0 : minRating;
+        double max = maxRating == null ? MAX_RATING : maxRating;
+        if (min < 0 || max > MAX_RATING || min > max) {
+            throw new IllegalArgumentException("Rating range must be within 0-" + MAX_RATING + " and min <= max");
+        }
+
+        List<Filter<FacetedPlace>> filters = new ArrayList<>();
+        if (categories != null && !categories.isEmpty()) {
+            Set<String> values = new HashSet<>();
+            categories.forEach(category -> values.add(category.name()));
+            filters.add(Filter.anyOf(FACET_CATEGORY, values));
+        }
+        if (cities != null && !cities.isEmpty()) {
+            Set<String> values = new HashSet<>();
+            cities.forEach(city -> values.add(cityKey(city)));
+            filters.add(Filter.anyOf(FACET_CITY, values));
+        }
+        if (minRating != null || maxRating != null) {
+            filters.add(ratingFilter(min, max));
+        }
+
+        long startedAt = System.nanoTime();
+        BitmapFacetIndex.Page<FacetedPlace> hits = index.query(filters, FACETS, BY_RATING, page * size, size);
+        queryLatency.recordNanos(System.nanoTime() - startedAt);
+
+        List<Map<String, Object>> results = new ArrayList<>(hits.getHits().size());
+        for (FacetedPlace hit : hits.getHits()) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("place", hit.place);
+            result.put("averageRating", hit.averageRating == null ? null : Math.round(hit.averageRating * 100) / 100.0);
+            result.put("reviewCount", hit.reviewCount);
+            results.add(result);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total", hits.getTotal());
+        response.put("page", page);
+        response.put("size", size);
+        response.put("results", results);
+        response.put("facets", hits.getFacets());
+        Map<String, String> names = new LinkedHashMap<>();
+        Map<String, String> known = cityNames;
+        for (String key : hits.getFacets().get(FACET_CITY).keySet()) {
+            names.put(key, known.getOrDefault(key, key));
+        }
+        response.put("cityNames", names);
+        return response;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("places", index.size());
+        stats.put("queryLatency", queryLatency.snapshot());
+        return stats;
+    }
+
+    // Bucket n holds averages in [n, n + 1), the last one exactly 5. Buckets inside the range
+    // are taken as they are, the ones it cuts are checked per place.
+    private static Filter<FacetedPlace> ratingFilter(double min, double max) {
+        Set<String> whole = new HashSet<>();
+        Set<String> partial = new HashSet<>();
+        for (int star = 0; star <= MAX_RATING; star++) {
+            double upper = star == MAX_RATING ? MAX_RATING : star + 1;
+            if (star >= min && upper <= max) {
+                whole.add(String.valueOf(star));
+            } else if (star <= max && upper > min) {
+                partial.add(String.valueOf(star));
+            }
+        }
+        return Filter.anyOf(FACET_RATING, whole, partial,
+                place -> place.averageRating != null && place.averageRating >= min && place.averageRating <= max);
+    }
+
+    private Map<Long, ReviewRepository.PlaceReviewStats> loadRatings() {
+        Map<Long, ReviewRepository.PlaceReviewStats> ratings = new HashMap<>();
+        for (ReviewRepository.PlaceReviewStats stats : reviewRepository.findPlaceReviewStats()) {
+            ratings.put(stats.getPlaceId(), stats);
+        }
+        return ratings;
+    }
+
+    private static void put(BitmapFacetIndex<FacetedPlace> index, Map<String, String> cityNames, Place place,
+                            ReviewRepository.PlaceReviewStats stats) {
+        put(index, cityNames, new FacetedPlace(place,
+                stats == null ? null : stats.getAverageRating(),
+                stats == null ? 0 : stats.getReviewCount()));
+    }
+
+    private static void put(BitmapFacetIndex<FacetedPlace> index, Map<String, String> cityNames, FacetedPlace place) {
+        Map<String, String> facets = new HashMap<>();
+        facets.put(FACET_CATEGORY, place.place.getCategory() == null ? null : place.place.getCategory().name());
+        String city = place.place.getCity();
+        if (city == null || city.isBlank()) {
+            facets.put(FACET_CITY, null);
+        } else {
+            String key = cityKey(city);
+            cityNames.putIfAbsent(key, city.trim());
+            facets.put(FACET_CITY, key);
+        }
+        facets.put(FACET_RATING, place.averageRating == null ? "unrated"
+                : String.valueOf((int) Math.floor(place.averageRating)));
+        index.put(place.place.getId(), place, facets);
+    }
+
+    // "Sousse", "sousse " and "SOUSSE" are one facet value
+    private static String cityKey(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class FacetedPlace {
+        private final Place place;
+        private final Double averageRating;
+        private final long reviewCount;
+
+        private FacetedPlace(Place place, Double averageRating, long reviewCount) {
+            this.place = place;
+            this.averageRating = averageRating;
+            this.reviewCount = reviewCount;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.tuniway.service;
 
+import com.tuniway.event.PlaceChangedEvent;
 import com.tuniway.model.Place;
 import com.tuniway.model.enums.PlaceCategory;
 import com.tuniway.repository.PlaceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,6 +17,10 @@ public class PlaceService {
     @Autowired
     private PlaceRepository placeRepository;
 
+    // In-memory place indexes listen for these to stay in sync
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Place> getAllPlaces() {
 
         return placeRepository.findAll();
@@ -42,16 +48,21 @@ public class PlaceService {
 
     public Place createPlace(Place place) {
 
-        return placeRepository.save(place);
+        Place saved = placeRepository.save(place);
+        eventPublisher.publishEvent(PlaceChangedEvent.saved(saved));
+        return saved;
     }
 
     public Place updatePlace(Place place) {
 
-        return placeRepository.save(place);
+        Place saved = placeRepository.save(place);
+        eventPublisher.publishEvent(PlaceChangedEvent.saved(saved));
+        return saved;
     }
 
     public void deletePlace(Long id) {
 
         placeRepository.deleteById(id);
+        eventPublisher.publishEvent(PlaceChangedEvent.deleted(id));
     }
 }
\ No newline at end of file
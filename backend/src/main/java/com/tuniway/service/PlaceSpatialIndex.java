@@ -0,0 +1,138 @@
+package com.tuniway.service;
+
+import com.tuniway.event.PlaceChangedEvent;
+import com.tuniway.model.Place;
+import com.tuniway.model.enums.PlaceCategory;
+import com.tuniway.repository.PlaceRepository;
+import com.tuniway.util.geo.GeoGrid;
+import com.tuniway.util.geo.GeoGrid.Hit;
+import com.tuniway.util.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * In-memory grid over place coordinates for "near me" and map-viewport
+ * queries. Loaded from the database once the application is ready and kept
+ * in sync through PlaceChangedEvent; places without coordinates are skipped.
+ */
+@Service
+public class PlaceSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceSpatialIndex.class);
+
+    private final PlaceRepository placeRepository;
+    private final double cellDegrees;
+    private final double maxRadiusMeters;
+    private final int maxResults;
+
+    // Swapped as a whole on rebuild so queries never see a half-loaded grid
+    private volatile GeoGrid<Place> grid;
+
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+
+    public PlaceSpatialIndex(PlaceRepository placeRepository,
+                             @Value("${tuniway.places.geo.cell-degrees:0.01}") double cellDegrees,
+                             @Value("${tuniway.places.geo.max-radius-meters:100000}") double maxRadiusMeters,
+                             @Value("${tuniway.places.geo.max-results:500}") int maxResults) {
+        this.placeRepository = placeRepository;
+        this.cellDegrees = cellDegrees;
+        this.maxRadiusMeters = maxRadiusMeters;
+        this.maxResults = maxResults;
+        this.grid = new GeoGrid<>(cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        GeoGrid<Place> fresh = new GeoGrid<>(cellDegrees);
+        for (Place place : placeRepository.findAll()) {
+            if (hasCoordinates(place)) {
+                fresh.put(place.getId(), place.getLatitude(), place.getLongitude(), place);
+            }
+        }
+        grid = fresh;
+        logger.info("Spatial index loaded {} places into {} cells in {} ms", fresh.size(), fresh.cellCount(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onPlaceChanged(PlaceChangedEvent event) {
+        Place place = event.getPlace();
+        if (event.isDeleted() || !hasCoordinates(place)) {
+            grid.remove(event.getPlaceId());
+        } else {
+            grid.put(place.getId(), place.getLatitude(), place.getLongitude(), place);
+        }
+    }
+
+    /**
+     * Places within radiusMeters of the point, nearest first, optionally
+     * restricted to some categories.
+     *
+     * @throws IllegalArgumentException for invalid coordinates, radius or limit
+     */
+    public List<Hit<Place>> nearby(double latitude, double longitude, double radiusMeters, int limit,
+                                   Collection<PlaceCategory> categories) {
+        if (!(radiusMeters > 0 && radiusMeters <= maxRadiusMeters)) {
+            throw new IllegalArgumentException("radius must be in (0, " + (long) maxRadiusMeters + "] meters");
+        }
+        checkLimit(limit);
+        long startedAt = System.nanoTime();
+        List<Hit<Place>> hits = grid.nearest(latitude, longitude, radiusMeters, limit, categoryFilter(categories));
+        queryLatency.recordNanos(System.nanoTime() - startedAt);
+        return hits;
+    }
+
+    /**
+     * Places inside the bounding box, nearest to its centre first.
+     *
+     * @throws IllegalArgumentException for an invalid box or limit
+     */
+    public List<Hit<Place>> within(double south, double west, double north, double east, int limit,
+                                   Collection<PlaceCategory> categories) {
+        checkLimit(limit);
+        long startedAt = System.nanoTime();
+        List<Hit<Place>> hits = grid.within(south, west, north, east, limit, categoryFilter(categories));
+        queryLatency.recordNanos(System.nanoTime() - startedAt);
+        return hits;
+    }
+
+    public Map<String, Object> snapshot() {
+        GeoGrid<Place> current = grid;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("places", current.size());
+        stats.put("cells", current.cellCount());
+        stats.put("cellDegrees", current.getCellDegrees());
+        stats.put("queryLatency", queryLatency.snapshot());
+        return stats;
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > maxResults) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxResults);
+        }
+    }
+
+    private static Predicate<Place> categoryFilter(Collection<PlaceCategory> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return null;
+        }
+        return place -> categories.contains(place.getCategory());
+    }
+
+    private static boolean hasCoordinates(Place place) {
+        return place.getId() != null && place.getLatitude() != null && place.getLongitude() != null;
+    }
+}
@@ -0,0 +1,239 @@
+package com.tuniway.service;
+
+import com.tuniway.event.PlaceChangedEvent;
+import com.tuniway.model.Place;
+import com.tuniway.repository.PlaceRepository;
+import com.tuniway.repository.ReviewRepository;
+import com.tuniway.util.metrics.LatencyHistogram;
+import com.tuniway.util.text.FuzzySuggester;
+import com.tuniway.util.text.FuzzySuggester.Suggestion;
+import com.tuniway.util.text.TextNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typo-tolerant autocomplete over place names and cities. Places are
+ * weighted by popularity (reviews, and favorites counted twice); a city
+ * weighs as much as its places together. Names follow PlaceChangedEvent,
+ * popularity is reloaded periodically.
+ */
+@Service
+public class PlaceSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceSuggestService.class);
+
+    private static final String PLACE_PREFIX = "place:";
+    private static final String CITY_PREFIX = "city:";
+
+    private final PlaceRepository placeRepository;
+    private final ReviewRepository reviewRepository;
+    private final int maxResults;
+    private final int maxEdits;
+
+    // Replaced on rebuild; writers synchronize on this service
+    private volatile State state;
+
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+
+    public PlaceSuggestService(PlaceRepository placeRepository,
+                               ReviewRepository reviewRepository,
+                               @Value("${tuniway.places.suggest.max-results:10}") int maxResults,
+                               @Value("${tuniway.places.suggest.max-edits:2}") int maxEdits) {
+        this.placeRepository = placeRepository;
+        this.reviewRepository = reviewRepository;
+        this.maxResults = maxResults;
+        this.maxEdits = maxEdits;
+        this.state = new State(newSuggester());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        State fresh = new State(newSuggester());
+        fresh.popularity.putAll(loadPopularity());
+        for (Place place : placeRepository.findAll()) {
+            fresh.putPlace(place);
+        }
+        state = fresh;
+        logger.info("Place suggester loaded {} places and {} cities in {} ms", fresh.places.size(),
+                fresh.cities.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onPlaceChanged(PlaceChangedEvent event) {
+        if (event.isDeleted()) {
+            state.removePlace(event.getPlaceId());
+        } else {
+            state.putPlace(event.getPlace());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tuniway.places.suggest.popularity-refresh-ms:600000}",
+            initialDelayString = "${tuniway.places.suggest.popularity-refresh-ms:600000}")
+    public synchronized void refreshPopularity() {
+        Map<Long, Long> popularity = loadPopularity();
+        State current = state;
+        int changed = 0;
+        for (Map.Entry<Long, PlaceInfo> place : new ArrayList<>(current.places.entrySet())) {
+            Long id = place.getKey();
+            long weight = popularity.getOrDefault(id, 0L);
+            if (weight != current.popularity.getOrDefault(id, 0L)) {
+                // Remove under the old weight so the city total stays consistent
+                current.removePlace(id);
+                current.popularity.put(id, weight);
+                current.putPlace(id, place.getValue().name, place.getValue().city);
+                changed++;
+            }
+        }
+        logger.debug("Place suggester popularity refreshed, {} places changed", changed);
+    }
+
+    /**
+     * Up to limit suggestions for the characters typed so far. Blank input
+     * gives no suggestions.
+     */
+    public List<Map<String, Object>> suggest(String input, int limit) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        if (input == null || input.isBlank()) {
+            return results;
+        }
+        long startedAt = System.nanoTime();
+        State current = state;
+        for (Suggestion suggestion : current.suggester.suggest(input, Math.min(limit, maxResults))) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            if (suggestion.getId().startsWith(PLACE_PREFIX)) {
+                Long placeId = Long.valueOf(suggestion.getId().substring(PLACE_PREFIX.length()));
+                PlaceInfo place = current.places.get(placeId);
+                result.put("type", "place");
+                result.put("id", placeId);
+                result.put("text", suggestion.getText());
+                result.put("city", place == null ? null : place.city);
+            } else {
+                result.put("type", "city");
+                result.put("text", suggestion.getText());
+            }
+            result.put("weight", suggestion.getWeight());
+            result.put("edits", suggestion.getEdits());
+            results.add(result);
+        }
+        queryLatency.recordNanos(System.nanoTime() - startedAt);
+        return results;
+    }
+
+    public Map<String, Object> snapshot() {
+        State current = state;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("places", current.places.size());
+        stats.put("cities", current.cities.size());
+        stats.put("queryLatency", queryLatency.snapshot());
+        return stats;
+    }
+
+    private FuzzySuggester newSuggester() {
+        return new FuzzySuggester(maxResults, 48, maxEdits);
+    }
+
+    private Map<Long, Long> loadPopularity() {
+        Map<Long, Long> popularity = new HashMap<>();
+        for (ReviewRepository.PlaceReviewStats stats : reviewRepository.findPlaceReviewStats()) {
+            popularity.merge(stats.getPlaceId(), stats.getReviewCount(), Long::sum);
+        }
+        for (PlaceRepository.PlaceFavoriteCount favorites : placeRepository.findFavoriteCounts()) {
+            popularity.merge(favorites.getPlaceId(), 2 * favorites.getFavoriteCount(), Long::sum);
+        }
+        return popularity;
+    }
+
+    private static String cityKey(String city) {
+        return String.join(" ", TextNormalizer.searchTokens(city));
+    }
+
+    private static final class PlaceInfo {
+        private final String name;
+        private final String city;
+
+        private PlaceInfo(String name, String city) {
+            this.name = name;
+            this.city = city;
+        }
+    }
+
+    private static final class City {
+        private final String name;
+        private long weight;
+        private int places;
+
+        private City(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class State {
+        private final FuzzySuggester suggester;
+        // Read by suggest() without the service lock
+        private final Map<Long, PlaceInfo> places = new ConcurrentHashMap<>();
+        private final Map<String, City> cities = new ConcurrentHashMap<>();
+        private final Map<Long, Long> popularity = new HashMap<>();
+
+        private State(FuzzySuggester suggester) {
+            this.suggester = suggester;
+        }
+
+        private void putPlace(Place place) {
+            if (place.getId() != null) {
+                putPlace(place.getId(), place.getName(), place.getCity());
+            }
+        }
+
+        private void putPlace(Long id, String name, String city) {
+            removePlace(id);
+            // Every place weighs at least 1 so unrated places still rank by name
+            long weight = 1 + popularity.getOrDefault(id, 0L);
+            places.put(id, new PlaceInfo(name, city));
+            if (name != null && !name.isBlank()) {
+                suggester.put(PLACE_PREFIX + id, name, weight);
+            }
+            String key = city == null ? "" : cityKey(city);
+            if (!key.isEmpty()) {
+                City aggregate = cities.computeIfAbsent(key, k -> new City(city.trim()));
+                aggregate.weight += weight;
+                aggregate.places++;
+                suggester.put(CITY_PREFIX + key, aggregate.name, aggregate.weight);
+            }
+        }
+
+        private void removePlace(Long id) {
+            PlaceInfo previous = places.remove(id);
+            if (previous == null) {
+                return;
+            }
+            suggester.remove(PLACE_PREFIX + id);
+            String key = previous.city == null ? "" : cityKey(previous.city);
+            City aggregate = cities.get(key);
+            if (aggregate != null) {
+                aggregate.weight -= 1 + popularity.getOrDefault(id, 0L);
+                aggregate.places--;
+                if (aggregate.places == 0) {
+                    cities.remove(key);
+                    suggester.remove(CITY_PREFIX + key);
+                } else {
+                    suggester.put(CITY_PREFIX + key, aggregate.name, aggregate.weight);
+                }
+            }
+        }
+    }
+}
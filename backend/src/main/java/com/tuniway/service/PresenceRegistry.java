@@ -0,0 +1,210 @@
+package com.tuniway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Who is online, keyed by username, with one entry per WebSocket session so
+ * a user with several tabs stays online until the last one goes away.
+ * Sessions that stop sending heartbeats are expired by a periodic sweep,
+ * which also covers disconnects that never reached this node.
+ *
+ * Only transitions are published: /topic/presence carries ONLINE/OFFLINE
+ * deltas with a version number, and clients that miss one refetch the
+ * snapshot from /api/presence. Changes to the session maps, version
+ * assignment and publishing all happen under one lock, so deltas go out in
+ * version order and a snapshot's version matches its user list.
+ */
+@Service
+public class PresenceRegistry {
+
+    public static final String PRESENCE_TOPIC = "/topic/presence";
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceRegistry.class);
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final long sessionTtlMs;
+    private final LongSupplier clock;
+
+    // username -> session ids; a user is online while the set is non-empty
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+    // session id -> presence entry
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    // Guards every change to the maps above; readers of single values don't need it
+    private final Object lock = new Object();
+
+    @Autowired
+    public PresenceRegistry(SimpMessageSendingOperations messagingTemplate,
+                            @Value("${chat.presence.session-ttl-ms:90000}") long sessionTtlMs) {
+        this(messagingTemplate, sessionTtlMs, System::currentTimeMillis);
+    }
+
+    public PresenceRegistry(SimpMessageSendingOperations messagingTemplate, long sessionTtlMs, LongSupplier clock) {
+        this.messagingTemplate = messagingTemplate;
+        this.sessionTtlMs = sessionTtlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers a session for username and publishes ONLINE if it is the
+     * user's first session.
+     */
+    public void join(String username, String sessionId) {
+        if (username == null || username.isBlank() || sessionId == null) {
+            return;
+        }
+        synchronized (lock) {
+            SessionPresence previous = sessions.put(sessionId, new SessionPresence(username, clock.getAsLong()));
+            if (previous != null && !previous.username.equals(username)) {
+                // Same session re-joined under another name
+                removeSession(previous.username, sessionId);
+            }
+
+            Set<String> ids = sessionsByUser.computeIfAbsent(username, user -> ConcurrentHashMap.newKeySet());
+            boolean cameOnline = ids.isEmpty();
+            ids.add(sessionId);
+            if (cameOnline) {
+                publish("ONLINE", username);
+            }
+        }
+    }
+
+    /**
+     * Removes a session, publishing OFFLINE when it was the user's last one.
+     *
+     * @return the session's username, or null if the session was unknown
+     */
+    public String leave(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        synchronized (lock) {
+            SessionPresence presence = sessions.remove(sessionId);
+            if (presence == null) {
+                return null;
+            }
+            removeSession(presence.username, sessionId);
+            return presence.username;
+        }
+    }
+
+    /**
+     * Refreshes a session's heartbeat. A session that was already expired
+     * (its heartbeat came late but it is still connected) joins again as
+     * username; null leaves an unknown session alone.
+     */
+    public void touch(String username, String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        SessionPresence presence = sessions.get(sessionId);
+        if (presence != null) {
+            presence.lastSeen = clock.getAsLong();
+        } else if (username != null) {
+            join(username, sessionId);
+        }
+    }
+
+    public boolean isOnline(String username) {
+        Set<String> ids = sessionsByUser.get(username);
+        return ids != null && !ids.isEmpty();
+    }
+
+    public int getSessionCount(String username) {
+        Set<String> ids = sessionsByUser.get(username);
+        return ids == null ? 0 : ids.size();
+    }
+
+    public int getOnlineCount() {
+        return sessionsByUser.size();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public List<String> getOnlineUsers() {
+        List<String> users = new ArrayList<>(sessionsByUser.keySet());
+        Collections.sort(users);
+        return users;
+    }
+
+    /**
+     * Version, online count and users taken together: applying every delta
+     * with a higher version to this snapshot gives the current state.
+     */
+    public Map<String, Object> snapshot() {
+        synchronized (lock) {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("version", version.get());
+            snapshot.put("onlineCount", sessionsByUser.size());
+            snapshot.put("online", getOnlineUsers());
+            return snapshot;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.sweep-interval-ms:30000}")
+    public void expireStaleSessions() {
+        long expireBefore = clock.getAsLong() - sessionTtlMs;
+        for (Map.Entry<String, SessionPresence> entry : sessions.entrySet()) {
+            if (entry.getValue().lastSeen >= expireBefore) {
+                continue;
+            }
+            synchronized (lock) {
+                if (sessions.remove(entry.getKey(), entry.getValue())) {
+                    logger.debug("Expiring presence session {} of {}", entry.getKey(), entry.getValue().username);
+                    removeSession(entry.getValue().username, entry.getKey());
+                }
+            }
+        }
+    }
+
+    // Callers hold the lock
+    private void removeSession(String username, String sessionId) {
+        Set<String> ids = sessionsByUser.get(username);
+        if (ids == null) {
+            return;
+        }
+        ids.remove(sessionId);
+        if (ids.isEmpty()) {
+            sessionsByUser.remove(username);
+            publish("OFFLINE", username);
+        }
+    }
+
+    // Callers hold the lock, so versions are assigned and sent in the same order
+    private void publish(String status, String username) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("status", status);
+        delta.put("username", username);
+        delta.put("onlineCount", sessionsByUser.size());
+        delta.put("version", version.incrementAndGet());
+        messagingTemplate.convertAndSend(PRESENCE_TOPIC, delta);
+    }
+
+    private static final class SessionPresence {
+        private final String username;
+        private volatile long lastSeen;
+
+        private SessionPresence(String username, long lastSeen) {
+            this.username = username;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.tuniway.service;
+
+import com.tuniway.util.storage.ContentAddressedStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Stores profile pictures in a content-addressed blob store and keeps only
+ * a URL reference on the user row. Square thumbnails are generated on upload.
+ */
+@Service
+public class ProfilePictureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilePictureService.class);
+
+    public static final String URL_PREFIX = "/api/pictures/";
+    public static final String ORIGINAL = "original";
+
+    // variant name -> edge length in pixels
+    private static final Map<String, Integer> VARIANTS = Map.of(
+            "thumb", 64,
+            "small", 256
+    );
+
+    private final ContentAddressedStore store;
+    private final long maxBytes;
+
+    public ProfilePictureService(@Value("${tuniway.pictures.root:./data/pictures}") String root,
+                                 @Value("${tuniway.pictures.max-bytes:5242880}") long maxBytes) {
+        this.store = new ContentAddressedStore(Path.of(root));
+        this.maxBytes = maxBytes;
+    }
+
+    public static boolean isInlineImage(String value) {
+        return value != null && value.startsWith("data:");
+    }
+
+    public static boolean isVariant(String size) {
+        return ORIGINAL.equals(size) || VARIANTS.containsKey(size);
+    }
+
+    /**
+     * Moves an inline base64 data URI into the store and returns the URL
+     * that replaces it. Any other value (external URL, existing reference) is
+     * returned untouched.
+     */
+    public String toReference(String profilePicture) {
+        if (!isInlineImage(profilePicture)) {
+            return profilePicture;
+        }
+        int comma = profilePicture.indexOf(',');
+        if (comma < 0 || !profilePicture.substring(0, comma).endsWith(";base64")) {
+            throw new IllegalArgumentException("Profile picture must be a base64 data URI");
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(profilePicture.substring(comma + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Profile picture is not valid base64", e);
+        }
+        return URL_PREFIX + store(bytes);
+    }
+
+    /**
+     * Stores raw image bytes plus their thumbnails and returns the content hash.
+     */
+    public String store(byte[] bytes) {
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException("Profile picture exceeds " + maxBytes + " bytes");
+        }
+        BufferedImage image = decode(bytes);
+        if (image == null) {
+            throw new IllegalArgumentException("Profile picture is not a supported image");
+        }
+
+        try {
+            String hash = store.put(bytes);
+            for (Map.Entry<String, Integer> variant : VARIANTS.entrySet()) {
+                if (!store.exists(hash, variant.getKey())) {
+                    store.putVariant(hash, variant.getKey(), thumbnail(image, variant.getValue()));
+                }
+            }
+            logger.debug("Stored profile picture {} ({} bytes)", hash, bytes.length);
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store profile picture", e);
+        }
+    }
+
+    public boolean exists(String hash, String size) {
+        return ContentAddressedStore.isValidHash(hash) && isVariant(size) && store.exists(hash, variantKey(size));
+    }
+
+    public long size(String hash, String size) throws IOException {
+        return store.size(hash, variantKey(size));
+    }
+
+    /**
+     * Content type of a stored picture. Thumbnails are always PNG; originals
+     * are sniffed from their first few bytes.
+     */
+    public String contentType(String hash, String size) throws IOException {
+        if (!ORIGINAL.equals(size)) {
+            return "image/png";
+        }
+        byte[] head = store.readHead(hash, null, 8);
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8) {
+            return "image/jpeg";
+        }
+        if (head.length >= 4 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (head.length >= 3 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F') {
+            return "image/gif";
+        }
+        if (head.length >= 2 && head[0] == 'B' && head[1] == 'M') {
+            return "image/bmp";
+        }
+        return "application/octet-stream";
+    }
+
+    public long transferTo(String hash, String size, WritableByteChannel target) throws IOException {
+        return store.transferTo(hash, variantKey(size), target);
+    }
+
+    private static String variantKey(String size) {
+        return ORIGINAL.equals(size) ? null : size;
+    }
+
+    private static BufferedImage decode(byte[] bytes) {
+        try {
+            return ImageIO.read(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Center-crops to a square and scales down to edge x edge
+    private static byte[] thumbnail(BufferedImage source, int edge) throws IOException {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - side) / 2;
+        int y = (source.getHeight() - side) / 2;
+        int target = Math.min(edge, side);
+
+        BufferedImage scaled = new BufferedImage(target, target, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, target, target, x, y, x + side, y + side, null);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(scaled, "png", out);
+        return out.toByteArray();
+    }
+}
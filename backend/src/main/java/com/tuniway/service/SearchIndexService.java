@@ -0,0 +1,220 @@
+package com.tuniway.service;
+
+import com.tuniway.dto.TourSearchResult;
+import com.tuniway.event.PlaceChangedEvent;
+import com.tuniway.event.TourChangedEvent;
+import com.tuniway.model.Place;
+import com.tuniway.model.TourPersonnalise;
+import com.tuniway.repository.PlaceRepository;
+import com.tuniway.repository.TourPersonnaliseRepository;
+import com.tuniway.util.metrics.LatencyHistogram;
+import com.tuniway.util.text.Bm25Index;
+import com.tuniway.util.text.TextNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Full-text search over places (name, city, category, description) and
+ * tours (title, description), ranked with BM25. Loaded from the database
+ * once the application is ready and kept in sync through PlaceChangedEvent
+ * and TourChangedEvent.
+ */
+@Service
+public class SearchIndexService {
+
+    public static final String TYPE_PLACE = "place";
+    public static final String TYPE_TOUR = "tour";
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    // Field boosts: a title match outranks a passing mention in a description
+    private static final double TITLE_BOOST = 3;
+    private static final double CITY_BOOST = 2;
+    private static final double BODY_BOOST = 1;
+
+    private final PlaceRepository placeRepository;
+    private final TourPersonnaliseRepository tourRepository;
+    private final double k1;
+    private final double b;
+    private final int maxPageSize;
+
+    // Swapped together on rebuild so queries never see a half-loaded index
+    private volatile Snapshot current;
+
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+
+    public SearchIndexService(PlaceRepository placeRepository,
+                              TourPersonnaliseRepository tourRepository,
+                              @Value("${tuniway.search.bm25.k1:1.2}") double k1,
+                              @Value("${tuniway.search.bm25.b:0.75}") double b,
+                              @Value("${tuniway.search.max-page-size:50}") int maxPageSize) {
+        this.placeRepository = placeRepository;
+        this.tourRepository = tourRepository;
+        this.k1 = k1;
+        this.b = b;
+        this.maxPageSize = maxPageSize;
+        this.current = new Snapshot(new Bm25Index<>(k1, b));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        Snapshot fresh = new Snapshot(new Bm25Index<>(k1, b));
+        for (Place place : placeRepository.findAll()) {
+            fresh.putPlace(place);
+        }
+        for (TourPersonnalise tour : tourRepository.findAll()) {
+            fresh.putTour(tour);
+        }
+        current = fresh;
+        logger.info("Search index loaded {} documents, {} terms in {} ms", fresh.index.size(),
+                fresh.index.termCount(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onPlaceChanged(PlaceChangedEvent event) {
+        if (event.isDeleted()) {
+            current.remove(key(TYPE_PLACE, event.getPlaceId()));
+        } else {
+            current.putPlace(event.getPlace());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onTourChanged(TourChangedEvent event) {
+        if (event.isDeleted()) {
+            current.remove(key(TYPE_TOUR, event.getTourId()));
+        } else {
+            current.putTour(event.getTour());
+        }
+    }
+
+    /**
+     * One page of ranked results. type restricts results to places or
+     * tours; null searches both.
+     *
+     * @throws IllegalArgumentException for a blank query, unknown type or bad paging
+     */
+    public Map<String, Object> search(String query, String type, int page, int size) {
+        List<String> terms = TextNormalizer.searchTokens(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Query has no searchable words");
+        }
+        if (type != null && !TYPE_PLACE.equals(type) && !TYPE_TOUR.equals(type)) {
+            throw new IllegalArgumentException("type must be " + TYPE_PLACE + " or " + TYPE_TOUR);
+        }
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + maxPageSize);
+        }
+        if (page > Integer.MAX_VALUE / size) {
+            throw new IllegalArgumentException("page is too large");
+        }
+
+        long startedAt = System.nanoTime();
+        Snapshot snapshot = current;
+        Predicate<String> filter = type == null ? null : key -> key.startsWith(type + ":");
+        Bm25Index.Page<String> hits = snapshot.index.search(terms, filter, page * size, size);
+
+        List<Map<String, Object>> results = new ArrayList<>(hits.getHits().size());
+        for (Bm25Index.Hit<String> hit : hits.getHits()) {
+            Object item = snapshot.items.get(hit.getKey());
+            if (item == null) {
+                continue;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            int separator = hit.getKey().indexOf(':');
+            result.put("type", hit.getKey().substring(0, separator));
+            result.put("id", Long.valueOf(hit.getKey().substring(separator + 1)));
+            result.put("score", Math.round(hit.getScore() * 1000) / 1000.0);
+            result.put("item", item);
+            results.add(result);
+        }
+        queryLatency.recordNanos(System.nanoTime() - startedAt);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("query", query);
+        response.put("total", hits.getTotal());
+        response.put("page", page);
+        response.put("size", size);
+        response.put("results", results);
+        return response;
+    }
+
+    public Map<String, Object> snapshot() {
+        Snapshot snapshot = current;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documents", snapshot.index.size());
+        stats.put("terms", snapshot.index.termCount());
+        stats.put("queryLatency", queryLatency.snapshot());
+        return stats;
+    }
+
+    private static String key(String type, Long id) {
+        return type + ":" + id;
+    }
+
+    private static void addField(Map<String, Double> frequencies, String text, double boost) {
+        for (String term : TextNormalizer.searchTokens(text)) {
+            frequencies.merge(term, boost, Double::sum);
+        }
+    }
+
+    private static final class Snapshot {
+        private final Bm25Index<String> index;
+        private final Map<String, Object> items = new ConcurrentHashMap<>();
+
+        private Snapshot(Bm25Index<String> index) {
+            this.index = index;
+        }
+
+        private void putPlace(Place place) {
+            if (place.getId() == null) {
+                return;
+            }
+            Map<String, Double> frequencies = new HashMap<>();
+            addField(frequencies, place.getName(), TITLE_BOOST);
+            addField(frequencies, place.getCity(), CITY_BOOST);
+            addField(frequencies, place.getCategory() == null ? null : place.getCategory().name(), BODY_BOOST);
+            addField(frequencies, place.getDescription(), BODY_BOOST);
+            put(key(TYPE_PLACE, place.getId()), place, frequencies);
+        }
+
+        private void putTour(TourPersonnalise tour) {
+            if (tour.getId() == null) {
+                return;
+            }
+            Map<String, Double> frequencies = new HashMap<>();
+            addField(frequencies, tour.getTitre(), TITLE_BOOST);
+            addField(frequencies, tour.getDescription(), BODY_BOOST);
+            put(key(TYPE_TOUR, tour.getId()), TourSearchResult.of(tour), frequencies);
+        }
+
+        private void put(String key, Object item, Map<String, Double> frequencies) {
+            if (frequencies.isEmpty()) {
+                remove(key);
+                return;
+            }
+            items.put(key, item);
+            index.put(key, frequencies);
+        }
+
+        private void remove(String key) {
+            index.remove(key);
+            items.remove(key);
+        }
+    }
+}
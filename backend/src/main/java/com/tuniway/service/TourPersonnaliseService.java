@@ -1,10 +1,12 @@
 package com.tuniway.service;
 
+import com.tuniway.event.TourChangedEvent;
 import com.tuniway.model.TourPersonnalise;
 import com.tuniway.model.Guide;
 import com.tuniway.model.Client;
 import com.tuniway.repository.TourPersonnaliseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,6 +18,10 @@ public class TourPersonnaliseService {
     @Autowired
     private TourPersonnaliseRepository tourPersonnaliseRepository;
 
+    // Keeps the search index in sync
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<TourPersonnalise> getAllTours() {
         return tourPersonnaliseRepository.findAll();
     }
@@ -33,14 +39,19 @@ public class TourPersonnaliseService {
     }
 
     public TourPersonnalise createTour(TourPersonnalise tour) {
-        return tourPersonnaliseRepository.save(tour);
+        TourPersonnalise saved = tourPersonnaliseRepository.save(tour);
+        eventPublisher.publishEvent(TourChangedEvent.saved(saved));
+        return saved;
     }
 
     public TourPersonnalise updateTour(TourPersonnalise tour) {
-        return tourPersonnaliseRepository.save(tour);
+        TourPersonnalise saved = tourPersonnaliseRepository.save(tour);
+        eventPublisher.publishEvent(TourChangedEvent.saved(saved));
+        return saved;
     }
 
     public void deleteTour(Long id) {
         tourPersonnaliseRepository.deleteById(id);
+        eventPublisher.publishEvent(TourChangedEvent.deleted(id));
     }
 }
\ No newline at end of file
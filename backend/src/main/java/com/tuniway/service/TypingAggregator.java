@@ -0,0 +1,119 @@
+package com.tuniway.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalesces per-keystroke typing signals into periodic snapshots on
+ * /topic/typing. Each sender only refreshes a timestamp; the scheduled flush
+ * expires stale typers and publishes the current set only when it changed,
+ * so subscribers see at most one message per interval whatever the
+ * keystroke volume.
+ */
+@Service
+public class TypingAggregator {
+
+    public static final String TYPING_TOPIC = "/topic/typing";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final long ttlMs;
+    private final int maxTypers;
+    private final int maxListed;
+    private final LongSupplier clock;
+
+    // sender -> last time a typing signal was seen
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private volatile List<String> lastPublished = Collections.emptyList();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder published = new LongAdder();
+
+    @Autowired
+    public TypingAggregator(SimpMessageSendingOperations messagingTemplate,
+                            @Value("${chat.typing.ttl-ms:3000}") long ttlMs,
+                            @Value("${chat.typing.max-typers:10000}") int maxTypers,
+                            @Value("${chat.typing.max-listed:20}") int maxListed) {
+        this(messagingTemplate, ttlMs, maxTypers, maxListed, System::currentTimeMillis);
+    }
+
+    public TypingAggregator(SimpMessageSendingOperations messagingTemplate, long ttlMs,
+                            int maxTypers, int maxListed, LongSupplier clock) {
+        this.messagingTemplate = messagingTemplate;
+        this.ttlMs = ttlMs;
+        this.maxTypers = maxTypers;
+        this.maxListed = maxListed;
+        this.clock = clock;
+    }
+
+    /**
+     * Records that sender is typing. Repeated signals before the next flush
+     * only move the expiry forward.
+     */
+    public void typing(String sender) {
+        received.increment();
+        if (sender == null || sender.isBlank()) {
+            dropped.increment();
+            return;
+        }
+        if (lastSeen.size() >= maxTypers && !lastSeen.containsKey(sender)) {
+            dropped.increment();
+            return;
+        }
+        lastSeen.put(sender, clock.getAsLong());
+    }
+
+    /**
+     * Removes sender immediately, e.g. once their message has been sent.
+     */
+    public void stopped(String sender) {
+        if (sender != null) {
+            lastSeen.remove(sender);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${chat.typing.flush-interval-ms:500}")
+    public void flush() {
+        long expireBefore = clock.getAsLong() - ttlMs;
+        lastSeen.entrySet().removeIf(entry -> entry.getValue() < expireBefore);
+
+        List<String> typers = new ArrayList<>(lastSeen.keySet());
+        Collections.sort(typers);
+        if (typers.equals(lastPublished)) {
+            return;
+        }
+        lastPublished = typers;
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("type", "TYPING");
+        snapshot.put("count", typers.size());
+        snapshot.put("typing", typers.size() > maxListed ? typers.subList(0, maxListed) : typers);
+        snapshot.put("timestamp", clock.getAsLong());
+        messagingTemplate.convertAndSend(TYPING_TOPIC, snapshot);
+        published.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        long receivedCount = received.sum();
+        long publishedCount = published.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeTypers", lastSeen.size());
+        stats.put("signalsReceived", receivedCount);
+        stats.put("signalsDropped", dropped.sum());
+        stats.put("snapshotsPublished", publishedCount);
+        stats.put("coalescingRatio", publishedCount == 0 ? 0.0 : (double) receivedCount / publishedCount);
+        return stats;
+    }
+}
@@ -2,6 +2,7 @@ package com.tuniway.service;
 
 import com.tuniway.model.User;
 import com.tuniway.repository.UserRepository;
+import com.tuniway.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +15,12 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private ProfilePictureService profilePictureService;
+
     public List<User> getAllUsers() {
 
         return userRepository.findAll();
@@ -36,17 +43,29 @@ public class UserService {
 
     public User createUser(User user) {
 
+        storeInlineProfilePicture(user);
         return userRepository.save(user);
     }
 
     public User updateUser(User user) {
 
-        return userRepository.save(user);
+        storeInlineProfilePicture(user);
+        User saved = userRepository.save(user);
+        userPrincipalCache.invalidate(saved.getId());
+        return saved;
+    }
+
+    // Base64 uploads go to the picture store; the row keeps only the URL
+    private void storeInlineProfilePicture(User user) {
+        if (ProfilePictureService.isInlineImage(user.getProfilePicture())) {
+            user.setProfilePicture(profilePictureService.toReference(user.getProfilePicture()));
+        }
     }
 
     public void deleteUser(Long id) {
 
         userRepository.deleteById(id);
+        userPrincipalCache.invalidate(id);
     }
 
     public boolean existsByUsername(String username) {
@@ -0,0 +1,135 @@
+package com.tuniway.util.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache with TTL for asynchronously computed values.
+ * Concurrent requests for a key that is being computed share the same
+ * future instead of starting another computation.
+ */
+public class CoalescingCache<V> {
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    // Access-ordered so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<V>> inFlight = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public CoalescingCache(int maxSize, long ttlMs) {
+        this(maxSize, ttlMs, System::currentTimeMillis);
+    }
+
+    public CoalescingCache(int maxSize, long ttlMs, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached value, joins a computation already in flight, or
+     * starts a new one. Only values accepted by cacheable are stored.
+     */
+    public CompletableFuture<V> getOrCompute(String key, Supplier<CompletableFuture<V>> loader,
+                                             Predicate<V> cacheable) {
+        CompletableFuture<V> future;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > clock.getAsLong()) {
+                    hits.increment();
+                    return CompletableFuture.completedFuture(entry.value);
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+
+            CompletableFuture<V> pending = inFlight.get(key);
+            if (pending != null) {
+                coalesced.increment();
+                return pending;
+            }
+
+            misses.increment();
+            future = new CompletableFuture<>();
+            inFlight.put(key, future);
+        }
+
+        CompletableFuture<V> computed;
+        try {
+            computed = loader.get();
+        } catch (RuntimeException e) {
+            computed = CompletableFuture.failedFuture(e);
+        }
+        computed.whenComplete((value, error) -> {
+            synchronized (this) {
+                inFlight.remove(key);
+                if (error == null && cacheable.test(value)) {
+                    entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMs));
+                    if (entries.size() > maxSize) {
+                        entries.remove(entries.keySet().iterator().next());
+                        evictions.increment();
+                    }
+                }
+            }
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+        });
+        return future;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        long hitCount = hits.sum();
+        long coalescedCount = coalesced.sum();
+        long missCount = misses.sum();
+        long total = hitCount + coalescedCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("inFlight", inFlight.size());
+        stats.put("hits", hitCount);
+        stats.put("coalesced", coalescedCount);
+        stats.put("misses", missCount);
+        // Coalesced requests also avoided a backend call
+        stats.put("hitRate", total == 0 ? 0.0 : (double) (hitCount + coalescedCount) / total);
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.tuniway.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Groups individual requests into batches. A batch is sent when it reaches
+ * maxBatchSize or when windowMs has passed since its first item, whichever
+ * comes first. The sender must return one result per item, in order; each
+ * caller's future is completed with its own result.
+ */
+public class MicroBatcher<I, O> {
+
+    private final int maxBatchSize;
+    private final long windowMs;
+    private final Function<List<I>, CompletableFuture<List<O>>> sender;
+    private final ScheduledExecutorService timer;
+
+    private final Object lock = new Object();
+    private List<Pending<I, O>> buffer = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder flushedBySize = new LongAdder();
+    private final LongAdder flushedByTime = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    public MicroBatcher(String name, int maxBatchSize, long windowMs,
+                        Function<List<I>, CompletableFuture<List<O>>> sender) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.windowMs = windowMs;
+        this.sender = sender;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<O> submit(I item) {
+        Pending<I, O> pending = new Pending<>(item);
+        List<Pending<I, O>> full = null;
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Batcher is closed"));
+            }
+            buffer.add(pending);
+            if (buffer.size() >= maxBatchSize) {
+                full = takeBuffer();
+                flushedBySize.increment();
+            } else if (buffer.size() == 1) {
+                scheduledFlush = timer.schedule(this::flushOnTimer, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Sends whatever is buffered and stops accepting new items.
+     */
+    public void close() {
+        List<Pending<I, O>> remaining;
+        synchronized (lock) {
+            closed = true;
+            remaining = takeBuffer();
+        }
+        if (!remaining.isEmpty()) {
+            send(remaining);
+        }
+        timer.shutdown();
+    }
+
+    public Map<String, Object> snapshot() {
+        long batchCount = batches.sum();
+        long itemCount = items.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxBatchSize", maxBatchSize);
+        stats.put("windowMs", windowMs);
+        stats.put("batches", batchCount);
+        stats.put("items", itemCount);
+        stats.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) itemCount / batchCount);
+        stats.put("flushedBySize", flushedBySize.sum());
+        stats.put("flushedByTime", flushedByTime.sum());
+        stats.put("failedBatches", failedBatches.sum());
+        return stats;
+    }
+
+    private void flushOnTimer() {
+        List<Pending<I, O>> batch;
+        synchronized (lock) {
+            batch = takeBuffer();
+        }
+        if (!batch.isEmpty()) {
+            flushedByTime.increment();
+            send(batch);
+        }
+    }
+
+    // Caller must hold lock
+    private List<Pending<I, O>> takeBuffer() {
+        List<Pending<I, O>> batch = buffer;
+        buffer = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void send(List<Pending<I, O>> batch) {
+        batches.increment();
+        items.add(batch.size());
+
+        List<I> inputs = new ArrayList<>(batch.size());
+        for (Pending<I, O> pending : batch) {
+            inputs.add(pending.item);
+        }
+
+        CompletableFuture<List<O>> result;
+        try {
+            result = sender.apply(inputs);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((outputs, error) -> {
+            if (error == null && (outputs == null || outputs.size() != batch.size())) {
+                error = new IllegalStateException("Expected " + batch.size() + " results, got "
+                        + (outputs == null ? 0 : outputs.size()));
+            }
+            if (error != null) {
+                failedBatches.increment();
+                for (Pending<I, O> pending : batch) {
+                    pending.future.completeExceptionally(error);
+                }
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(outputs.get(i));
+            }
+        });
+    }
+
+    private static final class Pending<I, O> {
+        private final I item;
+        private final CompletableFuture<O> future = new CompletableFuture<>();
+
+        private Pending(I item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.tuniway.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity, lock-free ring buffer that keeps the most recent items.
+ * Writers claim a sequence number and publish into its slot; readers take
+ * a snapshot without blocking writers, skipping slots that are not yet
+ * published or were overwritten while reading. A slot only ever moves to a
+ * higher sequence, so a late writer can't replace a newer item.
+ */
+public class RingBuffer<T> {
+
+    private final int capacity;
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+    // Items with a lower sequence are hidden by clear()
+    private final AtomicLong visibleFrom = new AtomicLong();
+
+    public RingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(T item) {
+        long sequence = nextSequence.getAndIncrement();
+        int index = index(sequence);
+        Slot<T> slot = new Slot<>(sequence, item);
+        // A writer stalled since claiming its sequence must not overwrite a newer item that wrapped around
+        while (true) {
+            Slot<T> current = slots.get(index);
+            if (current != null && current.sequence > sequence) {
+                return;
+            }
+            if (slots.compareAndSet(index, current, slot)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Items currently held, oldest first.
+     */
+    public List<T> snapshot() {
+        long end = nextSequence.get();
+        long start = Math.max(Math.max(0, end - capacity), visibleFrom.get());
+        List<T> items = new ArrayList<>((int) Math.max(0, end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot<T> slot = slots.get(index(sequence));
+            if (slot != null && slot.sequence == sequence) {
+                items.add(slot.item);
+            }
+        }
+        return items;
+    }
+
+    public void clear() {
+        visibleFrom.accumulateAndGet(nextSequence.get(), Math::max);
+    }
+
+    public int size() {
+        long end = nextSequence.get();
+        return (int) Math.max(0, end - Math.max(Math.max(0, end - capacity), visibleFrom.get()));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    private static final class Slot<T> {
+        private final long sequence;
+        private final T item;
+
+        private Slot(long sequence, T item) {
+            this.sequence = sequence;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.tuniway.util.facet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Faceted filtering over a small in-memory catalogue. Every value gets a
+ * dense slot, and every field value one bitmap of the slots carrying it, so
+ * a filter is a few ORs and ANDs, and facet counts come from ANDs or a tally
+ * over the matching slots instead of a scan. Slots of removed values are reused.
+ */
+public class BitmapFacetIndex<T> {
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final List<T> values = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, Field> fields = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds or replaces the value for id. facets maps each field to the
+     * value's facet; a field left out (or mapped to null) matches no filter on it.
+     */
+    public void put(long id, T value, Map<String, String> facets) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot == null) {
+                slot = freeSlots.isEmpty() ? values.size() : freeSlots.pop();
+                slots.put(id, slot);
+            } else {
+                unindex(slot);
+            }
+            if (slot == values.size()) {
+                values.add(value);
+            } else {
+                values.set(slot, value);
+            }
+            live.set(slot);
+            for (Map.Entry<String, String> facet : facets.entrySet()) {
+                if (facet.getValue() != null) {
+                    fields.computeIfAbsent(facet.getKey(), field -> new Field()).set(slot, facet.getValue());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(id);
+            if (slot == null) {
+                return false;
+            }
+            unindex(slot);
+            values.set(slot, null);
+            live.clear(slot);
+            freeSlots.push(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public T get(long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            return slot == null ? null : values.get(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<T> values() {
+        lock.readLock().lock();
+        try {
+            List<T> all = new ArrayList<>(slots.size());
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                all.add(values.get(slot));
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Values matching every filter, ordered and paged, with counts for each
+     * facet field. A field's counts apply all filters except the one on that
+     * field, so a sidebar can show what selecting another value would give.
+     * Values with a zero count are left out.
+     *
+     * @param order null keeps insertion order
+     */
+    public Page<T> query(List<Filter<T>> filters, Collection<String> facetFields, Comparator<? super T> order,
+                         int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> masks = new LinkedHashMap<>();
+            for (Filter<T> filter : filters) {
+                BitSet mask = mask(filter);
+                BitSet existing = masks.get(filter.field);
+                if (existing == null) {
+                    masks.put(filter.field, mask);
+                } else {
+                    existing.and(mask);
+                }
+            }
+
+            BitSet matched = (BitSet) live.clone();
+            masks.values().forEach(matched::and);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String field : facetFields) {
+                BitSet others = (BitSet) live.clone();
+                masks.forEach((maskField, mask) -> {
+                    if (!maskField.equals(field)) {
+                        others.and(mask);
+                    }
+                });
+                facets.put(field, counts(fields.get(field), others));
+            }
+
+            List<T> hits = new ArrayList<>(matched.cardinality());
+            for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+                hits.add(values.get(slot));
+            }
+            int total = hits.size();
+            if (order != null) {
+                hits.sort(order);
+            }
+            int from = Math.min(Math.max(offset, 0), total);
+            int to = Math.min(total, from + Math.max(limit, 0));
+            return new Page<>(total, new ArrayList<>(hits.subList(from, to)), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet mask(Filter<T> filter) {
+        BitSet mask = new BitSet();
+        Field field = fields.get(filter.field);
+        if (field == null) {
+            return mask;
+        }
+        for (String facet : filter.values) {
+            BitSet bitmap = field.bitmap(facet);
+            if (bitmap != null) {
+                mask.or(bitmap);
+            }
+        }
+        // Values only partly inside the filter (a rating bucket cut by the range) are checked one by one
+        for (String facet : filter.partialValues) {
+            BitSet bitmap = field.bitmap(facet);
+            if (bitmap == null) {
+                continue;
+            }
+            for (int slot = bitmap.nextSetBit(0); slot >= 0; slot = bitmap.nextSetBit(slot + 1)) {
+                if (filter.check.test(values.get(slot))) {
+                    mask.set(slot);
+                }
+            }
+        }
+        return mask;
+    }
+
+    private Map<String, Integer> counts(Field field, BitSet mask) {
+        Map<String, Integer> counts = new TreeMap<>();
+        if (field == null) {
+            return counts;
+        }
+        int[] perCode = new int[field.names.size()];
+        // One AND per value costs the catalogue's width each time; with many values
+        // or a narrow mask it is cheaper to tally the slots' codes
+        long words = (mask.length() + Long.SIZE - 1) / Long.SIZE;
+        if (mask.cardinality() < 2 * words * perCode.length) {
+            for (int slot = mask.nextSetBit(0); slot >= 0; slot = mask.nextSetBit(slot + 1)) {
+                int code = field.code(slot);
+                if (code >= 0) {
+                    perCode[code]++;
+                }
+            }
+        } else {
+            BitSet both = new BitSet(mask.length());
+            for (int code = 0; code < perCode.length; code++) {
+                both.clear();
+                both.or(field.bitmaps.get(code));
+                both.and(mask);
+                perCode[code] = both.cardinality();
+            }
+        }
+        for (int code = 0; code < perCode.length; code++) {
+            if (perCode[code] > 0) {
+                counts.put(field.names.get(code), perCode[code]);
+            }
+        }
+        return counts;
+    }
+
+    private void unindex(int slot) {
+        for (Field field : fields.values()) {
+            field.clear(slot);
+        }
+    }
+
+    /**
+     * Matches values whose field is one of values. Values in partialValues
+     * match only where check accepts them.
+     */
+    public static final class Filter<T> {
+        private final String field;
+        private final Set<String> values;
+        private final Set<String> partialValues;
+        private final Predicate<? super T> check;
+
+        private Filter(String field, Set<String> values, Set<String> partialValues, Predicate<? super T> check) {
+            this.field = field;
+            this.values = values;
+            this.partialValues = partialValues;
+            this.check = check;
+        }
+
+        public static <T> Filter<T> anyOf(String field, Set<String> values) {
+            return new Filter<>(field, values, Set.of(), value -> true);
+        }
+
+        public static <T> Filter<T> anyOf(String field, Set<String> values, Set<String> partialValues,
+                                          Predicate<? super T> check) {
+            return new Filter<>(field, values, partialValues, check);
+        }
+    }
+
+    public static final class Page<T> {
+        private final int total;
+        private final List<T> hits;
+        private final Map<String, Map<String, Integer>> facets;
+
+        private Page(int total, List<T> hits, Map<String, Map<String, Integer>> facets) {
+            this.total = total;
+            this.hits = hits;
+            this.facets = facets;
+        }
+
+        public int getTotal() { return total; }
+        public List<T> getHits() { return hits; }
+        public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    }
+
+    // Values of one field are numbered; a code keeps its (possibly empty) bitmap once assigned
+    private static final class Field {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<BitSet> bitmaps = new ArrayList<>();
+        // Code of each slot's value, -1 for none
+        private int[] slotCodes = new int[0];
+
+        private BitSet bitmap(String name) {
+            Integer code = codes.get(name);
+            return code == null ? null : bitmaps.get(code);
+        }
+
+        private int code(int slot) {
+            return slot < slotCodes.length ? slotCodes[slot] : -1;
+        }
+
+        private void set(int slot, String name) {
+            int code = codes.computeIfAbsent(name, key -> {
+                names.add(key);
+                bitmaps.add(new BitSet());
+                return names.size() - 1;
+            });
+            if (slot >= slotCodes.length) {
+                int previous = slotCodes.length;
+                slotCodes = Arrays.copyOf(slotCodes, Math.max(16, Math.max(slot + 1, previous * 2)));
+                Arrays.fill(slotCodes, previous, slotCodes.length, -1);
+            }
+            slotCodes[slot] = code;
+            bitmaps.get(code).set(slot);
+        }
+
+        private void clear(int slot) {
+            int code = code(slot);
+            if (code >= 0) {
+                bitmaps.get(code).clear(slot);
+                slotCodes[slot] = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.tuniway.util.geo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Pre-aggregated point clusters for every map zoom level. Cells follow the
+ * Web Mercator tile grid (cellsPerTile cells across each 256 px tile), so a
+ * viewport always covers a bounded number of cells whatever the catalogue
+ * size. Each write updates one cell per level.
+ */
+public class ClusterPyramid {
+
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    private final int maxZoom;
+    private final int cellsPerTile;
+    private final int categoryCount;
+
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+    private final Map<Long, Point> points = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ClusterPyramid(int maxZoom, int cellsPerTile, int categoryCount) {
+        if (maxZoom < 0 || maxZoom > 20) {
+            throw new IllegalArgumentException("maxZoom must be between 0 and 20: " + maxZoom);
+        }
+        if (Integer.bitCount(cellsPerTile) != 1 || cellsPerTile > 256) {
+            throw new IllegalArgumentException("cellsPerTile must be a power of two up to 256: " + cellsPerTile);
+        }
+        this.maxZoom = maxZoom;
+        this.cellsPerTile = cellsPerTile;
+        this.categoryCount = categoryCount;
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Adds or moves a point. category is an index below categoryCount, or -1 for none.
+     */
+    public void put(long id, double latitude, double longitude, int category) {
+        if (category >= categoryCount) {
+            throw new IllegalArgumentException("Unknown category index: " + category);
+        }
+        Point point = new Point(latitude, longitude, category);
+        lock.writeLock().lock();
+        try {
+            Point previous = points.put(id, point);
+            if (previous != null) {
+                apply(id, previous, -1);
+            }
+            apply(id, point, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Point previous = points.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            apply(id, previous, -1);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters intersecting the box at the given zoom (clamped to maxZoom).
+     *
+     * @throws IllegalArgumentException if the box spans more than maxCells cells at that zoom
+     */
+    public List<Cluster> clusters(double south, double west, double north, double east, int zoom, int maxCells) {
+        if (south > north || west > east) {
+            throw new IllegalArgumentException("Expected south <= north and west <= east");
+        }
+        int level = Math.max(0, Math.min(zoom, maxZoom));
+        int firstRow = row(north, level);
+        int lastRow = row(south, level);
+        int firstColumn = column(west, level);
+        int lastColumn = column(east, level);
+        long window = (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+        if (window > maxCells) {
+            throw new IllegalArgumentException("Viewport spans " + window + " cells at zoom " + level
+                    + ", more than " + maxCells + "; zoom in or shrink the box");
+        }
+
+        List<Cluster> clusters = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Cell> cells = levels.get(level);
+            if (window > cells.size()) {
+                // Fewer occupied cells than the viewport covers
+                for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                    int r = (int) (entry.getKey() >>> 32);
+                    int c = (int) (long) entry.getKey();
+                    if (r >= firstRow && r <= lastRow && c >= firstColumn && c <= lastColumn) {
+                        clusters.add(entry.getValue().toCluster());
+                    }
+                }
+            } else {
+                for (int r = firstRow; r <= lastRow; r++) {
+                    for (int c = firstColumn; c <= lastColumn; c++) {
+                        Cell cell = cells.get(cellKey(r, c));
+                        if (cell != null) {
+                            clusters.add(cell.toCluster());
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return clusters;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Integer, Integer> cellsPerLevel() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int zoom = 0; zoom <= maxZoom; zoom++) {
+                counts.put(zoom, levels.get(zoom).size());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    private void apply(long id, Point point, int sign) {
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            long key = cellKey(row(point.latitude, zoom), column(point.longitude, zoom));
+            Map<Long, Cell> cells = levels.get(zoom);
+            Cell cell = cells.computeIfAbsent(key, k -> new Cell(categoryCount));
+            cell.add(id, point, sign);
+            if (cell.count == 0) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private int row(double latitude, int zoom) {
+        double clamped = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude));
+        double radians = Math.toRadians(clamped);
+        double y = (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2;
+        return clampIndex(y, zoom);
+    }
+
+    private int column(double longitude, int zoom) {
+        return clampIndex((longitude + 180) / 360, zoom);
+    }
+
+    private int clampIndex(double fraction, int zoom) {
+        long size = (long) cellsPerTile << zoom;
+        return (int) Math.max(0, Math.min(size - 1, (long) Math.floor(fraction * size)));
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    public static final class Cluster {
+        private final double latitude;
+        private final double longitude;
+        private final int count;
+        private final int[] categoryCounts;
+        private final Long pointId;
+
+        private Cluster(double latitude, double longitude, int count, int[] categoryCounts, Long pointId) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.count = count;
+            this.categoryCounts = categoryCounts;
+            this.pointId = pointId;
+        }
+
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public int getCount() { return count; }
+        public int[] getCategoryCounts() { return categoryCounts; }
+        // Set only for a single-point cluster
+        public Long getPointId() { return pointId; }
+    }
+
+    private static final class Point {
+        private final double latitude;
+        private final double longitude;
+        private final int category;
+
+        private Point(double latitude, double longitude, int category) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.category = category;
+        }
+    }
+
+    private static final class Cell {
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+        // Equals the remaining id once the cell is down to a single point
+        private long idSum;
+        private final int[] categoryCounts;
+
+        private Cell(int categoryCount) {
+            this.categoryCounts = new int[categoryCount];
+        }
+
+        private void add(long id, Point point, int sign) {
+            count += sign;
+            latitudeSum += sign * point.latitude;
+            longitudeSum += sign * point.longitude;
+            idSum += sign * id;
+            if (point.category >= 0) {
+                categoryCounts[point.category] += sign;
+            }
+        }
+
+        private Cluster toCluster() {
+            return new Cluster(latitudeSum / count, longitudeSum / count, count, categoryCounts.clone(),
+                    count == 1 ? idSum : null);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.tuniway.util.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid for radius and bounding-box lookups.
+ * A radius query walks rings of cells outward from the centre and stops as
+ * soon as no unvisited cell can hold a point closer than the current last
+ * result, so nearest-first queries touch only a handful of cells.
+ */
+public class GeoGrid<T> {
+
+    private static final double EARTH_RADIUS_M = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_M / 180;
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final Map<Long, Entry<T>> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GeoGrid(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 10)) {
+            throw new IllegalArgumentException("cellDegrees must be in (0, 10]: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Adds the value at the given position, replacing any previous entry for id.
+     */
+    public void put(long id, double latitude, double longitude, T value) {
+        checkCoordinates(latitude, longitude);
+        Entry<T> entry = new Entry<>(latitude, longitude, cellKey(row(latitude), column(longitude)), value);
+        lock.writeLock().lock();
+        try {
+            Entry<T> previous = entries.put(id, entry);
+            if (previous != null) {
+                removeFromCell(previous);
+            }
+            cells.computeIfAbsent(entry.cell, key -> new ArrayList<>()).add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Entry<T> previous = entries.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            removeFromCell(previous);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit values within radiusMeters of the point, nearest first.
+     */
+    public List<Hit<T>> nearest(double latitude, double longitude, double radiusMeters, int limit,
+                                Predicate<? super T> filter) {
+        checkCoordinates(latitude, longitude);
+        if (limit <= 0 || radiusMeters < 0) {
+            return new ArrayList<>();
+        }
+
+        double cellMeters = cellDegrees * METERS_PER_DEGREE;
+        double radiusDegrees = radiusMeters / METERS_PER_DEGREE;
+        int maxRowOffset = (int) Math.ceil(radiusDegrees / cellDegrees);
+        // Longitude cells are narrowest at the most poleward latitude the circle reaches
+        double cos = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + radiusDegrees)));
+        int maxColumnOffset = cos < 1e-9 ? columns
+                : (int) Math.min(columns, Math.ceil(radiusDegrees / cos / cellDegrees));
+        double ringMeters = cellMeters * Math.min(1, cos);
+
+        TopK<T> top = new TopK<>(limit);
+        int centreRow = row(latitude);
+        int centreColumn = column(longitude);
+
+        lock.readLock().lock();
+        try {
+            long window = (2L * maxRowOffset + 1) * (2L * maxColumnOffset + 1);
+            if (window > 4L * cells.size() || 2L * maxColumnOffset + 1 >= columns) {
+                // Sparse grid, or a circle wrapping every longitude: scan occupied cells instead
+                for (List<Entry<T>> cell : cells.values()) {
+                    collect(cell, latitude, longitude, radiusMeters, filter, top);
+                }
+                return top.sorted();
+            }
+
+            int maxRing = Math.max(maxRowOffset, maxColumnOffset);
+            for (int ring = 0; ring <= maxRing; ring++) {
+                for (int dr = -ring; dr <= ring; dr++) {
+                    if (Math.abs(dr) > maxRowOffset) {
+                        continue;
+                    }
+                    int r = centreRow + dr;
+                    if (r < 0 || r >= rows) {
+                        continue;
+                    }
+                    // Interior rows of the ring only contribute their two edge cells
+                    int step = Math.abs(dr) == ring ? 1 : Math.max(1, 2 * ring);
+                    for (int dc = -ring; dc <= ring; dc += step) {
+                        if (Math.abs(dc) > maxColumnOffset) {
+                            continue;
+                        }
+                        List<Entry<T>> cell = cells.get(cellKey(r, Math.floorMod(centreColumn + dc, columns)));
+                        if (cell != null) {
+                            collect(cell, latitude, longitude, radiusMeters, filter, top);
+                        }
+                    }
+                }
+                // Anything outside this ring is at least ring cells away
+                if (top.isFull() && top.worst() <= ring * ringMeters) {
+                    break;
+                }
+            }
+            return top.sorted();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit values inside the box, nearest to its centre first. A box
+     * with west > east crosses the antimeridian.
+     */
+    public List<Hit<T>> within(double south, double west, double north, double east, int limit,
+                               Predicate<? super T> filter) {
+        checkCoordinates(south, west);
+        checkCoordinates(north, east);
+        if (south > north) {
+            throw new IllegalArgumentException("south must not be greater than north");
+        }
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        double span = west <= east ? east - west : 360 - west + east;
+        double centreLatitude = (south + north) / 2;
+        double centreLongitude = west + span / 2;
+        if (centreLongitude > 180) {
+            centreLongitude -= 360;
+        }
+
+        int firstRow = row(south);
+        int lastRow = row(north);
+        int firstColumn = column(west);
+        int columnCount = Math.min(columns, Math.floorMod(column(east) - firstColumn, columns) + 1);
+        if (span >= 360 - cellDegrees) {
+            columnCount = columns;
+        }
+
+        TopK<T> top = new TopK<>(limit);
+        lock.readLock().lock();
+        try {
+            long window = (long) (lastRow - firstRow + 1) * columnCount;
+            if (window > 4L * cells.size()) {
+                for (List<Entry<T>> cell : cells.values()) {
+                    collectInBox(cell, south, west, north, east, centreLatitude, centreLongitude, filter, top);
+                }
+            } else {
+                for (int r = firstRow; r <= lastRow; r++) {
+                    for (int c = 0; c < columnCount; c++) {
+                        List<Entry<T>> cell = cells.get(cellKey(r, (firstColumn + c) % columns));
+                        if (cell != null) {
+                            collectInBox(cell, south, west, north, east, centreLatitude, centreLongitude, filter, top);
+                        }
+                    }
+                }
+            }
+            return top.sorted();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int cellCount() {
+        lock.readLock().lock();
+        try {
+            return cells.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double getCellDegrees() {
+        return cellDegrees;
+    }
+
+    /**
+     * Great-circle distance in meters (haversine).
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void collect(List<Entry<T>> cell, double latitude, double longitude, double radiusMeters,
+                         Predicate<? super T> filter, TopK<T> top) {
+        for (Entry<T> entry : cell) {
+            double distance = distanceMeters(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance <= radiusMeters && top.accepts(distance) && (filter == null || filter.test(entry.value))) {
+                top.offer(entry.value, distance);
+            }
+        }
+    }
+
+    private void collectInBox(List<Entry<T>> cell, double south, double west, double north, double east,
+                              double centreLatitude, double centreLongitude, Predicate<? super T> filter, TopK<T> top) {
+        for (Entry<T> entry : cell) {
+            if (entry.latitude < south || entry.latitude > north) {
+                continue;
+            }
+            boolean inLongitude = west <= east
+                    ? entry.longitude >= west && entry.longitude <= east
+                    : entry.longitude >= west || entry.longitude <= east;
+            if (!inLongitude) {
+                continue;
+            }
+            double distance = distanceMeters(centreLatitude, centreLongitude, entry.latitude, entry.longitude);
+            if (top.accepts(distance) && (filter == null || filter.test(entry.value))) {
+                top.offer(entry.value, distance);
+            }
+        }
+    }
+
+    private void removeFromCell(Entry<T> entry) {
+        List<Entry<T>> cell = cells.get(entry.cell);
+        if (cell != null) {
+            cell.remove(entry);
+            if (cell.isEmpty()) {
+                cells.remove(entry.cell);
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellDegrees));
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private static void checkCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+    }
+
+    public static final class Hit<T> {
+        private final T value;
+        private final double distanceMeters;
+
+        private Hit(T value, double distanceMeters) {
+            this.value = value;
+            this.distanceMeters = distanceMeters;
+        }
+
+        public T getValue() { return value; }
+        public double getDistanceMeters() { return distanceMeters; }
+    }
+
+    private static final class Entry<T> {
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+        private final T value;
+
+        private Entry(double latitude, double longitude, long cell, T value) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+            this.value = value;
+        }
+    }
+
+    // Bounded max-heap on distance that keeps the limit closest hits
+    private static final class TopK<T> {
+        private final int limit;
+        private final PriorityQueue<Hit<T>> heap;
+
+        private TopK(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024),
+                    Comparator.comparingDouble((Hit<T> hit) -> hit.distanceMeters).reversed());
+        }
+
+        boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        double worst() {
+            return heap.peek().distanceMeters;
+        }
+
+        boolean accepts(double distance) {
+            return !isFull() || distance < worst();
+        }
+
+        void offer(T value, double distance) {
+            if (isFull()) {
+                heap.poll();
+            }
+            heap.add(new Hit<>(value, distance));
+        }
+
+        List<Hit<T>> sorted() {
+            List<Hit<T>> hits = new ArrayList<>(heap);
+            hits.sort(Comparator.comparingDouble(hit -> hit.distanceMeters));
+            return hits;
+        }
+    }
+}
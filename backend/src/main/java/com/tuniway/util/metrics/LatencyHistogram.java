@@ -0,0 +1,94 @@
+package com.tuniway.util.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed exponential buckets (in milliseconds).
+ * Cheap enough to record on every request; percentiles are approximated
+ * from the bucket upper bounds.
+ */
+public class LatencyHistogram {
+
+    private static final double[] BUCKET_BOUNDS_MS = {
+            0.1, 0.25, 0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long duration, TimeUnit unit) {
+        recordNanos(unit.toNanos(duration));
+    }
+
+    public void recordNanos(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        double millis = nanos / 1_000_000.0;
+        int index = BUCKET_BOUNDS_MS.length;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (millis <= BUCKET_BOUNDS_MS[i]) {
+                index = i;
+                break;
+            }
+        }
+        buckets[index].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Approximate percentile (0-100), returned as the upper bound of the bucket holding it.
+     */
+    public double percentileMs(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(total * (percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : maxNanos.get() / 1_000_000.0;
+            }
+        }
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public Map<String, Object> snapshot() {
+        long total = count.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", total);
+        snapshot.put("meanMs", total == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / total);
+        snapshot.put("maxMs", maxNanos.get() / 1_000_000.0);
+        snapshot.put("p50Ms", percentileMs(50));
+        snapshot.put("p95Ms", percentileMs(95));
+        snapshot.put("p99Ms", percentileMs(99));
+
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            histogram.put("le_" + BUCKET_BOUNDS_MS[i], buckets[i].sum());
+        }
+        histogram.put("le_inf", buckets[BUCKET_BOUNDS_MS.length].sum());
+        snapshot.put("buckets", histogram);
+        return snapshot;
+    }
+}
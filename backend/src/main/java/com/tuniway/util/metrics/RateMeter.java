@@ -0,0 +1,61 @@
+package com.tuniway.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Events-per-second meter over a sliding window of one-second buckets.
+ * Bucket rollover is best-effort under contention, which is fine for
+ * monitoring figures.
+ */
+public class RateMeter {
+
+    private static final int WINDOW_SECONDS = 60;
+    // One more than the window so the second being filled never overwrites the oldest complete one
+    private static final int BUCKETS = WINDOW_SECONDS + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray bucketSeconds = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongSupplier clock;
+
+    public RateMeter() {
+        this(System::currentTimeMillis);
+    }
+
+    public RateMeter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void mark() {
+        long second = clock.getAsLong() / 1000;
+        int index = (int) (second % BUCKETS);
+        long bucketSecond = bucketSeconds.get(index);
+        if (bucketSecond != second && bucketSeconds.compareAndSet(index, bucketSecond, second)) {
+            counts.set(index, 0);
+        }
+        counts.incrementAndGet(index);
+        total.increment();
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Average rate over the last complete seconds (1..60).
+     */
+    public double ratePerSecond(int seconds) {
+        int window = Math.max(1, Math.min(seconds, WINDOW_SECONDS));
+        long now = clock.getAsLong() / 1000;
+        long sum = 0;
+        for (long second = now - window; second < now; second++) {
+            int index = (int) (second % BUCKETS);
+            if (bucketSeconds.get(index) == second) {
+                sum += counts.get(index);
+            }
+        }
+        return (double) sum / window;
+    }
+}
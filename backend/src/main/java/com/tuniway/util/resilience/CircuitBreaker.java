@@ -0,0 +1,167 @@
+package com.tuniway.util.resilience;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * CLOSED: calls pass; the outcome of the last windowSize calls is kept and
+ * the breaker opens once at least minimumCalls were seen and the failure
+ * rate reaches failureRateThreshold percent.
+ * OPEN: calls are rejected until openDurationMs has elapsed.
+ * HALF_OPEN: up to halfOpenPermits trial calls pass; if all succeed the
+ * breaker closes, any failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenPermits;
+    private final LongSupplier clock;
+
+    // Ring buffer of the last windowSize outcomes (true = failure)
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenIssued;
+    private int halfOpenSucceeded;
+
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder timesOpened = new LongAdder();
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMs, int halfOpenPermits) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, openDurationMs, halfOpenPermits,
+                System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMs, int halfOpenPermits, LongSupplier clock) {
+        if (windowSize < 1 || minimumCalls < 1 || halfOpenPermits < 1) {
+            throw new IllegalArgumentException("Window size, minimum calls and half-open permits must be positive");
+        }
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenPermits = halfOpenPermits;
+        this.clock = clock;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * Returns true if the call may proceed. Every permitted call must be
+     * followed by exactly one onSuccess or onFailure.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationMs) {
+                notPermitted.increment();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenIssued >= halfOpenPermits) {
+                notPermitted.increment();
+                return false;
+            }
+            halfOpenIssued++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            halfOpenSucceeded++;
+            if (halfOpenSucceeded >= halfOpenPermits) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failureRate() >= failureRateThreshold) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        // Report HALF_OPEN as soon as the open period is over, even before the next call
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("state", getState().name());
+        stats.put("failureRate", failureRate());
+        stats.put("bufferedCalls", recorded);
+        stats.put("failedCalls", failures);
+        stats.put("notPermittedCalls", notPermitted.sum());
+        stats.put("timesOpened", timesOpened.sum());
+        return stats;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (outcomes[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[position] = failure;
+        if (failure) {
+            failures++;
+        }
+        position = (position + 1) % windowSize;
+    }
+
+    private double failureRate() {
+        return recorded == 0 ? 0.0 : failures * 100.0 / recorded;
+    }
+
+    private void transitionTo(State next) {
+        state = next;
+        halfOpenIssued = 0;
+        halfOpenSucceeded = 0;
+        if (next == State.OPEN) {
+            openedAt = clock.getAsLong();
+            timesOpened.increment();
+        }
+        if (next == State.CLOSED) {
+            // Start the new closed period with a clean window
+            position = 0;
+            recorded = 0;
+            failures = 0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.tuniway.util.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Filesystem blob store keyed by the SHA-256 of the content.
+ * Blobs are immutable: writing the same bytes twice is a no-op, and every
+ * blob can carry derived variants (e.g. thumbnails) stored next to it.
+ *
+ * Layout: root/ab/cd/abcd...ef[.variant]
+ */
+public class ContentAddressedStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern VARIANT_PATTERN = Pattern.compile("[a-z0-9]{1,16}");
+
+    private final Path root;
+
+    public ContentAddressedStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create blob store at " + this.root, e);
+        }
+    }
+
+    public static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static boolean isValidHash(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    /**
+     * Stores the content and returns its hash.
+     */
+    public String put(byte[] content) throws IOException {
+        String hash = hash(content);
+        write(pathFor(hash, null), content);
+        return hash;
+    }
+
+    /**
+     * Stores a derived variant of an existing blob (e.g. a thumbnail).
+     */
+    public void putVariant(String hash, String variant, byte[] content) throws IOException {
+        write(pathFor(hash, variant), content);
+    }
+
+    public boolean exists(String hash, String variant) {
+        return Files.isRegularFile(pathFor(hash, variant));
+    }
+
+    public long size(String hash, String variant) throws IOException {
+        return Files.size(pathFor(hash, variant));
+    }
+
+    public byte[] read(String hash, String variant) throws IOException {
+        return Files.readAllBytes(pathFor(hash, variant));
+    }
+
+    /**
+     * Reads at most length bytes from the start of a blob, e.g. to sniff its
+     * type without loading the whole file.
+     */
+    public byte[] readHead(String hash, String variant, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathFor(hash, variant), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, channel.size()));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            byte[] head = new byte[buffer.remaining()];
+            buffer.get(head);
+            return head;
+        }
+    }
+
+    /**
+     * Streams a blob into the target channel using FileChannel.transferTo.
+     * The OS copies straight from the page cache only when the target is a
+     * file or socket channel; other channels get a buffered copy.
+     *
+     * @return number of bytes written
+     */
+    public long transferTo(String hash, String variant, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathFor(hash, variant), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = channel.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            return position;
+        }
+    }
+
+    private Path pathFor(String hash, String variant) {
+        if (!isValidHash(hash)) {
+            throw new IllegalArgumentException("Invalid content hash: " + hash);
+        }
+        if (variant != null && !VARIANT_PATTERN.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Invalid variant: " + variant);
+        }
+        String fileName = variant == null ? hash : hash + "." + variant;
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(fileName);
+    }
+
+    private void write(Path target, byte[] content) throws IOException {
+        if (Files.isRegularFile(target)) {
+            return; // content-addressed: already stored
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.tuniway.util.storage;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only log of text records split into numbered segment files.
+ * A new segment is started when the current one exceeds segmentMaxBytes,
+ * and only the newest maxSegments files are kept. Appends go to the OS page
+ * cache without fsync; the last record may be cut short by a crash, so
+ * readers must tolerate one malformed trailing line.
+ */
+public class SegmentLog implements Closeable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{6})\\.log");
+
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final int maxSegments;
+
+    private FileChannel current;
+    private int currentIndex;
+
+    public SegmentLog(Path directory, long segmentMaxBytes, int maxSegments) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.maxSegments = Math.max(1, maxSegments);
+        try {
+            Files.createDirectories(this.directory);
+            List<Integer> existing = segmentIndexes();
+            this.currentIndex = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open segment log at " + this.directory, e);
+        }
+    }
+
+    /**
+     * Reads every record of every retained segment, oldest first.
+     */
+    public synchronized void replay(Consumer<String> consumer) throws IOException {
+        for (int index : segmentIndexes()) {
+            try (BufferedReader reader = Files.newBufferedReader(segmentPath(index), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        consumer.accept(line);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends one record and returns the index of the segment it went to.
+     * Records must not contain line breaks.
+     */
+    public synchronized int append(String record) throws IOException {
+        if (record.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Records must be single-line");
+        }
+        if (current == null || current.size() >= segmentMaxBytes) {
+            roll();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            current.write(buffer);
+        }
+        return currentIndex;
+    }
+
+    /**
+     * Forces appended records to disk. Appends are not blocked while the
+     * force runs, so concurrent writers can share the next one.
+     */
+    public void sync() throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            channel = current;
+        }
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // Rolled (which forces before closing) or reset (nothing left to keep)
+        }
+    }
+
+    /**
+     * Deletes the segments older than the given one.
+     */
+    public synchronized void deleteBefore(int index) throws IOException {
+        for (int existing : segmentIndexes()) {
+            if (existing >= index || existing == currentIndex) {
+                break;
+            }
+            Files.deleteIfExists(segmentPath(existing));
+        }
+    }
+
+    /**
+     * Deletes every segment; the next append starts a fresh one.
+     */
+    public synchronized void reset() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        for (int index : segmentIndexes()) {
+            Files.deleteIfExists(segmentPath(index));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (current != null) {
+            current.force(false);
+            current.close();
+            current = null;
+        }
+    }
+
+    private void roll() throws IOException {
+        if (current != null) {
+            current.force(false);
+            current.close();
+        }
+        currentIndex++;
+        current = FileChannel.open(segmentPath(currentIndex),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        List<Integer> indexes = segmentIndexes();
+        for (int i = 0; i < indexes.size() - maxSegments; i++) {
+            Files.deleteIfExists(segmentPath(indexes.get(i)));
+        }
+    }
+
+    private List<Integer> segmentIndexes() throws IOException {
+        List<Integer> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.log")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    indexes.add(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("segment-%06d.log", index));
+    }
+}
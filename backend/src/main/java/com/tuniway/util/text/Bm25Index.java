@@ -0,0 +1,202 @@
+package com.tuniway.util.text;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index ranked with Okapi BM25. Documents are bags of
+ * (already analyzed) terms with weighted frequencies, which lets callers
+ * boost a field by counting its terms more than once. Replacing a document
+ * updates only its own postings. Equal scores are ordered by key, so pages
+ * of the same query never overlap or skip a hit.
+ */
+public class Bm25Index<K extends Comparable<? super K>> {
+
+    private final double k1;
+    private final double b;
+
+    private final Map<String, Map<K, Double>> postings = new HashMap<>();
+    private final Map<K, Document> documents = new HashMap<>();
+    private double totalLength;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public Bm25Index(double k1, double b) {
+        if (k1 < 0 || b < 0 || b > 1) {
+            throw new IllegalArgumentException("Expected k1 >= 0 and 0 <= b <= 1");
+        }
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Adds or replaces a document. Its length is the sum of the term frequencies.
+     */
+    public void put(K key, Map<String, Double> termFrequencies) {
+        double length = 0;
+        for (double frequency : termFrequencies.values()) {
+            length += frequency;
+        }
+        Document document = new Document(new HashMap<>(termFrequencies), length);
+
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.put(key, document);
+            if (previous != null) {
+                unindex(key, previous);
+            }
+            for (Map.Entry<String, Double> term : document.terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(key, term.getValue());
+            }
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(K key) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.remove(key);
+            if (previous == null) {
+                return false;
+            }
+            unindex(key, previous);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Documents matching any query term, best first, skipping offset hits.
+     * The total counts every match accepted by the filter.
+     */
+    public Page<K> search(List<String> queryTerms, Predicate<? super K> filter, int offset, int limit) {
+        Map<K, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 0 : totalLength / documentCount;
+            // A term repeated in the query counts once
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                Map<K, Double> matches = postings.get(term);
+                if (matches == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - matches.size() + 0.5) / (matches.size() + 0.5));
+                for (Map.Entry<K, Double> match : matches.entrySet()) {
+                    K key = match.getKey();
+                    if (filter != null && !filter.test(key)) {
+                        continue;
+                    }
+                    double frequency = match.getValue();
+                    double length = documents.get(key).length;
+                    double norm = averageLength == 0 ? 1 : 1 - b + b * length / averageLength;
+                    double score = idf * frequency * (k1 + 1) / (frequency + k1 * norm);
+                    scores.merge(key, score, Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int from = Math.max(offset, 0);
+        // Never keep more than there are hits, whatever offset + limit adds up to
+        int wanted = (int) Math.min((long) from + Math.max(limit, 0), scores.size());
+        if (limit <= 0 || wanted <= from) {
+            return new Page<>(scores.size(), new ArrayList<>());
+        }
+        // Best first: higher score, then lower key
+        Comparator<Hit<K>> ranking = Comparator.comparingDouble((Hit<K> hit) -> hit.getScore()).reversed()
+                .thenComparing(Hit::getKey);
+        // Bounded heap with the worst kept hit on top, holding only the hits up to the end of the requested page
+        PriorityQueue<Hit<K>> top = new PriorityQueue<>(Math.min(wanted, 1024), ranking.reversed());
+        for (Map.Entry<K, Double> score : scores.entrySet()) {
+            Hit<K> hit = new Hit<>(score.getKey(), score.getValue());
+            if (top.size() < wanted) {
+                top.add(hit);
+            } else if (ranking.compare(hit, top.peek()) < 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+        List<Hit<K>> ranked = new ArrayList<>(top);
+        ranked.sort(ranking);
+        List<Hit<K>> page = new ArrayList<>(ranked.subList(from, ranked.size()));
+        return new Page<>(scores.size(), page);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unindex(K key, Document document) {
+        for (String term : document.terms.keySet()) {
+            Map<K, Double> matches = postings.get(term);
+            if (matches != null) {
+                matches.remove(key);
+                if (matches.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    public static final class Hit<K> {
+        private final K key;
+        private final double score;
+
+        private Hit(K key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        public K getKey() { return key; }
+        public double getScore() { return score; }
+    }
+
+    public static final class Page<K> {
+        private final int total;
+        private final List<Hit<K>> hits;
+
+        private Page(int total, List<Hit<K>> hits) {
+            this.total = total;
+            this.hits = hits;
+        }
+
+        public int getTotal() { return total; }
+        public List<Hit<K>> getHits() { return hits; }
+    }
+
+    private static final class Document {
+        private final Map<String, Double> terms;
+        private final double length;
+
+        private Document(Map<String, Double> terms, double length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+}
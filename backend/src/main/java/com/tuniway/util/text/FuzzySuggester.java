@@ -0,0 +1,406 @@
+package com.tuniway.util.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Type-ahead suggester over short phrases (names). Every word suffix of a
+ * phrase is a trie key, in accent-folded and transliteration-folded form,
+ * so "bou said" and "busaid" both reach "Sidi Bou Saïd". Each node keeps
+ * its subtree's best entries by weight, so a prefix lookup never walks the
+ * subtree; typos are matched with a bounded Damerau-Levenshtein walk.
+ * As in most fuzzy suggesters the first character must match, which keeps
+ * the walk small; transliteration folding covers Qairouan/Kairouan.
+ */
+public class FuzzySuggester {
+
+    private static final Comparator<Entry> BY_WEIGHT = FuzzySuggester::compareByWeight;
+
+    private final int topPerNode;
+    private final int maxKeyLength;
+    private final int maxEdits;
+
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FuzzySuggester(int topPerNode, int maxKeyLength, int maxEdits) {
+        this.topPerNode = topPerNode;
+        this.maxKeyLength = maxKeyLength;
+        this.maxEdits = maxEdits;
+    }
+
+    /**
+     * Adds or replaces the phrase for id. Higher weights rank first.
+     */
+    public void put(String id, String text, long weight) {
+        Entry entry = new Entry(id, text, weight, keys(text));
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(id, entry);
+            if (previous != null) {
+                unindex(previous);
+            }
+            for (String key : entry.keys) {
+                index(entry, key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            unindex(previous);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best completions of what the user has typed so far: fewer edits
+     * first, then higher weight. Short inputs must match exactly; longer
+     * ones tolerate one or two typos.
+     */
+    public List<Suggestion> suggest(String input, int limit) {
+        List<Suggestion> suggestions = new ArrayList<>();
+        String light = String.join(" ", lightTokens(input));
+        if (light.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        // Keep a trailing space so "sidi " doesn't also complete "sidibe"
+        if (Character.isWhitespace(input.charAt(input.length() - 1))) {
+            light = light + " ";
+        }
+        String folded = TextNormalizer.foldTransliteration(light);
+
+        Map<Entry, Integer> candidates = new HashMap<>();
+        int allowed = allowedEdits(light.replace(" ", "").length());
+        lock.readLock().lock();
+        try {
+            // The typed spelling matters while a digraph is half typed ("d" of "dj"), so it is
+            // matched exactly; typos are looked up on the folded form, which every entry has
+            collect(truncate(light), 0, candidates);
+            if (!folded.equals(light)) {
+                collect(truncate(folded), 0, candidates);
+            }
+            // Results rank by edits first, so a wider search is only needed while the page isn't full
+            for (int edits = 1; edits <= allowed && candidates.size() < limit; edits++) {
+                collect(truncate(folded), edits, candidates);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Entry, Integer>> ranked = new ArrayList<>(candidates.entrySet());
+        ranked.sort(Map.Entry.<Entry, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(BY_WEIGHT)));
+        for (Map.Entry<Entry, Integer> candidate : ranked) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            Entry entry = candidate.getKey();
+            suggestions.add(new Suggestion(entry.id, entry.text, entry.weight, candidate.getValue()));
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTopPerNode() {
+        return topPerNode;
+    }
+
+    private int allowedEdits(int length) {
+        if (length <= 3) {
+            return 0;
+        }
+        return Math.min(maxEdits, length <= 6 ? 1 : 2);
+    }
+
+    private void collect(String query, int edits, Map<Entry, Integer> candidates) {
+        Node first = root.child(query.charAt(0));
+        if (first == null) {
+            return;
+        }
+        // Row for the exactly matched first character
+        int[] firstRow = new int[query.length() + 1];
+        for (int j = 0; j <= query.length(); j++) {
+            firstRow[j] = Math.abs(j - 1);
+        }
+        if (query.length() == 1) {
+            for (Entry entry : first.top) {
+                candidates.merge(entry, 0, Math::min);
+            }
+            return;
+        }
+        for (int i = 0; i < first.size; i++) {
+            walk(first.children[i], 2, first.labels[i], query.charAt(0), query, firstRow, null, edits,
+                    Integer.MAX_VALUE, candidates);
+        }
+    }
+
+    // One trie level per call; rows are the edit distances of the query against the node's prefix.
+    // Only the diagonal band a path within the edit budget can cross is computed, the rest is capped.
+    // collected is the lowest distance already taken on this path: deeper nodes only add entries
+    // when they match with fewer edits, since their best entries are a subset of this node's.
+    private void walk(Node node, int depth, char label, char previousLabel, String query, int[] previousRow,
+                      int[] rowBefore, int edits, int collected, Map<Entry, Integer> candidates) {
+        int columns = query.length() + 1;
+        int[] row = new int[columns];
+        Arrays.fill(row, edits + 1);
+        row[0] = Math.min(depth, edits + 1);
+        int best = row[0];
+        int last = Math.min(columns - 1, depth + edits);
+        for (int j = Math.max(1, depth - edits); j <= last; j++) {
+            char expected = query.charAt(j - 1);
+            int cost = expected == label ? 0 : 1;
+            int value = Math.min(Math.min(row[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + cost);
+            // Swapped neighbours ("hmaamet") count as a single edit
+            if (rowBefore != null && j > 1 && expected == previousLabel && query.charAt(j - 2) == label) {
+                value = Math.min(value, rowBefore[j - 2] + 1);
+            }
+            row[j] = Math.min(value, edits + 1);
+            best = Math.min(best, row[j]);
+        }
+        if (best > edits || best >= collected) {
+            return;
+        }
+
+        int distance = row[columns - 1];
+        if (distance <= edits && distance < collected) {
+            for (Entry entry : node.top) {
+                candidates.merge(entry, distance, Math::min);
+            }
+            collected = distance;
+            if (distance == 0) {
+                return;
+            }
+        }
+        for (int i = 0; i < node.size; i++) {
+            walk(node.children[i], depth + 1, node.labels[i], label, query, row, previousRow, edits, collected,
+                    candidates);
+        }
+    }
+
+    private static int compareByWeight(Entry a, Entry b) {
+        if (a.weight != b.weight) {
+            return a.weight > b.weight ? -1 : 1;
+        }
+        if (a.text.length() != b.text.length()) {
+            return a.text.length() < b.text.length() ? -1 : 1;
+        }
+        return a.id.compareTo(b.id);
+    }
+
+    private void index(Entry entry, String key) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.offer(entry, topPerNode);
+        }
+        if (node.terminals == null) {
+            node.terminals = new ArrayList<>(1);
+        }
+        node.terminals.add(entry);
+    }
+
+    private void unindex(Entry entry) {
+        for (String key : entry.keys) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < key.length(); i++) {
+                path[i + 1] = path[i].child(key.charAt(i));
+            }
+            Node end = path[key.length()];
+            if (end.terminals != null && end.terminals.remove(entry) && end.terminals.isEmpty()) {
+                end.terminals = null;
+            }
+            // Bottom-up, so each node rebuilds its best list from already-correct children
+            for (int depth = key.length(); depth > 0; depth--) {
+                Node node = path[depth];
+                if (node.contains(entry)) {
+                    node.recompute(topPerNode);
+                }
+                if (node.isEmpty()) {
+                    path[depth - 1].removeChild(key.charAt(depth - 1));
+                }
+            }
+        }
+    }
+
+    private Set<String> keys(String text) {
+        List<String> tokens = lightTokens(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int start = 0; start < tokens.size(); start++) {
+            String suffix = String.join(" ", tokens.subList(start, tokens.size()));
+            keys.add(truncate(suffix));
+            keys.add(truncate(TextNormalizer.foldTransliteration(suffix)));
+            // Names written as one word or two (Bou Said / Bousaid)
+            keys.add(truncate(suffix.replace(" ", "")));
+        }
+        return keys;
+    }
+
+    private static List<String> lightTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TextNormalizer.tokenize(text)) {
+            tokens.add(TextNormalizer.foldArabic(token));
+        }
+        return tokens;
+    }
+
+    private String truncate(String key) {
+        return key.length() <= maxKeyLength ? key : key.substring(0, maxKeyLength);
+    }
+
+    public static final class Suggestion {
+        private final String id;
+        private final String text;
+        private final long weight;
+        private final int edits;
+
+        private Suggestion(String id, String text, long weight, int edits) {
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+            this.edits = edits;
+        }
+
+        public String getId() { return id; }
+        public String getText() { return text; }
+        public long getWeight() { return weight; }
+        public int getEdits() { return edits; }
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final String text;
+        private final long weight;
+        private final Set<String> keys;
+
+        private Entry(String id, String text, long weight, Set<String> keys) {
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+            this.keys = keys;
+        }
+    }
+
+    private static final class Node {
+        private static final Entry[] NONE = new Entry[0];
+
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        // Entries whose key ends here, allocated on first use since most nodes have none
+        private List<Entry> terminals;
+        // Best entries of this subtree, ordered by BY_WEIGHT
+        private Entry[] top = NONE;
+
+        private Node child(char label) {
+            for (int i = 0; i < size; i++) {
+                if (labels[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char label) {
+            Node existing = child(label);
+            if (existing != null) {
+                return existing;
+            }
+            if (size == labels.length) {
+                int capacity = Math.max(2, size * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            Node created = new Node();
+            labels[size] = label;
+            children[size] = created;
+            size++;
+            return created;
+        }
+
+        private void removeChild(char label) {
+            for (int i = 0; i < size; i++) {
+                if (labels[i] == label) {
+                    labels[i] = labels[size - 1];
+                    children[i] = children[size - 1];
+                    children[size - 1] = null;
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return size == 0 && terminals == null;
+        }
+
+        private boolean contains(Entry entry) {
+            for (Entry candidate : top) {
+                if (candidate == entry) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void offer(Entry entry, int limit) {
+            if (top.length == limit && compareByWeight(entry, top[limit - 1]) >= 0) {
+                return;
+            }
+            if (contains(entry)) {
+                return;
+            }
+            int position = 0;
+            while (position < top.length && compareByWeight(top[position], entry) < 0) {
+                position++;
+            }
+            Entry[] updated = new Entry[Math.min(limit, top.length + 1)];
+            System.arraycopy(top, 0, updated, 0, Math.min(position, updated.length));
+            if (position < updated.length) {
+                updated[position] = entry;
+                System.arraycopy(top, position, updated, position + 1, updated.length - position - 1);
+            }
+            top = updated;
+        }
+
+        private void recompute(int limit) {
+            top = NONE;
+            if (terminals != null) {
+                for (Entry entry : terminals) {
+                    offer(entry, limit);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                for (Entry entry : children[i].top) {
+                    offer(entry, limit);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.tuniway.util.text;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces free-text questions to a canonical key so that phrasing
+ * variations of the same question map to the same cache entry, and
+ * analyzes text for the place/tour search index.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Function words that carry no intent. Question words (what, where, how...)
+    // are kept on purpose: the intent model distinguishes on them.
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "the", "is", "are", "was", "were", "be", "am", "do", "does", "did",
+            "i", "me", "my", "you", "your", "we", "our", "it", "its", "this", "that", "these", "those",
+            "of", "to", "in", "on", "at", "for", "with", "and", "or", "some", "any", "please",
+            "can", "could", "would", "will", "there",
+            "le", "la", "les", "un", "une", "des", "de", "du", "et", "je", "tu", "vous", "est", "en", "au", "aux"
+    );
+
+    // Latin spellings of the same Arabic sounds: Djerba/Jerba, Qairouan/Kairouan, Chebba/Shebba
+    private static final String[][] TRANSLITERATIONS = {
+            {"dj", "j"}, {"sh", "ch"}, {"ou", "u"}, {"q", "k"}, {"y", "i"}
+    };
+
+    // Arabic articles that transliterations write apart or drop (El Jem / Jem)
+    private static final Set<String> SEARCH_STOPWORDS = Set.of("el", "al");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Lowercased, accent-folded tokens with punctuation and stopwords removed.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : NON_WORD.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Cache key for a question: distinct tokens in sorted order. The chatbot
+     * classifies a bag of words, so word order and repetition don't change
+     * its answer. Returns an empty string when nothing meaningful is left.
+     */
+    public static String normalize(String text) {
+        return String.join(" ", new TreeSet<>(tokenize(text)));
+    }
+
+    /**
+     * Tokens for the search index: accent-folded like {@link #tokenize}, then
+     * with Arabic letter variants unified and Latin transliteration variants
+     * folded to one spelling, so "Hammamet" and "hamamet" index the same.
+     * Index and queries must go through the same method.
+     */
+    public static List<String> searchTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            if (SEARCH_STOPWORDS.contains(token)) {
+                continue;
+            }
+            String folded = foldTransliteration(foldArabic(token));
+            if (!folded.isEmpty()) {
+                tokens.add(folded);
+            }
+        }
+        return tokens;
+    }
+
+    static String foldArabic(String token) {
+        StringBuilder folded = new StringBuilder(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            switch (c) {
+                case '\u0623', '\u0625', '\u0622', '\u0671' -> folded.append('\u0627'); // alef variants
+                case '\u0629' -> folded.append('\u0647'); // ta marbuta
+                case '\u0649' -> folded.append('\u064A'); // alef maqsura
+                case '\u0640' -> { } // tatweel
+                default -> folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    static String foldTransliteration(String token) {
+        String folded = token;
+        for (String[] rule : TRANSLITERATIONS) {
+            folded = folded.replace(rule[0], rule[1]);
+        }
+        // Doubled letters are written single as often as not (Hammamet, Sousse)
+        StringBuilder collapsed = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (i == 0 || c != folded.charAt(i - 1) || Character.isDigit(c)) {
+                collapsed.append(c);
+            }
+        }
+        return collapsed.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.facet.BitmapFacetIndex;
+import com.tuniway.util.facet.BitmapFacetIndex.Filter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filter plus facet count latency of the bitmap index against grouping a
+ * full scan, which is what a GROUP BY per facet does. Run with:
+ * mvn test -Dtest=BitmapFacetIndexBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BitmapFacetIndexBenchmarkTest {
+
+    private static final int QUERIES = 2_000;
+    private static final List<String> FIELDS = List.of("category", "city", "rating");
+
+    @Test
+    void facetCountsAgainstFullScan() {
+        System.out.printf("%-10s %-8s %10s %10s%n", "places", "method", "p50 us", "p99 us");
+        for (int places : new int[]{10_000, 100_000}) {
+            BitmapFacetIndex<Map<String, String>> index = new BitmapFacetIndex<>();
+            List<Map<String, String>> rows = new ArrayList<>(places);
+            Random random = new Random(5);
+            for (int i = 0; i < places; i++) {
+                Map<String, String> row = Map.of(
+                        "category", "C" + random.nextInt(8),
+                        "city", "city" + random.nextInt(200),
+                        "rating", String.valueOf(1 + random.nextInt(5)));
+                rows.add(row);
+                index.put(i, row, row);
+            }
+
+            long[] indexNanos = new long[QUERIES];
+            long[] scanNanos = new long[QUERIES];
+            // The first half only warms up the JIT
+            for (int q = -QUERIES; q < QUERIES; q++) {
+                String category = "C" + random.nextInt(8);
+                String city = "city" + random.nextInt(200);
+
+                long startedAt = System.nanoTime();
+                int total = index.query(List.of(
+                        Filter.anyOf("category", Set.of(category)),
+                        Filter.anyOf("city", Set.of(city))), FIELDS, null, 0, 20).getTotal();
+                long indexed = System.nanoTime() - startedAt;
+
+                startedAt = System.nanoTime();
+                int scanned = scan(rows, category, city);
+                long scannedIn = System.nanoTime() - startedAt;
+                assertThat(total).isEqualTo(scanned);
+                if (q >= 0) {
+                    indexNanos[q] = indexed;
+                    scanNanos[q] = scannedIn;
+                }
+            }
+            Arrays.sort(indexNanos);
+            Arrays.sort(scanNanos);
+            System.out.printf("%-10d %-8s %10.1f %10.1f%n", places, "bitmap",
+                    indexNanos[QUERIES / 2] / 1e3, indexNanos[QUERIES * 99 / 100] / 1e3);
+            System.out.printf("%-10d %-8s %10.1f %10.1f%n", places, "scan",
+                    scanNanos[QUERIES / 2] / 1e3, scanNanos[QUERIES * 99 / 100] / 1e3);
+            assertThat(indexNanos[QUERIES / 2]).isLessThan(scanNanos[QUERIES / 2]);
+        }
+    }
+
+    // Matches plus one grouped count per facet, each leaving out its own filter
+    private static int scan(List<Map<String, String>> rows, String category, String city) {
+        Map<String, Integer> categories = new HashMap<>();
+        Map<String, Integer> cities = new HashMap<>();
+        Map<String, Integer> ratings = new HashMap<>();
+        int total = 0;
+        for (Map<String, String> row : rows) {
+            boolean inCategory = row.get("category").equals(category);
+            boolean inCity = row.get("city").equals(city);
+            if (inCity) {
+                categories.merge(row.get("category"), 1, Integer::sum);
+            }
+            if (inCategory) {
+                cities.merge(row.get("city"), 1, Integer::sum);
+            }
+            if (inCategory && inCity) {
+                ratings.merge(row.get("rating"), 1, Integer::sum);
+                total++;
+            }
+        }
+        return total;
+    }
+}
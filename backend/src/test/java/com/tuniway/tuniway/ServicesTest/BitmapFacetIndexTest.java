@@ -0,0 +1,81 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.facet.BitmapFacetIndex;
+import com.tuniway.util.facet.BitmapFacetIndex.Filter;
+import com.tuniway.util.facet.BitmapFacetIndex.Page;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class BitmapFacetIndexTest {
+
+    private static final List<String> FIELDS = List.of("kind", "city");
+
+    private BitmapFacetIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BitmapFacetIndex<>();
+        index.put(1, "El Mouradi", Map.of("kind", "HOTEL", "city", "Sousse"));
+        index.put(2, "Boujaafar", Map.of("kind", "BEACH", "city", "Sousse"));
+        index.put(3, "Yasmine", Map.of("kind", "BEACH", "city", "Hammamet"));
+        index.put(4, "Bardo", Map.of("kind", "MUSEUM", "city", "Tunis"));
+    }
+
+    @Test
+    void query_ShouldAndFieldsAndOrValues() {
+        Page<String> page = index.query(List.of(
+                Filter.anyOf("kind", Set.of("BEACH", "HOTEL")),
+                Filter.anyOf("city", Set.of("Sousse"))), FIELDS, Comparator.naturalOrder(), 0, 10);
+
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(page.getHits()).containsExactly("Boujaafar", "El Mouradi");
+    }
+
+    @Test
+    void query_ShouldCountEachFacetWithoutItsOwnFilter() {
+        Page<String> page = index.query(List.of(Filter.anyOf("city", Set.of("Sousse"))), FIELDS, null, 0, 10);
+
+        assertThat(page.getFacets().get("kind")).containsOnly(entry("BEACH", 1), entry("HOTEL", 1));
+        assertThat(page.getFacets().get("city"))
+                .containsOnly(entry("Hammamet", 1), entry("Sousse", 2), entry("Tunis", 1));
+    }
+
+    @Test
+    void query_ShouldCheckPartialValuesOneByOne() {
+        Page<String> page = index.query(List.of(
+                Filter.anyOf("city", Set.of("Tunis"), Set.of("Sousse"), name -> name.startsWith("B"))),
+                FIELDS, Comparator.naturalOrder(), 0, 10);
+
+        assertThat(page.getHits()).containsExactly("Bardo", "Boujaafar");
+    }
+
+    @Test
+    void putAndRemove_ShouldKeepBitmapsCurrentAndReuseSlots() {
+        index.put(2, "Boujaafar", Map.of("kind", "BEACH", "city", "Monastir"));
+        index.remove(4);
+        index.put(5, "Dar Cherait", Map.of("kind", "MUSEUM", "city", "Tozeur"));
+
+        Page<String> page = index.query(List.of(), FIELDS, null, 0, 10);
+
+        assertThat(page.getTotal()).isEqualTo(4);
+        assertThat(page.getFacets().get("city")).containsOnlyKeys("Hammamet", "Monastir", "Sousse", "Tozeur");
+        assertThat(page.getFacets().get("kind")).containsEntry("MUSEUM", 1);
+        assertThat(index.get(4)).isNull();
+    }
+
+    @Test
+    void query_ShouldPageOrderedHits() {
+        Page<String> page = index.query(List.of(), FIELDS, Comparator.naturalOrder(), 1, 2);
+
+        assertThat(page.getTotal()).isEqualTo(4);
+        assertThat(page.getHits()).containsExactly("Boujaafar", "El Mouradi");
+    }
+}
@@ -0,0 +1,90 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.text.Bm25Index;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Bm25IndexTest {
+
+    @Test
+    void search_ShouldRankRareTermsAndBoostedFieldsHigher() {
+        Bm25Index<String> index = new Bm25Index<>(1.2, 0.75);
+        index.put("beach", terms("plage", 3.0, "hamamet", 1.0));
+        index.put("medina", terms("medina", 3.0, "hamamet", 1.0));
+        index.put("museum", terms("musee", 3.0, "tunis", 1.0));
+
+        Bm25Index.Page<String> page = index.search(List.of("plage", "hamamet"), null, 0, 10);
+
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(page.getHits()).extracting(Bm25Index.Hit::getKey).containsExactly("beach", "medina");
+    }
+
+    @Test
+    void search_ShouldPaginateAndFilter() {
+        Bm25Index<String> index = new Bm25Index<>(1.2, 0.75);
+        for (int i = 0; i < 5; i++) {
+            index.put("place:" + i, terms("sousse", 1.0 + i));
+        }
+        index.put("tour:1", terms("sousse", 10.0));
+
+        Bm25Index.Page<String> second = index.search(List.of("sousse"), key -> key.startsWith("place:"), 2, 2);
+
+        assertThat(second.getTotal()).isEqualTo(5);
+        assertThat(second.getHits()).extracting(Bm25Index.Hit::getKey).containsExactly("place:2", "place:1");
+    }
+
+    @Test
+    void search_ShouldBreakScoreTiesByKeySoPagesDoNotOverlap() {
+        Bm25Index<String> index = new Bm25Index<>(1.2, 0.75);
+        for (String key : List.of("place:4", "place:1", "place:3", "place:0", "place:2")) {
+            index.put(key, terms("sousse", 1.0));
+        }
+
+        List<String> paged = new ArrayList<>();
+        for (int offset = 0; offset < 5; offset += 2) {
+            index.search(List.of("sousse"), null, offset, 2).getHits().forEach(hit -> paged.add(hit.getKey()));
+        }
+
+        assertThat(paged).containsExactly("place:0", "place:1", "place:2", "place:3", "place:4");
+    }
+
+    @Test
+    void search_ShouldClampOutOfRangeOffsets() {
+        Bm25Index<String> index = new Bm25Index<>(1.2, 0.75);
+        for (int i = 0; i < 3; i++) {
+            index.put("place:" + i, terms("sousse", 1.0 + i));
+        }
+
+        assertThat(index.search(List.of("sousse"), null, -46, 2).getHits())
+                .extracting(Bm25Index.Hit::getKey).containsExactly("place:2", "place:1");
+        assertThat(index.search(List.of("sousse"), null, Integer.MAX_VALUE - 1, 50).getHits()).isEmpty();
+    }
+
+    @Test
+    void put_ShouldReplacePostingsAndRemoveShouldDropThem() {
+        Bm25Index<String> index = new Bm25Index<>(1.2, 0.75);
+        index.put("a", terms("carthage", 1.0));
+        index.put("a", terms("kairuan", 1.0));
+
+        assertThat(index.search(List.of("carthage"), null, 0, 10).getTotal()).isZero();
+        assertThat(index.search(List.of("kairuan"), null, 0, 10).getTotal()).isEqualTo(1);
+
+        index.remove("a");
+        assertThat(index.size()).isZero();
+        assertThat(index.termCount()).isZero();
+    }
+
+    private static Map<String, Double> terms(Object... pairs) {
+        Map<String, Double> terms = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            terms.put((String) pairs[i], (Double) pairs[i + 1]);
+        }
+        return terms;
+    }
+}
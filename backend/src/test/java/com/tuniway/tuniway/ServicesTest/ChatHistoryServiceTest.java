@@ -0,0 +1,102 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuniway.model.chatbot.ChatMessage;
+import com.tuniway.service.ChatHistoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatHistoryServiceTest {
+
+    @TempDir
+    Path logDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ChatHistoryService inMemory(int capacity, int maxRooms) {
+        return new ChatHistoryService(objectMapper, capacity, maxRooms, false, logDir.toString(), 1024, 4);
+    }
+
+    private ChatHistoryService persistent() throws IOException {
+        ChatHistoryService service = new ChatHistoryService(objectMapper, 10, 100, true, logDir.toString(), 1024, 4);
+        service.recover();
+        return service;
+    }
+
+    @Test
+    void append_ShouldKeepSeparateBoundedHistoryPerRoom() {
+        ChatHistoryService service = inMemory(2, 10);
+
+        service.append("public", message("a"));
+        service.append("public", message("b"));
+        service.append("public", message("c"));
+        service.append("user-7", message("private"));
+
+        assertThat(service.getHistory("public")).extracting(ChatMessage::getContent).containsExactly("b", "c");
+        assertThat(service.getHistory("user-7")).extracting(ChatMessage::getContent).containsExactly("private");
+        assertThat(service.getHistory("unknown")).isEmpty();
+    }
+
+    @Test
+    void append_WhenRoomLimitReached_ShouldRejectNewRooms() {
+        ChatHistoryService service = inMemory(2, 1);
+        service.append("public", message("a"));
+
+        assertThatThrownBy(() -> service.append("other", message("b"))).isInstanceOf(IllegalStateException.class);
+        service.append("public", message("c"));
+    }
+
+    @Test
+    void recover_ShouldReplaySegmentLog() throws IOException {
+        ChatHistoryService first = persistent();
+        for (int i = 0; i < 30; i++) {
+            first.append("public", message("m" + i));
+        }
+        first.append("cleared", message("gone"));
+        first.clear("cleared");
+        first.close();
+
+        ChatHistoryService second = persistent();
+
+        assertThat(second.getHistory("public")).hasSize(10);
+        assertThat(second.getHistory("public").get(9).getContent()).isEqualTo("m29");
+        assertThat(second.getHistory("cleared")).isEmpty();
+        second.close();
+    }
+
+    @Test
+    void recover_ShouldSkipTruncatedRecord() throws IOException {
+        ChatHistoryService first = persistent();
+        first.append("public", message("kept"));
+        first.close();
+        try (var files = Files.list(logDir)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.write(segment, "{\"room\":\"public\",\"mess".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+
+        ChatHistoryService second = persistent();
+
+        assertThat(second.getHistory("public")).extracting(ChatMessage::getContent).containsExactly("kept");
+        second.close();
+    }
+
+    @Test
+    void isValidRoom_ShouldRejectPathLikeNames() {
+        assertThat(ChatHistoryService.isValidRoom("user-42")).isTrue();
+        assertThat(ChatHistoryService.isValidRoom("../etc")).isFalse();
+        assertThat(ChatHistoryService.isValidRoom("")).isFalse();
+    }
+
+    private ChatMessage message(String content) {
+        return new ChatMessage(ChatMessage.MessageType.CHAT, content, "tester");
+    }
+}
@@ -0,0 +1,163 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tuniway.service.ChatbotService;
+import com.tuniway.service.ChatbotService.ChatbotResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency/throughput comparison of batched and unbatched chatbot calls
+ * against a stub that, like the Flask service, runs one forward pass at a
+ * time. Run with: mvn test -Dtest=ChatbotBatchingBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ChatbotBatchingBenchmarkTest {
+
+    // Simulated cost of one forward pass and of each extra row in a batch
+    private static final long PASS_MICROS = 2_000;
+    private static final long ROW_MICROS = 50;
+
+    private static final int CALLERS = 64;
+    private static final int MESSAGES_PER_CALLER = 20;
+
+    private HttpServer flask;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        flask = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        flask.setExecutor(Executors.newSingleThreadExecutor());
+        flask.createContext("/chat", exchange -> {
+            busyWait(PASS_MICROS + ROW_MICROS);
+            reply(exchange, "{\"response\": \"ok\"}");
+        });
+        flask.createContext("/chat/batch", exchange -> {
+            int count = objectMapper.readTree(exchange.getRequestBody()).path("messages").size();
+            busyWait(PASS_MICROS + ROW_MICROS * count);
+            StringBuilder json = new StringBuilder("{\"responses\": [");
+            for (int i = 0; i < count; i++) {
+                json.append(i == 0 ? "" : ",").append("{\"response\": \"ok\"}");
+            }
+            reply(exchange, json.append("]}").toString());
+        });
+        flask.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        flask.stop(0);
+    }
+
+    @Test
+    void compareBatchedAndUnbatched() throws Exception {
+        Result unbatched = run(false);
+        Result batched = run(true);
+
+        System.out.printf("%-10s %10s %10s %10s%n", "mode", "msg/s", "p50 ms", "p99 ms");
+        System.out.printf("%-10s %10.0f %10.2f %10.2f%n", "unbatched", unbatched.throughput, unbatched.p50, unbatched.p99);
+        System.out.printf("%-10s %10.0f %10.2f %10.2f%n", "batched", batched.throughput, batched.p50, batched.p99);
+
+        assertThat(batched.throughput).isGreaterThan(unbatched.throughput);
+    }
+
+    private Result run(boolean batching) throws Exception {
+        ChatbotService chatbotService = new ChatbotService();
+        ReflectionTestUtils.setField(chatbotService, "flaskServerUrl", "http://127.0.0.1:" + flask.getAddress().getPort());
+        ReflectionTestUtils.setField(chatbotService, "chatEndpoint", "/chat");
+        ReflectionTestUtils.setField(chatbotService, "timeout", 30_000);
+        ReflectionTestUtils.setField(chatbotService, "connectTimeout", 5_000);
+        ReflectionTestUtils.setField(chatbotService, "clientThreads", 8);
+        ReflectionTestUtils.setField(chatbotService, "circuitWindowSize", 20);
+        ReflectionTestUtils.setField(chatbotService, "circuitMinimumCalls", 20);
+        ReflectionTestUtils.setField(chatbotService, "circuitFailureRateThreshold", 100.0);
+        ReflectionTestUtils.setField(chatbotService, "circuitOpenDurationMs", 1_000L);
+        ReflectionTestUtils.setField(chatbotService, "circuitHalfOpenPermits", 1);
+        ReflectionTestUtils.setField(chatbotService, "cacheEnabled", false);
+        ReflectionTestUtils.setField(chatbotService, "batchEnabled", batching);
+        ReflectionTestUtils.setField(chatbotService, "batchEndpoint", "/chat/batch");
+        ReflectionTestUtils.setField(chatbotService, "batchWindowMs", 5L);
+        ReflectionTestUtils.setField(chatbotService, "batchMaxSize", 32);
+        chatbotService.init();
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        try {
+            long startedAt = System.nanoTime();
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int caller = 0; caller < CALLERS; caller++) {
+                int id = caller;
+                tasks.add(callers.submit(() -> {
+                    for (int i = 0; i < MESSAGES_PER_CALLER; i++) {
+                        long sentAt = System.nanoTime();
+                        CompletableFuture<ChatbotResponse> reply = chatbotService.sendMessageToBotAsync("question " + id + " " + i);
+                        assertThat(reply.join().isSuccess()).isTrue();
+                        latencies.add(System.nanoTime() - sentAt);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return new Result(sorted.size() / seconds, percentileMs(sorted, 0.50), percentileMs(sorted, 0.99));
+        } finally {
+            callers.shutdownNow();
+            chatbotService.shutdown();
+        }
+    }
+
+    private static double percentileMs(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+
+    private static void busyWait(long micros) {
+        long until = System.nanoTime() + micros * 1_000;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void reply(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static final class Result {
+        private final double throughput;
+        private final double p50;
+        private final double p99;
+
+        private Result(double throughput, double p50, double p99) {
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p99 = p99;
+        }
+    }
+}
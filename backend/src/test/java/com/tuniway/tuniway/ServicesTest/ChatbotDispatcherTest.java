@@ -0,0 +1,91 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.service.ChatbotDispatcher;
+import com.tuniway.service.ChatbotService;
+import com.tuniway.service.ChatbotService.ChatbotResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatbotDispatcherTest {
+
+    @Mock
+    private ChatbotService chatbotService;
+
+    private ChatbotDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new ChatbotDispatcher(chatbotService, 1, 1, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_ShouldDeliverBotReply() throws InterruptedException {
+        when(chatbotService.sendMessageToBot("hello"))
+                .thenReturn(ChatbotResponse.builder().success(true).message("Hi!").build());
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<ChatbotResponse> reply = new AtomicReference<>();
+
+        boolean accepted = dispatcher.dispatch("hello", response -> {
+            reply.set(response);
+            done.countDown();
+        });
+
+        assertThat(accepted).isTrue();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(reply.get().getMessage()).isEqualTo("Hi!");
+    }
+
+    @Test
+    void dispatch_WhenPoolAndQueueFull_ShouldReject() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatbotService.sendMessageToBot(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ChatbotResponse.builder().success(true).message("ok").build();
+        });
+
+        assertThat(dispatcher.dispatch("first", response -> { })).isTrue();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(dispatcher.dispatch("second", response -> { })).isTrue();   // queued
+        assertThat(dispatcher.dispatch("third", response -> { })).isFalse();   // rejected
+
+        assertThat(dispatcher.snapshot())
+                .containsEntry("inFlight", 1)
+                .containsEntry("queueDepth", 1)
+                .containsEntry("rejected", 1L);
+        release.countDown();
+    }
+
+    @Test
+    void shutdown_ShouldDrainQueuedWork() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        when(chatbotService.sendMessageToBot(anyString()))
+                .thenReturn(ChatbotResponse.builder().success(true).message("ok").build());
+
+        dispatcher.dispatch("a", response -> done.countDown());
+        dispatcher.dispatch("b", response -> done.countDown());
+        dispatcher.shutdown();
+
+        assertThat(done.await(0, TimeUnit.SECONDS)).isTrue();
+        assertThat(dispatcher.dispatch("c", response -> { })).isFalse();
+    }
+}
@@ -0,0 +1,187 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.tuniway.service.ChatbotService;
+import com.tuniway.service.ChatbotService.ChatbotResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatbotServiceTest {
+
+    private HttpServer flask;
+    private final AtomicInteger chatCalls = new AtomicInteger();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private ChatbotService chatbotService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Minimal stand-in for the Flask chatbot
+        flask = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        flask.createContext("/chat", exchange -> {
+            chatCalls.incrementAndGet();
+            byte[] body = "{\"response\": \"Hello from Flask\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        flask.createContext("/chat/batch", exchange -> {
+            // Echo one reply per message, in order
+            int count = new ObjectMapper().readTree(exchange.getRequestBody()).path("messages").size();
+            StringBuilder json = new StringBuilder("{\"responses\": [");
+            for (int i = 0; i < count; i++) {
+                json.append(i == 0 ? "" : ",").append("{\"response\": \"reply ").append(i).append("\"}");
+            }
+            byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+            batchCalls.incrementAndGet();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        flask.createContext("/broken", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        flask.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        flask.createContext("/health", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        flask.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatbotService.shutdown();
+        flask.stop(0);
+    }
+
+    private void start(String endpoint, int timeoutMs) {
+        start(endpoint, timeoutMs, false);
+    }
+
+    private void start(String endpoint, int timeoutMs, boolean batching) {
+        chatbotService = new ChatbotService();
+        ReflectionTestUtils.setField(chatbotService, "batchEnabled", batching);
+        ReflectionTestUtils.setField(chatbotService, "batchEndpoint", "/chat/batch");
+        ReflectionTestUtils.setField(chatbotService, "batchWindowMs", 50L);
+        ReflectionTestUtils.setField(chatbotService, "batchMaxSize", 3);
+        ReflectionTestUtils.setField(chatbotService, "flaskServerUrl", "http://127.0.0.1:" + flask.getAddress().getPort());
+        ReflectionTestUtils.setField(chatbotService, "chatEndpoint", endpoint);
+        ReflectionTestUtils.setField(chatbotService, "timeout", timeoutMs);
+        ReflectionTestUtils.setField(chatbotService, "connectTimeout", 1000);
+        ReflectionTestUtils.setField(chatbotService, "clientThreads", 2);
+        ReflectionTestUtils.setField(chatbotService, "circuitWindowSize", 2);
+        ReflectionTestUtils.setField(chatbotService, "circuitMinimumCalls", 2);
+        ReflectionTestUtils.setField(chatbotService, "circuitFailureRateThreshold", 100.0);
+        ReflectionTestUtils.setField(chatbotService, "circuitOpenDurationMs", 60_000L);
+        ReflectionTestUtils.setField(chatbotService, "circuitHalfOpenPermits", 1);
+        ReflectionTestUtils.setField(chatbotService, "cacheEnabled", true);
+        ReflectionTestUtils.setField(chatbotService, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(chatbotService, "cacheTtlMs", 60_000L);
+        chatbotService.init();
+    }
+
+    @Test
+    void sendMessageToBotAsync_ShouldParseReply() {
+        start("/chat", 2000);
+
+        ChatbotResponse response = chatbotService.sendMessageToBotAsync("hello").join();
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getMessage()).isEqualTo("Hello from Flask");
+        assertThat(chatbotService.getClientStats()).containsEntry("successes", 1L);
+    }
+
+    @Test
+    void sendMessageToBot_SameQuestionDifferentWording_ShouldHitCache() {
+        start("/chat", 2000);
+
+        chatbotService.sendMessageToBot("Best beaches in Hammamet?");
+        ChatbotResponse response = chatbotService.sendMessageToBot("the BEST beaches in hammamet");
+
+        assertThat(response.getMessage()).isEqualTo("Hello from Flask");
+        assertThat(response.getOriginalMessage()).isEqualTo("the BEST beaches in hammamet");
+        assertThat(chatCalls.get()).isEqualTo(1);
+        assertThat(chatbotService.getAnswerCacheStats()).containsEntry("hits", 1L);
+    }
+
+    @Test
+    void sendMessageToBotAsync_WithBatching_ShouldDemultiplexReplies() {
+        start("/chat", 2000, true);
+
+        CompletableFuture<ChatbotResponse> first = chatbotService.sendMessageToBotAsync("hello");
+        CompletableFuture<ChatbotResponse> second = chatbotService.sendMessageToBotAsync("beaches");
+        CompletableFuture<ChatbotResponse> third = chatbotService.sendMessageToBotAsync("museums");
+
+        assertThat(first.join().getMessage()).isEqualTo("reply 0");
+        assertThat(second.join().getMessage()).isEqualTo("reply 1");
+        assertThat(third.join().getMessage()).isEqualTo("reply 2");
+        assertThat(batchCalls.get()).isEqualTo(1);
+        assertThat(chatCalls.get()).isZero();
+    }
+
+    @Test
+    void sendMessageToBot_OnServerError_ShouldReturnFailure() {
+        start("/broken", 2000);
+
+        ChatbotResponse response = chatbotService.sendMessageToBot("hello");
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.getError()).isEqualTo("HTTP 500");
+    }
+
+    @Test
+    void sendMessageToBot_WhenSlow_ShouldTimeOut() {
+        start("/slow", 200);
+
+        ChatbotResponse response = chatbotService.sendMessageToBot("hello");
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.getError()).isEqualTo("Connection timeout or server unreachable");
+        Map<String, Object> stats = chatbotService.getClientStats();
+        assertThat(stats).containsEntry("timeouts", 1L).containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void sendMessageToBot_AfterRepeatedFailures_ShouldFastFail() {
+        start("/broken", 2000);
+        chatbotService.sendMessageToBot("one");
+        chatbotService.sendMessageToBot("two");
+
+        ChatbotResponse response = chatbotService.sendMessageToBot("three");
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.getError()).isEqualTo("Circuit breaker open");
+        assertThat(chatbotService.getClientStats()).containsEntry("requests", 2L);
+    }
+
+    @Test
+    void isFlaskServerAlive_ShouldUseHealthEndpoint() {
+        start("/chat", 2000);
+
+        assertThat(chatbotService.isFlaskServerAlive()).isTrue();
+    }
+}
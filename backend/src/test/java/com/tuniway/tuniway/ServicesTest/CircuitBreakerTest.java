@@ -0,0 +1,88 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.resilience.CircuitBreaker;
+import com.tuniway.util.resilience.CircuitBreaker.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        // window of 4 calls, open at 50% failures, 1s open period, 1 trial call
+        breaker = new CircuitBreaker("test", 4, 4, 50, 1000, 1, now::get);
+    }
+
+    @Test
+    void shouldStayClosedUntilMinimumCalls() {
+        fail(3);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void shouldOpenWhenFailureRateReached() {
+        succeed(2);
+        fail(2);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.snapshot()).containsEntry("notPermittedCalls", 1L);
+    }
+
+    @Test
+    void shouldSlideWindow() {
+        fail(1);
+        succeed(3);
+        succeed(1); // the failure drops out of the window
+
+        assertThat(breaker.snapshot()).containsEntry("failedCalls", 0);
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulTrialCall() {
+        fail(4);
+        now.addAndGet(1000);
+
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse(); // only one trial call
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldReopenWhenTrialCallFails() {
+        fail(4);
+        now.addAndGet(1000);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.snapshot()).containsEntry("timesOpened", 2L);
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    private void succeed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.onSuccess();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.geo.ClusterPyramid;
+import com.tuniway.util.geo.ClusterPyramid.Cluster;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cluster count and latency for a 1920x1080 viewport at several zoom levels,
+ * for two catalogue sizes. Run with:
+ * mvn test -Dtest=ClusterPyramidBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ClusterPyramidBenchmarkTest {
+
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void viewportQueriesStayBoundedAsCatalogueGrows() {
+        System.out.printf("%-10s %6s %10s %10s %10s%n", "places", "zoom", "clusters", "p50 us", "p99 us");
+        for (int places : new int[]{10_000, 500_000}) {
+            ClusterPyramid pyramid = new ClusterPyramid(14, 4, 8);
+            Random random = new Random(11);
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < places; i++) {
+                pyramid.put(i, 30.2 + random.nextDouble() * 7.4, 7.5 + random.nextDouble() * 4.1, i % 8);
+            }
+            System.out.printf("loaded %d places in %d ms%n", places, (System.nanoTime() - startedAt) / 1_000_000);
+
+            for (int zoom : new int[]{6, 9, 12, 14}) {
+                // 1920x1080 px viewport around Tunis at this zoom
+                double lonSpan = 1920.0 / (256 << zoom) * 360;
+                double latSpan = lonSpan * 1080 / 1920 * Math.cos(Math.toRadians(36.8));
+                long[] nanos = new long[QUERIES];
+                int clusters = 0;
+                for (int q = 0; q < QUERIES; q++) {
+                    long queryStart = System.nanoTime();
+                    List<Cluster> result = pyramid.clusters(36.8 - latSpan / 2, 10.18 - lonSpan / 2,
+                            36.8 + latSpan / 2, 10.18 + lonSpan / 2, zoom, 4096);
+                    nanos[q] = System.nanoTime() - queryStart;
+                    clusters = result.size();
+                }
+                Arrays.sort(nanos);
+                System.out.printf("%-10d %6d %10d %10.1f %10.1f%n", places, zoom, clusters,
+                        nanos[QUERIES / 2] / 1e3, nanos[QUERIES * 99 / 100] / 1e3);
+                assertThat(clusters).isLessThanOrEqualTo(31 * 18);
+            }
+        }
+    }
+}
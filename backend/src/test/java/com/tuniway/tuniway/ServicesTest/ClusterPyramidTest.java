@@ -0,0 +1,83 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.geo.ClusterPyramid;
+import com.tuniway.util.geo.ClusterPyramid.Cluster;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class ClusterPyramidTest {
+
+    // Tunisia's bounding box
+    private static final double SOUTH = 30.2, WEST = 7.5, NORTH = 37.6, EAST = 11.6;
+
+    @Test
+    void clusters_AtLowZoom_ShouldMergeNearbyPlacesWithCentroidAndCategories() {
+        ClusterPyramid pyramid = new ClusterPyramid(14, 4, 3);
+        pyramid.put(1, 36.85, 10.32, 0);
+        pyramid.put(2, 36.87, 10.34, 0);
+        pyramid.put(3, 36.81, 10.18, 2);
+
+        List<Cluster> clusters = pyramid.clusters(SOUTH, WEST, NORTH, EAST, 5, 4096);
+
+        assertThat(clusters).hasSize(1);
+        Cluster cluster = clusters.get(0);
+        assertThat(cluster.getCount()).isEqualTo(3);
+        assertThat(cluster.getLatitude()).isCloseTo(36.81 / 3 + 36.85 / 3 + 36.87 / 3, offset(1e-9));
+        assertThat(cluster.getCategoryCounts()).containsExactly(2, 0, 1);
+        assertThat(cluster.getPointId()).isNull();
+    }
+
+    @Test
+    void clusters_AtHighZoom_ShouldSplitPlacesAndExposeSingleIds() {
+        ClusterPyramid pyramid = new ClusterPyramid(14, 4, 3);
+        pyramid.put(1, 36.85, 10.32, 0);
+        pyramid.put(2, 36.87, 10.34, 0);
+
+        List<Cluster> clusters = pyramid.clusters(36.8, 10.3, 36.9, 10.4, 14, 4096);
+
+        assertThat(clusters).extracting(Cluster::getPointId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void putAndRemove_ShouldUpdateEveryLevelIncrementally() {
+        ClusterPyramid pyramid = new ClusterPyramid(10, 4, 3);
+        pyramid.put(1, 36.85, 10.32, 0);
+        pyramid.put(2, 35.83, 10.64, 1);
+
+        pyramid.put(2, 36.86, 10.33, 1);
+        assertThat(pyramid.clusters(SOUTH, WEST, NORTH, EAST, 3, 4096))
+                .singleElement().extracting(Cluster::getCount).isEqualTo(2);
+
+        pyramid.remove(1);
+        Cluster remaining = pyramid.clusters(SOUTH, WEST, NORTH, EAST, 3, 4096).get(0);
+        assertThat(remaining.getPointId()).isEqualTo(2L);
+        assertThat(remaining.getCategoryCounts()).containsExactly(0, 1, 0);
+
+        pyramid.remove(2);
+        assertThat(pyramid.cellsPerLevel().values()).containsOnly(0);
+    }
+
+    @Test
+    void clusters_ShouldOnlyReturnCellsInsideViewport() {
+        ClusterPyramid pyramid = new ClusterPyramid(14, 4, 3);
+        pyramid.put(1, 36.85, 10.32, 0);
+        pyramid.put(2, 33.88, 10.86, 0);
+
+        List<Cluster> clusters = pyramid.clusters(36.5, 10.0, 37.0, 10.5, 10, 4096);
+
+        assertThat(clusters).extracting(Cluster::getPointId).containsExactly(1L);
+    }
+
+    @Test
+    void clusters_ShouldRejectViewportTooLargeForZoom() {
+        ClusterPyramid pyramid = new ClusterPyramid(14, 4, 3);
+
+        assertThatThrownBy(() -> pyramid.clusters(SOUTH, WEST, NORTH, EAST, 14, 4096))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.cache.CoalescingCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CoalescingCache<String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CoalescingCache<>(2, 1000, now::get);
+    }
+
+    @Test
+    void getOrCompute_ShouldCacheCompletedValue() {
+        cache.getOrCompute("a", () -> load("A"), value -> true).join();
+
+        assertThat(cache.getOrCompute("a", () -> load("other"), value -> true).join()).isEqualTo("A");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.snapshot()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void getOrCompute_ShouldShareInFlightComputation() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = cache.getOrCompute("a", () -> pending, value -> true);
+        CompletableFuture<String> second = cache.getOrCompute("a", () -> load("other"), value -> true);
+
+        pending.complete("A");
+
+        assertThat(first.join()).isEqualTo("A");
+        assertThat(second.join()).isEqualTo("A");
+        assertThat(loads.get()).isZero();
+        assertThat(cache.snapshot()).containsEntry("coalesced", 1L).containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void getOrCompute_ShouldNotCacheRejectedValues() {
+        cache.getOrCompute("a", () -> load("error"), value -> !value.equals("error")).join();
+        cache.getOrCompute("a", () -> load("error"), value -> !value.equals("error")).join();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void getOrCompute_ShouldExpireAndEvict() {
+        cache.getOrCompute("a", () -> load("A"), value -> true).join();
+        now.addAndGet(1000);
+        cache.getOrCompute("a", () -> load("A2"), value -> true).join();
+        cache.getOrCompute("b", () -> load("B"), value -> true).join();
+        cache.getOrCompute("c", () -> load("C"), value -> true).join();
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.snapshot()).containsEntry("expirations", 1L).containsEntry("evictions", 1L);
+    }
+
+    private CompletableFuture<String> load(String value) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(value);
+    }
+}
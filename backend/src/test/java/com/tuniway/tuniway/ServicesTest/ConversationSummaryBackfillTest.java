@@ -0,0 +1,76 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.config.ConversationSummaryBackfill;
+import com.tuniway.repository.ConversationSummaryRepository;
+import com.tuniway.service.MessageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationSummaryBackfillTest {
+
+    @Mock
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Mock
+    private MessageService messageService;
+
+    @InjectMocks
+    private ConversationSummaryBackfill backfill;
+
+    @Test
+    void run_ShouldRebuildOnlyUsersMissingSummariesAndSurviveFailures() {
+        when(conversationSummaryRepository.findOwnerIdsMissingSummaries()).thenReturn(List.of(1L, 2L, 3L));
+        when(messageService.rebuildConversationSummaries(anyLong())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0, Long.class) == 2L) {
+                throw new IllegalStateException("lock wait timeout");
+            }
+            return 1;
+        });
+
+        backfill.run(null);
+
+        verify(messageService).rebuildConversationSummaries(1L);
+        verify(messageService).rebuildConversationSummaries(3L);
+    }
+
+    @Test
+    void run_WithEveryConversationSummarized_ShouldDoNothing() {
+        when(conversationSummaryRepository.findOwnerIdsMissingSummaries()).thenReturn(List.of());
+
+        backfill.run(null);
+
+        verifyNoInteractions(messageService);
+    }
+
+    @Test
+    void findOwnerIdsMissingSummaries_ShouldFindPartlyBackfilledOwners() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        MessageBatchWriterTest.createSchema(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO Message (sender_id, receiver_id, content, isRead) VALUES " +
+                "(1, 2, 'a', false), (1, 3, 'b', false), (4, 1, 'c', false)");
+        // A live send created 1<->2 before the backfill ran; 1's other conversations and 3, 4 have nothing
+        jdbcTemplate.update("INSERT INTO ConversationSummary (ownerId, peerId, unreadCount) VALUES (1, 2, 0), (2, 1, 1)");
+
+        String sql = ConversationSummaryRepository.class.getMethod("findOwnerIdsMissingSummaries")
+                .getAnnotation(Query.class).value();
+
+        assertThat(jdbcTemplate.queryForList(sql, Long.class)).containsExactly(1L, 3L, 4L);
+    }
+}
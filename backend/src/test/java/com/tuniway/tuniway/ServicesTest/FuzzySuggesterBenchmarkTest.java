@@ -0,0 +1,93 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.text.FuzzySuggester;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-keystroke latency of the suggester over 100k generated place names,
+ * replaying every prefix of names typed with and without a typo. Run with:
+ * mvn test -Dtest=FuzzySuggesterBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class FuzzySuggesterBenchmarkTest {
+
+    private static final String[] SYLLABLES = {
+            "ha", "ma", "met", "sou", "sse", "ka", "ir", "ouan", "dj", "er", "ba", "ta", "bar", "to", "zeur",
+            "mo", "na", "stir", "ga", "bes", "si", "di", "bou", "said", "el", "jem", "ke", "li", "bia", "nef"
+    };
+    private static final String[] KINDS = {"Beach", "Medina", "Museum", "Hotel", "Souk", "Mosque", "Park", "Cafe"};
+
+    @Test
+    void keystrokeLatencyAtOneHundredThousandNames() {
+        FuzzySuggester suggester = new FuzzySuggester(10, 48, 2);
+        Random random = new Random(3);
+        List<String> names = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            String name = word(random) + " " + word(random) + " " + KINDS[random.nextInt(KINDS.length)];
+            names.add(name);
+            suggester.put("place:" + i, name, random.nextInt(500));
+        }
+        System.out.printf("indexed %d names in %d ms%n", names.size(), (System.nanoTime() - startedAt) / 1_000_000);
+
+        List<Long> exact = new ArrayList<>();
+        List<Long> typo = new ArrayList<>();
+        for (int n = 0; n < 3_000; n++) {
+            String name = names.get(random.nextInt(names.size())).toLowerCase();
+            String misspelled = swapTwo(name, random);
+            for (int length = 1; length <= name.length(); length++) {
+                exact.add(time(suggester, name.substring(0, length)));
+                typo.add(time(suggester, misspelled.substring(0, length)));
+            }
+        }
+
+        long[] exactNanos = sorted(exact);
+        long[] typoNanos = sorted(typo);
+        System.out.printf("%-10s %10s %10s %10s%n", "input", "p50 us", "p99 us", "max us");
+        System.out.printf("%-10s %10.1f %10.1f %10.1f%n", "exact", pct(exactNanos, 0.5), pct(exactNanos, 0.99), pct(exactNanos, 1));
+        System.out.printf("%-10s %10.1f %10.1f %10.1f%n", "typo", pct(typoNanos, 0.5), pct(typoNanos, 0.99), pct(typoNanos, 1));
+        assertThat(pct(exactNanos, 0.99)).isLessThan(1_000);
+    }
+
+    private static long time(FuzzySuggester suggester, String input) {
+        long startedAt = System.nanoTime();
+        suggester.suggest(input, 8);
+        return System.nanoTime() - startedAt;
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String swapTwo(String text, Random random) {
+        int i = 1 + random.nextInt(Math.max(1, text.length() - 2));
+        char[] chars = text.toCharArray();
+        char c = chars[i];
+        chars[i] = chars[i - 1];
+        chars[i - 1] = c;
+        return new String(chars);
+    }
+
+    private static long[] sorted(List<Long> values) {
+        long[] array = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static double pct(long[] sorted, double percentile) {
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)] / 1e3;
+    }
+}
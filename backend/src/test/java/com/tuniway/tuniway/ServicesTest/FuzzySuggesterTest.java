@@ -0,0 +1,78 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.text.FuzzySuggester;
+import com.tuniway.util.text.FuzzySuggester.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzySuggesterTest {
+
+    private FuzzySuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new FuzzySuggester(10, 48, 2);
+        suggester.put("hammamet", "Hammamet", 50);
+        suggester.put("yasmine", "Yasmine Hammamet Beach", 20);
+        suggester.put("sidi", "Sidi Bou Saïd", 40);
+        suggester.put("sousse", "Sousse", 30);
+        suggester.put("souk", "Souk El Attarine", 5);
+    }
+
+    @Test
+    void suggest_ShouldCompletePrefixesByWeight() {
+        assertThat(suggester.suggest("ham", 5)).extracting(Suggestion::getId)
+                .containsExactly("hammamet", "yasmine");
+        assertThat(suggester.suggest("sou", 5)).extracting(Suggestion::getId)
+                .containsExactly("sousse", "souk");
+    }
+
+    @Test
+    void suggest_ShouldTolerateTyposAndSpellingVariants() {
+        assertThat(suggester.suggest("hamamet", 5)).extracting(Suggestion::getId).contains("hammamet");
+        assertThat(suggester.suggest("hmamamet", 5)).extracting(Suggestion::getId).contains("hammamet");
+        assertThat(suggester.suggest("souse", 5)).extracting(Suggestion::getId).first().isEqualTo("sousse");
+        assertThat(suggester.suggest("sidi bu said", 5)).extracting(Suggestion::getId).containsExactly("sidi");
+        assertThat(suggester.suggest("bousaid", 5)).extracting(Suggestion::getId).containsExactly("sidi");
+    }
+
+    @Test
+    void suggest_ShouldRankExactPrefixBeforeTypoMatches() {
+        suggester.put("hammam-lif", "Hammam Lif", 1);
+
+        Suggestion first = suggester.suggest("hammam l", 5).get(0);
+
+        assertThat(first.getId()).isEqualTo("hammam-lif");
+        assertThat(first.getEdits()).isZero();
+    }
+
+    @Test
+    void suggest_ShortInput_ShouldOnlyMatchExactly() {
+        assertThat(suggester.suggest("xo", 5)).isEmpty();
+        assertThat(suggester.suggest("", 5)).isEmpty();
+    }
+
+    @Test
+    void putAndRemove_ShouldUpdateRankingIncrementally() {
+        suggester.put("souk", "Souk El Attarine", 100);
+        assertThat(suggester.suggest("sou", 5)).extracting(Suggestion::getId).containsExactly("souk", "sousse");
+
+        suggester.remove("souk");
+        assertThat(suggester.suggest("sou", 5)).extracting(Suggestion::getId).containsExactly("sousse");
+        assertThat(suggester.size()).isEqualTo(4);
+    }
+
+    @Test
+    void remove_ShouldRefillNodeListsFromOtherEntries() {
+        FuzzySuggester small = new FuzzySuggester(2, 48, 2);
+        small.put("a", "Tabarka", 30);
+        small.put("b", "Tataouine", 20);
+        small.put("c", "Tozeur", 10);
+
+        small.remove("a");
+
+        assertThat(small.suggest("t", 2)).extracting(Suggestion::getId).containsExactly("b", "c");
+    }
+}
@@ -0,0 +1,119 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.geo.GeoGrid;
+import com.tuniway.util.geo.GeoGrid.Hit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeoGridTest {
+
+    @Test
+    void nearest_ShouldReturnPlacesWithinRadiusNearestFirst() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        grid.put(1, 36.8525, 10.3233, "Carthage");
+        grid.put(2, 36.8708, 10.3417, "Sidi Bou Said");
+        grid.put(3, 36.8065, 10.1815, "Tunis");
+        grid.put(4, 35.8256, 10.6369, "Sousse");
+
+        List<Hit<String>> hits = grid.nearest(36.8525, 10.3233, 20_000, 10, null);
+
+        assertThat(hits).extracting(Hit::getValue).containsExactly("Carthage", "Sidi Bou Said", "Tunis");
+        assertThat(hits.get(0).getDistanceMeters()).isZero();
+        assertThat(hits.get(1).getDistanceMeters()).isBetween(2_000.0, 3_000.0);
+    }
+
+    @Test
+    void nearest_ShouldApplyFilterAndLimit() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        grid.put(1, 36.80, 10.18, "beach-1");
+        grid.put(2, 36.81, 10.18, "museum");
+        grid.put(3, 36.82, 10.18, "beach-2");
+        grid.put(4, 36.83, 10.18, "beach-3");
+
+        List<Hit<String>> hits = grid.nearest(36.80, 10.18, 50_000, 2, value -> value.startsWith("beach"));
+
+        assertThat(hits).extracting(Hit::getValue).containsExactly("beach-1", "beach-2");
+    }
+
+    @Test
+    void put_ShouldMoveExistingEntryAndRemoveShouldDropIt() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        grid.put(1, 36.8, 10.1, "place");
+        grid.put(1, 35.8, 10.6, "place");
+
+        assertThat(grid.size()).isEqualTo(1);
+        assertThat(grid.nearest(36.8, 10.1, 1_000, 10, null)).isEmpty();
+        assertThat(grid.nearest(35.8, 10.6, 1_000, 10, null)).hasSize(1);
+
+        assertThat(grid.remove(1)).isTrue();
+        assertThat(grid.size()).isZero();
+        assertThat(grid.cellCount()).isZero();
+    }
+
+    @Test
+    void within_ShouldReturnOnlyPointsInsideBox() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        grid.put(1, 36.85, 10.32, "inside");
+        grid.put(2, 36.95, 10.32, "north of box");
+        grid.put(3, 36.85, 10.50, "east of box");
+
+        List<Hit<String>> hits = grid.within(36.80, 10.20, 36.90, 10.40, 10, null);
+
+        assertThat(hits).extracting(Hit::getValue).containsExactly("inside");
+    }
+
+    @Test
+    void within_ShouldHandleBoxCrossingAntimeridian() {
+        GeoGrid<String> grid = new GeoGrid<>(0.5);
+        grid.put(1, 0, 179.5, "west side");
+        grid.put(2, 0, -179.5, "east side");
+        grid.put(3, 0, 0, "far away");
+
+        List<Hit<String>> hits = grid.within(-1, 179, 1, -179, 10, null);
+
+        assertThat(hits).extracting(Hit::getValue).containsExactlyInAnyOrder("west side", "east side");
+    }
+
+    @Test
+    void nearest_ShouldMatchBruteForceOnRandomPoints() {
+        GeoGrid<Integer> grid = new GeoGrid<>(0.05);
+        Random random = new Random(42);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            double lat = 33 + random.nextDouble() * 4;
+            double lon = 8 + random.nextDouble() * 3;
+            points.add(new double[]{lat, lon});
+            grid.put(i, lat, lon, i);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double lat = 33 + random.nextDouble() * 4;
+            double lon = 8 + random.nextDouble() * 3;
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < points.size(); i++) {
+                if (GeoGrid.distanceMeters(lat, lon, points.get(i)[0], points.get(i)[1]) <= 30_000) {
+                    expected.add(i);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(i -> GeoGrid.distanceMeters(lat, lon, points.get(i)[0], points.get(i)[1])));
+            List<Integer> top = expected.subList(0, Math.min(10, expected.size()));
+
+            assertThat(grid.nearest(lat, lon, 30_000, 10, null)).extracting(Hit::getValue).containsExactlyElementsOf(top);
+        }
+    }
+
+    @Test
+    void nearest_ShouldRejectInvalidCoordinates() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+
+        assertThatThrownBy(() -> grid.nearest(91, 0, 1_000, 10, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,75 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.jwt.JwtClaims;
+import com.tuniway.jwt.JwtUtils;
+import com.tuniway.model.Guide;
+import com.tuniway.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+
+    private JwtUtils jwtUtils;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret",
+                Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", 16);
+        jwtUtils.init();
+
+        testUser = new Guide();
+        testUser.setUsername("leoguide");
+    }
+
+    @Test
+    void verifyJwtToken_ShouldReturnTypedClaims() {
+        String token = jwtUtils.generateJwtTokenForUser(testUser);
+
+        Optional<JwtClaims> claims = jwtUtils.verifyJwtToken(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("leoguide");
+        assertThat(claims.get().getRoles()).containsExactly("GUIDE");
+        assertThat(claims.get().getExpiration()).isNotNull();
+    }
+
+    @Test
+    void verifyJwtToken_ShouldServeRepeatedTokensFromCache() {
+        String token = jwtUtils.generateJwtTokenForUser(testUser);
+
+        jwtUtils.verifyJwtToken(token);
+        jwtUtils.verifyJwtToken(token);
+
+        assertThat(jwtUtils.getVerifiedCacheStats().get("hits")).isEqualTo(1L);
+        assertThat(jwtUtils.getVerifiedCacheStats().get("misses")).isEqualTo(1L);
+    }
+
+    @Test
+    void verifyJwtToken_ShouldRejectTamperedPayload() {
+        String token = jwtUtils.generateJwtTokenForUser(testUser);
+        jwtUtils.verifyJwtToken(token);
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\",\"roles\":\"ADMIN\"}".getBytes());
+        String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThat(jwtUtils.verifyJwtToken(forged)).isEmpty();
+    }
+
+    @Test
+    void verifyJwtToken_ShouldRejectGarbage() {
+        assertThat(jwtUtils.verifyJwtToken("not-a-token")).isEmpty();
+        assertThat(jwtUtils.verifyJwtToken(null)).isEmpty();
+    }
+}
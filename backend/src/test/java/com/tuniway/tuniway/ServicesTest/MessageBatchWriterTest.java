@@ -0,0 +1,126 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.dto.PendingMessage;
+import com.tuniway.repository.MessageBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageBatchWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private MessageBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        createSchema(jdbcTemplate);
+        writer = new MessageBatchWriter(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void write_ShouldInsertRowsAndReturnGeneratedIds() {
+        Map<String, Long> ids = writer.write(List.of(
+                pending("a", 1L, 2L, "Hi", 0),
+                pending("b", 2L, 1L, "Hello", 1)));
+
+        assertThat(ids).containsOnlyKeys("a", "b");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Message", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void write_ShouldSkipClientRefsAlreadyStored() {
+        writer.write(List.of(pending("a", 1L, 2L, "Hi", 0)));
+
+        Map<String, Long> ids = writer.write(List.of(
+                pending("a", 1L, 2L, "Hi", 0),
+                pending("c", 1L, 2L, "Again", 1),
+                pending("c", 1L, 2L, "Again", 1)));
+
+        assertThat(ids).containsOnlyKeys("c");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Message", Long.class)).isEqualTo(2);
+        assertThat(unreadCount(2L)).isEqualTo(2);
+    }
+
+    @Test
+    void write_ShouldCreateThenIncrementUnreadCounters() {
+        writer.write(List.of(pending("a", 1L, 2L, "one", 0), pending("b", 1L, 2L, "two", 1)));
+        assertThat(unreadCount(2L)).isEqualTo(2);
+
+        writer.write(List.of(pending("c", 3L, 2L, "three", 2)));
+        assertThat(unreadCount(2L)).isEqualTo(3);
+    }
+
+    @Test
+    void write_ShouldKeepLatestPreviewPerConversationAndSumUnread() {
+        writer.write(List.of(
+                pending("a", 1L, 2L, "first", 0),
+                pending("b", 1L, 2L, "second", 1),
+                pending("c", 2L, 1L, "reply", 2)));
+
+        Map<String, Object> receiverSide = jdbcTemplate.queryForMap(
+                "SELECT lastMessagePreview, lastSenderId, unreadCount FROM ConversationSummary WHERE ownerId = 2 AND peerId = 1");
+        assertThat(receiverSide.get("lastMessagePreview")).isEqualTo("reply");
+        assertThat(((Number) receiverSide.get("lastSenderId")).longValue()).isEqualTo(2L);
+        assertThat(((Number) receiverSide.get("unreadCount")).longValue()).isEqualTo(2L);
+
+        Map<String, Object> senderSide = jdbcTemplate.queryForMap(
+                "SELECT lastMessagePreview, unreadCount FROM ConversationSummary WHERE ownerId = 1 AND peerId = 2");
+        assertThat(senderSide.get("lastMessagePreview")).isEqualTo("reply");
+        assertThat(((Number) senderSide.get("unreadCount")).longValue()).isEqualTo(1L);
+    }
+
+    @Test
+    void write_ShouldDropOnlyRowsThatViolateConstraintsAndCountStoredRows() {
+        jdbcTemplate.execute("CREATE TABLE Account (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("INSERT INTO Account VALUES (1), (2)");
+        jdbcTemplate.execute("ALTER TABLE Message ADD FOREIGN KEY (sender_id) REFERENCES Account (id)");
+
+        // User 9 was deleted after its message was queued
+        Map<String, Long> ids = writer.write(List.of(
+                pending("a", 1L, 2L, "kept", 0),
+                pending("b", 9L, 2L, "orphan", 1)));
+
+        assertThat(ids).containsOnlyKeys("a");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Message", Long.class)).isEqualTo(1);
+        assertThat(unreadCount(2L)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ConversationSummary WHERE peerId = 9 OR ownerId = 9", Long.class)).isZero();
+    }
+
+    private long unreadCount(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT unreadCount FROM UnreadCounter WHERE userId = ?", Long.class, userId);
+    }
+
+    private static PendingMessage pending(String clientRef, Long senderId, Long receiverId, String content, int minute) {
+        PendingMessage pending = new PendingMessage();
+        pending.setClientRef(clientRef);
+        pending.setSenderId(senderId);
+        pending.setReceiverId(receiverId);
+        pending.setContent(content);
+        pending.setSentAt(LocalDateTime.of(2024, 1, 1, 12, minute));
+        return pending;
+    }
+
+    // Mirrors the Hibernate-generated tables the writer targets
+    static void createSchema(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE Message (id BIGINT AUTO_INCREMENT PRIMARY KEY, sender_id BIGINT, " +
+                "receiver_id BIGINT, content TEXT, sentAt TIMESTAMP, isRead BOOLEAN, clientRef VARCHAR(64) UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE UnreadCounter (userId BIGINT PRIMARY KEY, unreadCount BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE ConversationSummary (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "ownerId BIGINT NOT NULL, peerId BIGINT NOT NULL, lastMessagePreview VARCHAR(140), " +
+                "lastMessageAt TIMESTAMP, lastSenderId BIGINT, unreadCount BIGINT NOT NULL, " +
+                "CONSTRAINT uk_summary_owner_peer UNIQUE (ownerId, peerId))");
+    }
+}
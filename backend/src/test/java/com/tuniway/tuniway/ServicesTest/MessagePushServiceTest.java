@@ -0,0 +1,65 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.dto.SentMessage;
+import com.tuniway.event.MessageSentEvent;
+import com.tuniway.event.MessagesReadEvent;
+import com.tuniway.service.MessagePushService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class MessagePushServiceTest {
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @InjectMocks
+    private MessagePushService messagePushService;
+
+    private SentMessage message;
+
+    @BeforeEach
+    void setUp() {
+        message = new SentMessage(10L, 1L, "alice", 2L, "bob", "Hello", LocalDateTime.now(), false, "ref-1");
+    }
+
+    @Test
+    void onMessageSent_ShouldPushMessageToBothUsersAndUnreadDeltaToReceiver() {
+        messagePushService.onMessageSent(new MessageSentEvent(message));
+
+        verify(messagingTemplate).convertAndSendToUser("2", MessagePushService.MESSAGES_QUEUE, message);
+        verify(messagingTemplate).convertAndSendToUser("1", MessagePushService.MESSAGES_QUEUE, message);
+        verify(messagingTemplate).convertAndSendToUser("2", MessagePushService.UNREAD_QUEUE,
+                Map.of("peerId", 1L, "delta", 1));
+    }
+
+    @Test
+    void onMessageSent_AlreadyRead_ShouldNotPushUnreadDelta() {
+        message.setIsRead(true);
+
+        messagePushService.onMessageSent(new MessageSentEvent(message));
+
+        verify(messagingTemplate, never()).convertAndSendToUser(any(), eq(MessagePushService.UNREAD_QUEUE), any());
+    }
+
+    @Test
+    void onMessagesRead_ShouldPushNegativeDeltaToReader() {
+        messagePushService.onMessagesRead(new MessagesReadEvent(2L, 1L, 4));
+
+        verify(messagingTemplate).convertAndSendToUser("2", MessagePushService.UNREAD_QUEUE,
+                Map.of("peerId", 1L, "delta", -4));
+    }
+}
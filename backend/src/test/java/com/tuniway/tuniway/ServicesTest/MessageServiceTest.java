@@ -0,0 +1,245 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.dto.MessagePage;
+import com.tuniway.dto.SentMessage;
+import com.tuniway.event.MessageSentEvent;
+import com.tuniway.event.MessagesReadEvent;
+import com.tuniway.model.Message;
+import com.tuniway.model.User;
+import com.tuniway.repository.ConversationSummaryRepository;
+import com.tuniway.repository.MessageRepository;
+import com.tuniway.repository.UnreadCounterRepository;
+import com.tuniway.service.MessageService;
+import com.tuniway.service.MessageWriteBehind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private UnreadCounterRepository unreadCounterRepository;
+
+    @Mock
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MessageWriteBehind messageWriteBehind;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private MessageService messageService;
+
+    private Message testMessage;
+
+    @BeforeEach
+    void setUp() {
+        User sender = new User();
+        sender.setId(1L);
+        User receiver = new User();
+        receiver.setId(2L);
+
+        testMessage = new Message();
+        testMessage.setSender(sender);
+        testMessage.setReceiver(receiver);
+        testMessage.setContent("Hello");
+    }
+
+    @Test
+    void sendMessage_ShouldIncrementReceiverCounter() {
+        when(messageRepository.save(testMessage)).thenReturn(testMessage);
+
+        messageService.sendMessage(testMessage);
+
+        verify(unreadCounterRepository).add(2L, 1);
+        verify(conversationSummaryRepository).recordMessage(1L, 2L, "Hello", testMessage.getSentAt(), 1L, 0);
+        verify(conversationSummaryRepository).recordMessage(2L, 1L, "Hello", testMessage.getSentAt(), 1L, 1);
+    }
+
+    @Test
+    void sendMessage_ShouldPublishSentEvent() {
+        when(messageRepository.save(testMessage)).thenReturn(testMessage);
+
+        messageService.sendMessage(testMessage);
+
+        ArgumentCaptor<MessageSentEvent> event = ArgumentCaptor.forClass(MessageSentEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        SentMessage sent = event.getValue().getMessage();
+        assertThat(sent.getSenderId()).isEqualTo(1L);
+        assertThat(sent.getReceiverId()).isEqualTo(2L);
+        assertThat(sent.getContent()).isEqualTo("Hello");
+    }
+
+    @Test
+    void sendMessage_WithKnownClientRef_ShouldReturnStoredMessage() {
+        Message stored = new Message();
+        stored.setId(9L);
+        testMessage.setClientRef("retry-1");
+        when(messageRepository.findByClientRef("retry-1")).thenReturn(Optional.of(stored));
+
+        Message result = messageService.sendMessage(testMessage);
+
+        assertThat(result).isSameAs(stored);
+        verify(messageRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void sendMessage_WithWriteBehind_ShouldQueueInsteadOfSaving() {
+        testMessage.setClientRef("retry-1");
+        when(messageWriteBehind.isEnabled()).thenReturn(true);
+        when(messageWriteBehind.submit(testMessage)).thenReturn(testMessage);
+
+        Message result = messageService.sendMessage(testMessage);
+
+        assertThat(result).isSameAs(testMessage);
+        verifyNoInteractions(messageRepository, unreadCounterRepository, conversationSummaryRepository,
+                eventPublisher, transactionManager);
+    }
+
+    @Test
+    void markMessagesAsRead_ShouldBulkUpdateAndDecrementCounter() {
+        when(messageRepository.markReadFrom(2L, 1L)).thenReturn(5);
+
+        int updated = messageService.markMessagesAsRead(2L, 1L);
+
+        assertThat(updated).isEqualTo(5);
+        verify(unreadCounterRepository).decrement(2L, 5);
+        verify(conversationSummaryRepository).clearUnread(2L, 1L);
+        verify(messageRepository, never()).save(any());
+    }
+
+    @Test
+    void markMessagesAsRead_ShouldPublishReadEvent() {
+        when(messageRepository.markReadFrom(2L, 1L)).thenReturn(3);
+
+        messageService.markMessagesAsRead(2L, 1L);
+
+        ArgumentCaptor<MessagesReadEvent> event = ArgumentCaptor.forClass(MessagesReadEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getReceiverId()).isEqualTo(2L);
+        assertThat(event.getValue().getSenderId()).isEqualTo(1L);
+        assertThat(event.getValue().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void markMessagesAsRead_WhenNothingUnread_ShouldNotTouchCounter() {
+        when(messageRepository.markReadFrom(2L, 1L)).thenReturn(0);
+
+        assertThat(messageService.markMessagesAsRead(2L, 1L)).isZero();
+        verifyNoInteractions(unreadCounterRepository, conversationSummaryRepository);
+    }
+
+    @Test
+    void rebuildConversationSummaries_ShouldUpsertMissingPeersFromLatestMessageAndUnreadCount() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Message older = message(1L, base);
+        older.setSender(testMessage.getSender());
+        Message newer = message(2L, base.plusMinutes(1));
+        newer.setSender(testMessage.getReceiver());
+        newer.setContent("Latest");
+        when(messageRepository.findSenderIdsToUser(1L)).thenReturn(List.of(2L));
+        when(messageRepository.findReceiverIdsFromUser(1L)).thenReturn(List.of(2L, 3L));
+        // The conversation with 3 already has a row, kept current by sends
+        when(conversationSummaryRepository.findPeerIds(1L)).thenReturn(List.of(3L));
+        when(messageRepository.findLatestSent(eq(1L), eq(2L), any())).thenReturn(List.of(older));
+        when(messageRepository.findLatestSent(eq(2L), eq(1L), any())).thenReturn(List.of(newer));
+        when(messageRepository.countUnreadFrom(1L, 2L)).thenReturn(3L);
+
+        int rows = messageService.rebuildConversationSummaries(1L);
+
+        assertThat(rows).isEqualTo(1);
+        verify(conversationSummaryRepository).recordMessage(1L, 2L, "Latest", newer.getSentAt(), 2L, 3L);
+        verify(conversationSummaryRepository, never()).recordMessage(eq(1L), eq(3L), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void countUnreadMessages_ShouldReadCounter() {
+        when(unreadCounterRepository.findUnreadCount(2L)).thenReturn(Optional.of(3L));
+
+        assertThat(messageService.countUnreadMessages(2L)).isEqualTo(3L);
+        verify(messageRepository, never()).countUnreadMessages(anyLong());
+    }
+
+    @Test
+    void countUnreadMessages_WithoutCounter_ShouldCountWithoutCreatingIt() {
+        when(unreadCounterRepository.findUnreadCount(2L)).thenReturn(Optional.empty());
+        when(messageRepository.countUnreadMessages(2L)).thenReturn(4L);
+
+        assertThat(messageService.countUnreadMessages(2L)).isEqualTo(4L);
+        verify(unreadCounterRepository, never()).add(anyLong(), anyLong());
+        verify(unreadCounterRepository, never()).reconcile(anyLong());
+    }
+
+    @Test
+    void getConversationPage_ShouldMergeDirectionsNewestPageOldestFirst() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(messageRepository.findLatestSent(eq(1L), eq(2L), any()))
+                .thenReturn(List.of(message(5L, base.plusMinutes(5)), message(3L, base.plusMinutes(3)), message(1L, base.plusMinutes(1))));
+        when(messageRepository.findLatestSent(eq(2L), eq(1L), any()))
+                .thenReturn(List.of(message(4L, base.plusMinutes(4)), message(2L, base.plusMinutes(2))));
+
+        MessagePage page = messageService.getConversationPage(1L, 2L, null, 3);
+
+        assertThat(page.getMessages()).extracting(Message::getId).containsExactly(3L, 4L, 5L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void getConversationPage_WithCursor_ShouldQueryBeforeCursorPosition() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(messageRepository.findLatestSent(eq(1L), eq(2L), any()))
+                .thenReturn(List.of(message(5L, base.plusMinutes(5)), message(3L, base.plusMinutes(3))));
+        when(messageRepository.findLatestSent(eq(2L), eq(1L), any())).thenReturn(List.of());
+        String cursor = messageService.getConversationPage(1L, 2L, null, 1).getNextCursor();
+
+        when(messageRepository.findSentBefore(anyLong(), anyLong(), any(), anyLong(), any())).thenReturn(List.of());
+        MessagePage page = messageService.getConversationPage(1L, 2L, cursor, 1);
+
+        verify(messageRepository).findSentBefore(eq(1L), eq(2L), eq(base.plusMinutes(5)), eq(5L), any());
+        verify(messageRepository).findSentBefore(eq(2L), eq(1L), eq(base.plusMinutes(5)), eq(5L), any());
+        assertThat(page.getMessages()).isEmpty();
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getConversationPage_WithMalformedCursor_ShouldThrow() {
+        assertThatThrownBy(() -> messageService.getConversationPage(1L, 2L, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Message message(Long id, LocalDateTime sentAt) {
+        Message message = new Message();
+        message.setId(id);
+        message.setSentAt(sentAt);
+        return message;
+    }
+}
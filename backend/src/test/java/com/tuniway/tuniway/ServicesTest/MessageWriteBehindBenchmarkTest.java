@@ -0,0 +1,186 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tuniway.model.Message;
+import com.tuniway.model.User;
+import com.tuniway.repository.MessageBatchWriter;
+import com.tuniway.service.MessageWriteBehind;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput comparison of one transaction per message against the
+ * write-behind queue, both on H2 in MySQL mode. An in-memory database has no
+ * network round trip, so this understates the gap against a real MySQL.
+ * Run with: mvn test -Dtest=MessageWriteBehindBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class MessageWriteBehindBenchmarkTest {
+
+    private static final int SENDERS = 8;
+    private static final int MESSAGES_PER_SENDER = 2_500;
+    private static final int USERS = 200;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void compareSynchronousAndWriteBehind() throws Exception {
+        double synchronous = runSynchronous();
+        double writeBehind = runWriteBehind(false);
+        double writeBehindFsync = runWriteBehind(true);
+
+        System.out.printf("%-22s %10s%n", "mode", "msg/s");
+        System.out.printf("%-22s %10.0f%n", "synchronous", synchronous);
+        System.out.printf("%-22s %10.0f%n", "write-behind", writeBehind);
+        System.out.printf("%-22s %10.0f%n", "write-behind + fsync", writeBehindFsync);
+
+        assertThat(writeBehind).isGreaterThan(synchronous);
+    }
+
+    // Same statements MessageService issues per message, each in its own transaction
+    private double runSynchronous() throws Exception {
+        try (HikariDataSource dataSource = dataSource()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            MessageBatchWriterTest.createSchema(jdbcTemplate);
+            TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+            double rate = timed(() -> {
+                long senderId = randomUser();
+                long receiverId = randomPeer(senderId);
+                Timestamp sentAt = Timestamp.valueOf(LocalDateTime.now());
+                transactions.executeWithoutResult(status -> {
+                    jdbcTemplate.update("INSERT INTO Message (sender_id, receiver_id, content, sentAt, isRead) " +
+                            "VALUES (?, ?, ?, ?, FALSE)", senderId, receiverId, "benchmark", sentAt);
+                    jdbcTemplate.update("INSERT INTO UnreadCounter (userId, unreadCount) VALUES (?, 1) " +
+                            "ON DUPLICATE KEY UPDATE unreadCount = unreadCount + 1", receiverId);
+                    // Lower owner first, so A->B and B->A don't lock the two rows in opposite orders
+                    if (receiverId < senderId) {
+                        upsertSummary(jdbcTemplate, receiverId, senderId, senderId, sentAt, 1);
+                        upsertSummary(jdbcTemplate, senderId, receiverId, senderId, sentAt, 0);
+                    } else {
+                        upsertSummary(jdbcTemplate, senderId, receiverId, senderId, sentAt, 0);
+                        upsertSummary(jdbcTemplate, receiverId, senderId, senderId, sentAt, 1);
+                    }
+                });
+            });
+            assertThat(count(jdbcTemplate)).isEqualTo((long) SENDERS * MESSAGES_PER_SENDER);
+            return rate;
+        }
+    }
+
+    private double runWriteBehind(boolean fsync) throws Exception {
+        try (HikariDataSource dataSource = dataSource()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            MessageBatchWriterTest.createSchema(jdbcTemplate);
+            MessageBatchWriter batchWriter = new MessageBatchWriter(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+            int total = SENDERS * MESSAGES_PER_SENDER;
+            CountDownLatch persisted = new CountDownLatch(total);
+            MessageWriteBehind writeBehind = new MessageWriteBehind(batchWriter,
+                    new ObjectMapper().registerModule(new JavaTimeModule()), event -> persisted.countDown(), true,
+                    journalDir.resolve(UUID.randomUUID().toString()).toString(), 16 << 20, total, 200, 50, fsync, 1000, 10_000);
+            writeBehind.start();
+            try {
+                long startedAt = System.nanoTime();
+                timed(() -> {
+                    long senderId = randomUser();
+                    writeBehind.submit(message(senderId, randomPeer(senderId)));
+                });
+                // Throughput counts until every message is durable in the database
+                assertThat(persisted.await(60, TimeUnit.SECONDS)).isTrue();
+                double seconds = (System.nanoTime() - startedAt) / 1e9;
+                assertThat(count(jdbcTemplate)).isEqualTo((long) total);
+                if (fsync) {
+                    System.out.printf("%d fsyncs for %d messages%n", writeBehind.snapshot().get("journalSyncs"), total);
+                }
+                return total / seconds;
+            } finally {
+                writeBehind.stop();
+            }
+        }
+    }
+
+    private static void upsertSummary(JdbcTemplate jdbcTemplate, long ownerId, long peerId, long lastSenderId,
+                                      Timestamp sentAt, int unreadDelta) {
+        jdbcTemplate.update("INSERT INTO ConversationSummary (ownerId, peerId, lastMessagePreview, lastMessageAt, " +
+                        "lastSenderId, unreadCount) VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                        "unreadCount = unreadCount + VALUES(unreadCount), lastMessagePreview = VALUES(lastMessagePreview), " +
+                        "lastSenderId = VALUES(lastSenderId), lastMessageAt = VALUES(lastMessageAt)",
+                ownerId, peerId, "benchmark", sentAt, lastSenderId, unreadDelta);
+    }
+
+    private static double timed(Runnable send) throws Exception {
+        ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+        try {
+            long startedAt = System.nanoTime();
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < SENDERS; i++) {
+                tasks.add(senders.submit(() -> {
+                    for (int n = 0; n < MESSAGES_PER_SENDER; n++) {
+                        send.run();
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            return SENDERS * MESSAGES_PER_SENDER / ((System.nanoTime() - startedAt) / 1e9);
+        } finally {
+            senders.shutdownNow();
+        }
+    }
+
+    private static HikariDataSource dataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(SENDERS);
+        return dataSource;
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Message", Long.class);
+    }
+
+    private static long randomUser() {
+        return ThreadLocalRandom.current().nextLong(1, USERS + 1);
+    }
+
+    private static long randomPeer(long userId) {
+        long peerId = randomUser();
+        return peerId == userId ? peerId % USERS + 1 : peerId;
+    }
+
+    private static Message message(long senderId, long receiverId) {
+        User sender = new User();
+        sender.setId(senderId);
+        User receiver = new User();
+        receiver.setId(receiverId);
+        Message message = new Message();
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setContent("benchmark");
+        message.setSentAt(LocalDateTime.now());
+        return message;
+    }
+}
@@ -0,0 +1,209 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tuniway.dto.PendingMessage;
+import com.tuniway.event.MessageSentEvent;
+import com.tuniway.model.Message;
+import com.tuniway.model.User;
+import com.tuniway.repository.MessageBatchWriter;
+import com.tuniway.service.MessageWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MessageWriteBehindTest {
+
+    @Mock
+    private MessageBatchWriter batchWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path journalDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<MessageWriteBehind> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (MessageWriteBehind writeBehind : started) {
+            writeBehind.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldAcknowledgeBeforeWriteAndPublishWithId() throws Exception {
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> idsFor(invocation.getArgument(0)));
+        MessageWriteBehind writeBehind = start(100, 10);
+
+        Message message = writeBehind.submit(message("Hello"));
+
+        assertThat(message.getId()).isNull();
+        assertThat(message.getClientRef()).isNotBlank();
+        ArgumentCaptor<MessageSentEvent> event = ArgumentCaptor.forClass(MessageSentEvent.class);
+        verify(eventPublisher, timeout(2000)).publishEvent(event.capture());
+        assertThat(event.getValue().getMessage().getId()).isNotNull();
+        assertThat(event.getValue().getMessage().getSenderName()).isEqualTo("alice");
+    }
+
+    @Test
+    void flush_WhenPushFails_ShouldNotRetryStoredBatch() throws Exception {
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> idsFor(invocation.getArgument(0)));
+        doThrow(new IllegalStateException("push failed")).doNothing().when(eventPublisher).publishEvent(any(MessageSentEvent.class));
+        MessageWriteBehind writeBehind = start(100, 10);
+
+        writeBehind.submit(message("first"));
+        verify(eventPublisher, timeout(2000)).publishEvent(any(MessageSentEvent.class));
+        writeBehind.submit(message("second"));
+
+        verify(eventPublisher, timeout(2000).times(2)).publishEvent(any(MessageSentEvent.class));
+        verify(batchWriter, times(2)).write(anyList());
+        assertThat(writeBehind.snapshot().get("written")).isEqualTo(2L);
+        assertThat(writeBehind.snapshot().get("failedBatches")).isEqualTo(0L);
+    }
+
+    @Test
+    void submit_ShouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return idsFor(invocation.getArgument(0));
+        });
+        MessageWriteBehind writeBehind = start(1, 1);
+
+        writeBehind.submit(message("in flight"));
+        assertThat(writing.await(2, TimeUnit.SECONDS)).isTrue();
+        writeBehind.submit(message("queued"));
+
+        assertThatThrownBy(() -> writeBehind.submit(message("overflow")))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(writeBehind.snapshot().get("rejected")).isEqualTo(1L);
+        release.countDown();
+    }
+
+    @Test
+    void start_ShouldReplayJournalLeftByPreviousRun() throws Exception {
+        // First run: the database is down, so messages stay in the journal
+        when(batchWriter.write(anyList())).thenThrow(new IllegalStateException("database down"));
+        MessageWriteBehind crashed = start(100, 10);
+        crashed.submit(message("one"));
+        crashed.submit(message("two"));
+        verify(batchWriter, timeout(2000).atLeastOnce()).write(anyList());
+        crashed.stop();
+        started.remove(crashed);
+
+        List<String> replayed = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<PendingMessage> batch = invocation.getArgument(0);
+            batch.forEach(pending -> replayed.add(pending.getContent()));
+            return idsFor(batch);
+        }).when(batchWriter).write(anyList());
+        MessageWriteBehind restarted = start(100, 10);
+
+        assertThat(replayed).containsExactly("one", "two");
+        assertThat(restarted.snapshot().get("recovered")).isEqualTo(2L);
+    }
+
+    @Test
+    void flush_ShouldDropJournalSegmentsOnceTheirMessagesAreStored() throws Exception {
+        Semaphore writes = new Semaphore(0);
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            writes.acquire();
+            return idsFor(invocation.getArgument(0));
+        });
+        // One-byte segments: every message gets its own segment
+        MessageWriteBehind writeBehind = start(100, 1, 1);
+        for (int i = 0; i < 5; i++) {
+            writeBehind.submit(message("m" + i));
+        }
+        assertThat(segmentCount()).isEqualTo(5);
+
+        // Two stored while three are still queued: only the two oldest segments go
+        writes.release(2);
+        awaitSegmentCount(3);
+
+        writes.release(3);
+        awaitSegmentCount(0);
+    }
+
+    private MessageWriteBehind start(int queueCapacity, int batchSize) throws Exception {
+        return start(queueCapacity, batchSize, 1 << 20);
+    }
+
+    private MessageWriteBehind start(int queueCapacity, int batchSize, long segmentMaxBytes) throws Exception {
+        MessageWriteBehind writeBehind = new MessageWriteBehind(batchWriter, objectMapper, eventPublisher, true,
+                journalDir.toString(), segmentMaxBytes, queueCapacity, batchSize, 10, false, 10, 1000);
+        writeBehind.start();
+        started.add(writeBehind);
+        return writeBehind;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    private void awaitSegmentCount(long expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (segmentCount() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(segmentCount()).isEqualTo(expected);
+    }
+
+    private static Map<String, Long> idsFor(List<PendingMessage> batch) {
+        Map<String, Long> ids = new HashMap<>();
+        for (PendingMessage pending : batch) {
+            ids.put(pending.getClientRef(), (long) ids.size() + 1);
+        }
+        return ids;
+    }
+
+    private static Message message(String content) {
+        User sender = new User();
+        sender.setId(1L);
+        sender.setUsername("alice");
+        User receiver = new User();
+        receiver.setId(2L);
+        receiver.setUsername("bob");
+        Message message = new Message();
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setContent(content);
+        return message;
+    }
+}
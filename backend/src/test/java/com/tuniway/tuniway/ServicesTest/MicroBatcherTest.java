@@ -0,0 +1,86 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.concurrent.MicroBatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicroBatcherTest {
+
+    private final List<List<String>> sentBatches = new CopyOnWriteArrayList<>();
+    private MicroBatcher<String, String> batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.close();
+    }
+
+    private CompletableFuture<List<String>> upperCase(List<String> batch) {
+        sentBatches.add(batch);
+        List<String> results = new ArrayList<>();
+        for (String item : batch) {
+            results.add(item.toUpperCase());
+        }
+        return CompletableFuture.completedFuture(results);
+    }
+
+    @Test
+    void submit_WhenBatchFull_ShouldSendImmediately() {
+        batcher = new MicroBatcher<>("test", 3, 60_000, this::upperCase);
+
+        CompletableFuture<String> a = batcher.submit("a");
+        CompletableFuture<String> b = batcher.submit("b");
+        CompletableFuture<String> c = batcher.submit("c");
+
+        assertThat(a.join()).isEqualTo("A");
+        assertThat(b.join()).isEqualTo("B");
+        assertThat(c.join()).isEqualTo("C");
+        assertThat(sentBatches).containsExactly(List.of("a", "b", "c"));
+        assertThat(batcher.snapshot()).containsEntry("flushedBySize", 1L);
+    }
+
+    @Test
+    void submit_WhenWindowElapses_ShouldSendPartialBatch() throws Exception {
+        batcher = new MicroBatcher<>("test", 10, 20, this::upperCase);
+
+        CompletableFuture<String> a = batcher.submit("a");
+        CompletableFuture<String> b = batcher.submit("b");
+
+        assertThat(a.get(5, TimeUnit.SECONDS)).isEqualTo("A");
+        assertThat(b.get(5, TimeUnit.SECONDS)).isEqualTo("B");
+        assertThat(sentBatches).containsExactly(List.of("a", "b"));
+        assertThat(batcher.snapshot()).containsEntry("flushedByTime", 1L);
+    }
+
+    @Test
+    void submit_WhenSenderFails_ShouldFailEveryCaller() {
+        batcher = new MicroBatcher<>("test", 2, 60_000,
+                batch -> CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+        CompletableFuture<String> a = batcher.submit("a");
+        CompletableFuture<String> b = batcher.submit("b");
+
+        assertThatThrownBy(a::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(b::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(batcher.snapshot()).containsEntry("failedBatches", 1L);
+    }
+
+    @Test
+    void close_ShouldFlushBufferedItems() {
+        batcher = new MicroBatcher<>("test", 10, 60_000, this::upperCase);
+        CompletableFuture<String> a = batcher.submit("a");
+
+        batcher.close();
+
+        assertThat(a.join()).isEqualTo("A");
+        assertThat(batcher.submit("b")).isCompletedExceptionally();
+    }
+}
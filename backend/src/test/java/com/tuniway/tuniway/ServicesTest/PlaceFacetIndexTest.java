@@ -0,0 +1,161 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.event.PlaceChangedEvent;
+import com.tuniway.model.Place;
+import com.tuniway.model.enums.PlaceCategory;
+import com.tuniway.repository.PlaceRepository;
+import com.tuniway.repository.ReviewRepository;
+import com.tuniway.service.PlaceFacetIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PlaceFacetIndexTest {
+
+    @Mock
+    private PlaceRepository placeRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    private PlaceFacetIndex placeFacetIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(placeRepository.findAll()).thenReturn(List.of(
+                place(1L, "Boujaafar", PlaceCategory.BEACH, "Sousse"),
+                place(2L, "El Mouradi", PlaceCategory.HOTEL, "Sousse"),
+                place(3L, "Yasmine", PlaceCategory.BEACH, "Hammamet"),
+                place(4L, "Bardo", PlaceCategory.MUSEUM, "Tunis")));
+        List<ReviewRepository.PlaceReviewStats> ratings = List.of(
+                stats(1L, 12L, 4.5), stats(2L, 3L, 3.8), stats(4L, 40L, 5.0));
+        when(reviewRepository.findPlaceReviewStats()).thenReturn(ratings);
+
+        placeFacetIndex = new PlaceFacetIndex(placeRepository, reviewRepository, 100);
+        placeFacetIndex.rebuild();
+    }
+
+    @Test
+    void browse_ShouldFilterAndCountFacets() {
+        Map<String, Object> response = placeFacetIndex.browse(Set.of(PlaceCategory.BEACH), null, null, null, 0, 20);
+
+        assertThat(response).containsEntry("total", 2);
+        assertThat(results(response)).extracting(result -> ((Place) result.get("place")).getId())
+                .containsExactly(1L, 3L);
+        Map<String, Map<String, Integer>> facets = facets(response);
+        assertThat(facets.get("category")).containsOnly(entry("BEACH", 2), entry("HOTEL", 1), entry("MUSEUM", 1));
+        assertThat(facets.get("city")).containsOnly(entry("hammamet", 1), entry("sousse", 1));
+        assertThat(response.get("cityNames")).isEqualTo(Map.of("hammamet", "Hammamet", "sousse", "Sousse"));
+        assertThat(facets.get("rating")).containsOnly(entry("4", 1), entry("unrated", 1));
+    }
+
+    @Test
+    void browse_ShouldApplyExactRatingRange() {
+        Map<String, Object> response = placeFacetIndex.browse(null, Set.of("Sousse", "Tunis"), 4.0, 4.9, 0, 20);
+
+        assertThat(results(response)).extracting(result -> ((Place) result.get("place")).getId())
+                .containsExactly(1L);
+        assertThat(facets(response).get("category")).containsOnly(entry("BEACH", 1));
+
+        Map<String, Object> best = placeFacetIndex.browse(null, null, 3.8, null, 0, 20);
+        assertThat(results(best)).extracting(result -> ((Place) result.get("place")).getId())
+                .containsExactly(4L, 1L, 2L);
+    }
+
+    @Test
+    void onPlaceChanged_ShouldMoveBitmapsAndKeepRating() {
+        placeFacetIndex.onPlaceChanged(PlaceChangedEvent.saved(place(2L, "El Mouradi", PlaceCategory.HOTEL, "Monastir")));
+        placeFacetIndex.onPlaceChanged(PlaceChangedEvent.deleted(3L));
+
+        Map<String, Object> response = placeFacetIndex.browse(null, Set.of("Monastir"), null, null, 0, 20);
+
+        assertThat(results(response)).singleElement().satisfies(result -> {
+            assertThat(result).containsEntry("averageRating", 3.8).containsEntry("reviewCount", 3L);
+        });
+        assertThat(facets(response).get("city")).containsOnlyKeys("monastir", "sousse", "tunis");
+    }
+
+    @Test
+    void browse_ShouldFoldCityCaseInFacetsAndFilters() {
+        placeFacetIndex.onPlaceChanged(PlaceChangedEvent.saved(place(5L, "Ribat", PlaceCategory.MUSEUM, " SOUSSE ")));
+
+        Map<String, Object> response = placeFacetIndex.browse(null, Set.of("sousse"), null, null, 0, 20);
+
+        assertThat(results(response)).extracting(result -> ((Place) result.get("place")).getId())
+                .containsExactlyInAnyOrder(1L, 2L, 5L);
+        assertThat(facets(response).get("city")).containsOnly(
+                entry("hammamet", 1), entry("sousse", 3), entry("tunis", 1));
+        assertThat(response.get("cityNames")).isEqualTo(Map.of(
+                "hammamet", "Hammamet", "sousse", "Sousse", "tunis", "Tunis"));
+    }
+
+    @Test
+    void refreshRatings_ShouldRebucketChangedPlaces() {
+        List<ReviewRepository.PlaceReviewStats> ratings = List.of(
+                stats(1L, 12L, 4.5), stats(2L, 3L, 3.8), stats(3L, 1L, 2.0), stats(4L, 40L, 5.0));
+        when(reviewRepository.findPlaceReviewStats()).thenReturn(ratings);
+
+        placeFacetIndex.refreshRatings();
+
+        Map<String, Object> response = placeFacetIndex.browse(null, null, null, null, 0, 20);
+        assertThat(facets(response).get("rating")).containsOnly(
+                entry("2", 1), entry("3", 1), entry("4", 1), entry("5", 1));
+    }
+
+    @Test
+    void browse_ShouldRejectInvalidRange() {
+        assertThatThrownBy(() -> placeFacetIndex.browse(null, null, 4.0, 3.0, 0, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> placeFacetIndex.browse(null, null, null, null, 0, 500))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void browse_ShouldRejectPageWhoseOffsetOverflows() {
+        assertThatThrownBy(() -> placeFacetIndex.browse(null, null, null, null, Integer.MAX_VALUE / 20 + 1, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("page is too large");
+        assertThat(results(placeFacetIndex.browse(null, null, null, null, Integer.MAX_VALUE / 20, 20))).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> results(Map<String, Object> response) {
+        return (List<Map<String, Object>>) response.get("results");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Integer>> facets(Map<String, Object> response) {
+        return (Map<String, Map<String, Integer>>) response.get("facets");
+    }
+
+    private static ReviewRepository.PlaceReviewStats stats(Long placeId, Long reviews, Double average) {
+        ReviewRepository.PlaceReviewStats stats = mock(ReviewRepository.PlaceReviewStats.class);
+        lenient().when(stats.getPlaceId()).thenReturn(placeId);
+        lenient().when(stats.getReviewCount()).thenReturn(reviews);
+        lenient().when(stats.getAverageRating()).thenReturn(average);
+        return stats;
+    }
+
+    private static Place place(Long id, String name, PlaceCategory category, String city) {
+        Place place = new Place();
+        place.setId(id);
+        place.setName(name);
+        place.setCategory(category);
+        place.setCity(city);
+        return place;
+    }
+}
@@ -1,5 +1,6 @@
 package com.tuniway.tuniway.ServicesTest;
 
+import com.tuniway.event.PlaceChangedEvent;
 import com.tuniway.model.Place;
 import com.tuniway.model.enums.PlaceCategory;
 import com.tuniway.repository.PlaceRepository;
@@ -7,9 +8,11 @@ import com.tuniway.service.PlaceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -25,6 +28,9 @@ class PlaceServiceTest {
     @Mock
     private PlaceRepository placeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PlaceService placeService;
 
@@ -141,4 +147,26 @@ class PlaceServiceTest {
 
         verify(placeRepository, times(1)).deleteById(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void createPlace_ShouldPublishSavedEvent() {
+        when(placeRepository.save(any(Place.class))).thenReturn(testPlace);
+
+        placeService.createPlace(testPlace);
+
+        ArgumentCaptor<PlaceChangedEvent> event = ArgumentCaptor.forClass(PlaceChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().isDeleted()).isFalse();
+        assertThat(event.getValue().getPlace()).isSameAs(testPlace);
+    }
+
+    @Test
+    void deletePlace_ShouldPublishDeletedEvent() {
+        placeService.deletePlace(1L);
+
+        ArgumentCaptor<PlaceChangedEvent> event = ArgumentCaptor.forClass(PlaceChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().isDeleted()).isTrue();
+        assertThat(event.getValue().getPlaceId()).isEqualTo(1L);
+    }
+}
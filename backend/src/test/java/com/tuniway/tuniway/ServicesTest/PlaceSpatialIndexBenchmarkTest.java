@@ -0,0 +1,66 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.geo.GeoGrid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query latency of the place grid with one million places spread over
+ * Tunisia's bounding box. Run with:
+ * mvn test -Dtest=PlaceSpatialIndexBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PlaceSpatialIndexBenchmarkTest {
+
+    private static final int PLACES = 1_000_000;
+    private static final int QUERIES = 20_000;
+
+    @Test
+    void radiusAndBoxQueriesAtOneMillionPlaces() {
+        GeoGrid<Integer> grid = new GeoGrid<>(0.01);
+        Random random = new Random(7);
+        for (int i = 0; i < PLACES; i++) {
+            grid.put(i, 30.2 + random.nextDouble() * 7.2, 7.5 + random.nextDouble() * 4.1, i);
+        }
+
+        System.out.printf("%-28s %10s %10s %10s%n", "query", "p50 us", "p99 us", "max us");
+        for (int radius : new int[]{1_000, 5_000, 20_000}) {
+            long[] nanos = new long[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                double lat = 30.2 + random.nextDouble() * 7.2;
+                double lon = 7.5 + random.nextDouble() * 4.1;
+                long startedAt = System.nanoTime();
+                grid.nearest(lat, lon, radius, 50, value -> value % 8 != 0);
+                nanos[q] = System.nanoTime() - startedAt;
+            }
+            report("nearby r=" + radius + "m k=50", nanos);
+            assertThat(percentile(nanos, 0.50)).isLessThan(1_000_000);
+        }
+
+        long[] nanos = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            double lat = 30.2 + random.nextDouble() * 7;
+            double lon = 7.5 + random.nextDouble() * 4;
+            long startedAt = System.nanoTime();
+            grid.within(lat, lon, lat + 0.05, lon + 0.08, 200, null);
+            nanos[q] = System.nanoTime() - startedAt;
+        }
+        report("viewport 0.05x0.08 deg", nanos);
+    }
+
+    private static void report(String name, long[] nanos) {
+        System.out.printf("%-28s %10.1f %10.1f %10.1f%n", name, percentile(nanos, 0.50) / 1e3,
+                percentile(nanos, 0.99) / 1e3, percentile(nanos, 1.0) / 1e3);
+    }
+
+    private static long percentile(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,81 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.event.PlaceChangedEvent;
+import com.tuniway.model.Place;
+import com.tuniway.repository.PlaceRepository;
+import com.tuniway.repository.ReviewRepository;
+import com.tuniway.service.PlaceSuggestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PlaceSuggestServiceTest {
+
+    @Mock
+    private PlaceRepository placeRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    private PlaceSuggestService placeSuggestService;
+
+    @BeforeEach
+    void setUp() {
+        when(placeRepository.findAll()).thenReturn(List.of(
+                place(1L, "Medina of Sousse", "Sousse"),
+                place(2L, "Port El Kantaoui", "Sousse"),
+                place(3L, "Souk El Attarine", "Tunis")));
+        ReviewRepository.PlaceReviewStats reviews = mock(ReviewRepository.PlaceReviewStats.class);
+        when(reviews.getPlaceId()).thenReturn(3L);
+        when(reviews.getReviewCount()).thenReturn(10L);
+        when(reviewRepository.findPlaceReviewStats()).thenReturn(List.of(reviews));
+        when(placeRepository.findFavoriteCounts()).thenReturn(List.of());
+
+        placeSuggestService = new PlaceSuggestService(placeRepository, reviewRepository, 10, 2);
+        placeSuggestService.rebuild();
+    }
+
+    @Test
+    void suggest_ShouldReturnPlacesAndCitiesByPopularity() {
+        List<Map<String, Object>> results = placeSuggestService.suggest("sou", 5);
+
+        assertThat(results).extracting(result -> result.get("text"))
+                .containsExactly("Souk El Attarine", "Sousse", "Medina of Sousse");
+        assertThat(results.get(0)).containsEntry("type", "place").containsEntry("id", 3L).containsEntry("city", "Tunis");
+        assertThat(results.get(1)).containsEntry("type", "city");
+    }
+
+    @Test
+    void suggest_ShouldToleratePlaceNameTypos() {
+        assertThat(placeSuggestService.suggest("kantawi", 5)).extracting(result -> result.get("id")).containsExactly(2L);
+    }
+
+    @Test
+    void onPlaceChanged_ShouldMoveCityCounts() {
+        placeSuggestService.onPlaceChanged(PlaceChangedEvent.saved(place(1L, "Medina of Sousse", "Monastir")));
+        placeSuggestService.onPlaceChanged(PlaceChangedEvent.deleted(2L));
+
+        assertThat(placeSuggestService.suggest("sousse", 5)).extracting(result -> result.get("type"))
+                .containsExactly("place");
+        assertThat(placeSuggestService.suggest("monas", 5)).extracting(result -> result.get("text"))
+                .containsExactly("Monastir");
+    }
+
+    private static Place place(Long id, String name, String city) {
+        Place place = new Place();
+        place.setId(id);
+        place.setName(name);
+        place.setCity(city);
+        return place;
+    }
+}
@@ -0,0 +1,165 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.service.PresenceRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PresenceRegistryTest {
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private PresenceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PresenceRegistry(messagingTemplate, 90_000, now::get);
+    }
+
+    @Test
+    void join_ShouldPublishOnlineOnlyForFirstSession() {
+        registry.join("alice", "s1");
+        registry.join("alice", "s2");
+
+        List<Map<String, Object>> deltas = captureDeltas(1);
+        assertThat(deltas.get(0)).containsEntry("status", "ONLINE").containsEntry("username", "alice")
+                .containsEntry("version", 1L);
+        assertThat(registry.getSessionCount("alice")).isEqualTo(2);
+        assertThat(registry.getOnlineUsers()).containsExactly("alice");
+    }
+
+    @Test
+    void leave_ShouldKeepUserOnlineUntilLastSessionLeaves() {
+        registry.join("alice", "s1");
+        registry.join("alice", "s2");
+
+        assertThat(registry.leave("s1")).isEqualTo("alice");
+        assertThat(registry.isOnline("alice")).isTrue();
+
+        registry.leave("s2");
+
+        assertThat(registry.isOnline("alice")).isFalse();
+        List<Map<String, Object>> deltas = captureDeltas(2);
+        assertThat(deltas.get(1)).containsEntry("status", "OFFLINE").containsEntry("onlineCount", 0);
+        assertThat(registry.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void leave_ShouldIgnoreUnknownSession() {
+        assertThat(registry.leave("missing")).isNull();
+        assertThat(registry.getOnlineCount()).isZero();
+    }
+
+    @Test
+    void expireStaleSessions_ShouldDropSessionsWithoutHeartbeat() {
+        registry.join("alice", "s1");
+        registry.join("bob", "s2");
+        now.addAndGet(60_000);
+        registry.touch("bob", "s2");
+        now.addAndGet(31_000);
+
+        registry.expireStaleSessions();
+
+        assertThat(registry.isOnline("alice")).isFalse();
+        assertThat(registry.isOnline("bob")).isTrue();
+        assertThat(captureDeltas(3).get(2)).containsEntry("status", "OFFLINE").containsEntry("username", "alice");
+    }
+
+    @Test
+    void join_ShouldMoveSessionWhenItRejoinsUnderAnotherName() {
+        registry.join("alice", "s1");
+        registry.join("bob", "s1");
+
+        assertThat(registry.isOnline("alice")).isFalse();
+        assertThat(registry.getOnlineUsers()).containsExactly("bob");
+    }
+
+    @Test
+    void touch_ShouldRejoinSessionThatAlreadyExpired() {
+        registry.join("alice", "s1");
+        now.addAndGet(91_000);
+        registry.expireStaleSessions();
+
+        registry.touch("alice", "s1");
+        registry.touch(null, "s2");
+
+        assertThat(registry.getOnlineUsers()).containsExactly("alice");
+        List<Map<String, Object>> deltas = captureDeltas(3);
+        assertThat(deltas.get(2)).containsEntry("status", "ONLINE").containsEntry("version", 3L);
+    }
+
+    @Test
+    void snapshot_ShouldMatchUsersToTheLastPublishedVersion() {
+        registry.join("bob", "s1");
+        registry.join("alice", "s2");
+        registry.leave("s1");
+
+        Map<String, Object> snapshot = registry.snapshot();
+
+        assertThat(snapshot).containsEntry("version", 3L).containsEntry("onlineCount", 1);
+        assertThat(snapshot.get("online")).isEqualTo(List.of("alice"));
+    }
+
+    @Test
+    void join_FromConcurrentSessions_ShouldPublishVersionsInOrder() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String user = "user" + (t % 2);
+                String session = "s" + t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        registry.join(user, session);
+                        registry.leave(session);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq(PresenceRegistry.PRESENCE_TOPIC), captor.capture());
+        long previous = 0;
+        for (Object delta : captor.getAllValues()) {
+            long version = (Long) ((Map<?, ?>) delta).get("version");
+            assertThat(version).isEqualTo(previous + 1);
+            previous = version;
+        }
+        assertThat(registry.getOnlineCount()).isZero();
+        assertThat(registry.snapshot()).containsEntry("version", previous);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> captureDeltas(int expected) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(expected)).convertAndSend(eq(PresenceRegistry.PRESENCE_TOPIC), captor.capture());
+        return (List<Map<String, Object>>) (List<?>) captor.getAllValues();
+    }
+}
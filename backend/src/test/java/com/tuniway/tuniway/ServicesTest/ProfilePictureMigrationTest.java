@@ -0,0 +1,76 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.config.ProfilePictureMigration;
+import com.tuniway.model.User;
+import com.tuniway.repository.UserRepository;
+import com.tuniway.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProfilePictureMigrationTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private ProfilePictureMigration migration;
+
+    @Test
+    void run_ShouldContinuePastUsersThatFail() {
+        User unwritable = inlineUser(1L);
+        User unsaved = inlineUser(2L);
+        User unreadable = inlineUser(3L);
+        User fine = inlineUser(4L);
+        when(userRepository.findIdsWithInlineProfilePicture()).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(userRepository.findById(any())).thenAnswer(invocation ->
+                Optional.of(List.of(unwritable, unsaved, unreadable, fine).get(invocation.getArgument(0, Long.class).intValue() - 1)));
+        when(userService.updateUser(any())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user == unwritable) {
+                throw new UncheckedIOException(new IOException("disk full"));
+            }
+            if (user == unsaved) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            if (user == unreadable && user.getProfilePicture() != null) {
+                throw new IllegalArgumentException("not an image");
+            }
+            return user;
+        });
+
+        migration.run(null);
+
+        // Failed users keep their inline picture for the next startup
+        assertThat(unwritable.getProfilePicture()).startsWith("data:");
+        assertThat(unsaved.getProfilePicture()).startsWith("data:");
+        assertThat(unreadable.getProfilePicture()).isNull();
+        verify(userService, times(2)).updateUser(unreadable);
+        verify(userService).updateUser(fine);
+    }
+
+    private static User inlineUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setProfilePicture("data:image/png;base64,AAAA");
+        return user;
+    }
+}
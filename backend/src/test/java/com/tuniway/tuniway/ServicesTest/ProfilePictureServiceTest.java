@@ -0,0 +1,96 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.service.ProfilePictureService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProfilePictureServiceTest {
+
+    @TempDir
+    Path root;
+
+    private ProfilePictureService profilePictureService;
+
+    @BeforeEach
+    void setUp() {
+        profilePictureService = new ProfilePictureService(root.toString(), 1024 * 1024);
+    }
+
+    @Test
+    void toReference_WithDataUri_ShouldStoreOriginalAndThumbnails() throws IOException {
+        byte[] png = png(400, 300);
+        String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+
+        String reference = profilePictureService.toReference(dataUri);
+
+        assertThat(reference).startsWith(ProfilePictureService.URL_PREFIX);
+        String hash = reference.substring(ProfilePictureService.URL_PREFIX.length());
+        assertThat(profilePictureService.exists(hash, "original")).isTrue();
+        assertThat(profilePictureService.exists(hash, "small")).isTrue();
+        assertThat(profilePictureService.exists(hash, "thumb")).isTrue();
+        assertThat(profilePictureService.contentType(hash, "original")).isEqualTo("image/png");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = profilePictureService.transferTo(hash, "original", Channels.newChannel(out));
+        assertThat(written).isEqualTo(png.length);
+        assertThat(out.toByteArray()).isEqualTo(png);
+
+        BufferedImage thumb = ImageIO.read(new ByteArrayInputStream(readAll(hash, "thumb")));
+        assertThat(thumb.getWidth()).isEqualTo(64);
+        assertThat(thumb.getHeight()).isEqualTo(64);
+    }
+
+    @Test
+    void toReference_SameImageTwice_ShouldReturnSameReference() throws IOException {
+        String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(png(50, 50));
+
+        assertThat(profilePictureService.toReference(dataUri)).isEqualTo(profilePictureService.toReference(dataUri));
+    }
+
+    @Test
+    void toReference_WithUrl_ShouldReturnUnchanged() {
+        assertThat(profilePictureService.toReference("https://example.com/a.png")).isEqualTo("https://example.com/a.png");
+        assertThat(profilePictureService.toReference(null)).isNull();
+    }
+
+    @Test
+    void toReference_WithNonImage_ShouldThrow() {
+        String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString("not an image".getBytes());
+
+        assertThatThrownBy(() -> profilePictureService.toReference(dataUri))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void exists_WithInvalidHashOrSize_ShouldReturnFalse() {
+        assertThat(profilePictureService.exists("../etc/passwd", "original")).isFalse();
+        assertThat(profilePictureService.exists("a".repeat(64), "huge")).isFalse();
+    }
+
+    private byte[] readAll(String hash, String size) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        profilePictureService.transferTo(hash, size, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width / 2, height / 2, 0xFF0000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,59 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.metrics.RateMeter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateMeterTest {
+
+    @Test
+    void ratePerSecond_ShouldAverageCompleteSecondsOnly() {
+        AtomicLong now = new AtomicLong(10_000);
+        RateMeter meter = new RateMeter(now::get);
+
+        for (int i = 0; i < 4; i++) {
+            meter.mark();
+        }
+        now.set(11_000);
+        for (int i = 0; i < 2; i++) {
+            meter.mark();
+        }
+        now.set(12_500);
+
+        assertThat(meter.ratePerSecond(1)).isEqualTo(2.0);
+        assertThat(meter.ratePerSecond(2)).isEqualTo(3.0);
+        assertThat(meter.getTotal()).isEqualTo(6);
+    }
+
+    @Test
+    void mark_ShouldResetBucketWhenWindowWrapsAround() {
+        AtomicLong now = new AtomicLong(0);
+        RateMeter meter = new RateMeter(now::get);
+
+        meter.mark();
+        meter.mark();
+        now.set(61_000);
+        meter.mark();
+        now.set(62_000);
+
+        assertThat(meter.ratePerSecond(1)).isEqualTo(1.0);
+        assertThat(meter.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void ratePerSecond_ShouldKeepSixtyCompleteSecondsWhileFillingTheCurrentOne() {
+        AtomicLong now = new AtomicLong(0);
+        RateMeter meter = new RateMeter(now::get);
+
+        for (int second = 0; second <= 60; second++) {
+            now.set(second * 1000L);
+            meter.mark();
+        }
+        now.set(60_500);
+
+        assertThat(meter.ratePerSecond(60)).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,86 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.concurrent.RingBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTest {
+
+    @Test
+    void snapshot_ShouldKeepMostRecentItemsOldestFirst() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i);
+        }
+
+        assertThat(buffer.snapshot()).containsExactly(3, 4, 5);
+        assertThat(buffer.size()).isEqualTo(3);
+    }
+
+    @Test
+    void clear_ShouldHideExistingItemsOnly() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        buffer.add(1);
+        buffer.add(2);
+
+        buffer.clear();
+        buffer.add(3);
+
+        assertThat(buffer.snapshot()).containsExactly(3);
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentWriters_ShouldNotCorruptSnapshots() throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(100);
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int w = 0; w < 4; w++) {
+            writers.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    buffer.add(i);
+                }
+                done.countDown();
+            });
+        }
+
+        List<Integer> sizes = new ArrayList<>();
+        while (done.getCount() > 0) {
+            List<Integer> snapshot = buffer.snapshot();
+            assertThat(snapshot).doesNotContainNull();
+            sizes.add(snapshot.size());
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        writers.shutdown();
+
+        assertThat(sizes).allMatch(size -> size <= 100);
+        assertThat(buffer.snapshot()).hasSize(100);
+    }
+
+    @Test
+    void add_FromWriterLappedBeforePublishing_ShouldNotReplaceNewerItem() {
+        RingBuffer<String> buffer = new RingBuffer<>(2);
+        buffer.add("a");
+        buffer.add("b");
+        buffer.add("c");
+        buffer.add("d");
+
+        // Replay a writer that claimed sequence 1 and only publishes after "d" took its slot
+        AtomicLong nextSequence = (AtomicLong) ReflectionTestUtils.getField(buffer, "nextSequence");
+        nextSequence.set(1);
+        buffer.add("late");
+        nextSequence.set(4);
+
+        assertThat(buffer.snapshot()).containsExactly("c", "d");
+    }
+}
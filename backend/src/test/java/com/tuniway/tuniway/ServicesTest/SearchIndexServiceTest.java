@@ -0,0 +1,146 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuniway.dto.TourSearchResult;
+import com.tuniway.event.PlaceChangedEvent;
+import com.tuniway.event.TourChangedEvent;
+import com.tuniway.model.Guide;
+import com.tuniway.model.Place;
+import com.tuniway.model.TourPersonnalise;
+import com.tuniway.model.enums.PlaceCategory;
+import com.tuniway.repository.PlaceRepository;
+import com.tuniway.repository.TourPersonnaliseRepository;
+import com.tuniway.service.SearchIndexService;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexServiceTest {
+
+    @Mock
+    private PlaceRepository placeRepository;
+
+    @Mock
+    private TourPersonnaliseRepository tourRepository;
+
+    private SearchIndexService searchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        when(placeRepository.findAll()).thenReturn(List.of(
+                place(1L, "Yasmine Hammamet Beach", "Hammamet", PlaceCategory.BEACH, "Sandy beach with cafés"),
+                place(2L, "Great Mosque of Kairouan", "Kairouan", PlaceCategory.HISTORICAL, "Oldest mosque in Africa"),
+                place(3L, "Bardo Museum", "Tunis", PlaceCategory.MUSEUM, "Roman mosaics, near Hammamet road")));
+        TourPersonnalise tour = tour(7L, "Hammamet à vélo", "Balade le long de la plage");
+        tour.setGuide(detachedGuide(3L, "sami"));
+        when(tourRepository.findAll()).thenReturn(List.of(tour));
+        searchIndexService = new SearchIndexService(placeRepository, tourRepository, 1.2, 0.75, 50);
+        searchIndexService.rebuild();
+    }
+
+    @Test
+    void search_ShouldMatchSpellingVariantsAndRankTitleMatchesFirst() {
+        List<Map<String, Object>> results = results(searchIndexService.search("hamamet", null, 0, 10));
+
+        assertThat(results).extracting(result -> result.get("type") + ":" + result.get("id"))
+                .containsExactly("place:1", "tour:7", "place:3");
+    }
+
+    @Test
+    void search_ShouldRestrictToType() {
+        List<Map<String, Object>> results = results(searchIndexService.search("Qairouan", SearchIndexService.TYPE_PLACE, 0, 10));
+
+        assertThat(results).extracting(result -> result.get("id")).containsExactly(2L);
+    }
+
+    @Test
+    void events_ShouldUpdateIndexIncrementally() {
+        searchIndexService.onPlaceChanged(PlaceChangedEvent.deleted(1L));
+        searchIndexService.onPlaceChanged(PlaceChangedEvent.saved(
+                place(4L, "Sidi Bou Saïd", "Tunis", PlaceCategory.HISTORICAL, "Blue and white village")));
+        searchIndexService.onTourChanged(TourChangedEvent.deleted(7L));
+
+        assertThat(results(searchIndexService.search("hammamet beach", null, 0, 10)))
+                .extracting(result -> result.get("id")).containsExactly(3L);
+        assertThat(results(searchIndexService.search("sidi bu said", null, 0, 10)))
+                .extracting(result -> result.get("id")).containsExactly(4L);
+    }
+
+    @Test
+    void search_ShouldReturnToursWithoutTheirEntityGraph() throws Exception {
+        List<Map<String, Object>> results = results(searchIndexService.search("velo", SearchIndexService.TYPE_TOUR, 0, 10));
+
+        assertThat(results).singleElement().satisfies(result -> assertThat(result.get("item"))
+                .isEqualTo(new TourSearchResult(7L, "Hammamet à vélo", "Balade le long de la plage", null, null, 3L, "sami")));
+        // What Jackson does with the response after the loading session is gone
+        assertThat(new ObjectMapper().findAndRegisterModules().writeValueAsString(results)).contains("\"guideName\":\"sami\"");
+    }
+
+    @Test
+    void search_WithOnlyStopwords_ShouldBeRejected() {
+        assertThatThrownBy(() -> searchIndexService.search("the of", null, 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void search_WithPageBeyondIntRange_ShouldBeRejected() {
+        assertThatThrownBy(() -> searchIndexService.search("sousse", null, 85899345, 50))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> results(Map<String, Object> response) {
+        return (List<Map<String, Object>>) response.get("results");
+    }
+
+    private static Place place(Long id, String name, String city, PlaceCategory category, String description) {
+        Place place = new Place();
+        place.setId(id);
+        place.setName(name);
+        place.setCity(city);
+        place.setCategory(category);
+        place.setDescription(description);
+        return place;
+    }
+
+    // A guide loaded by a session that has since closed: touching favorites fails like an uninitialized proxy
+    private static Guide detachedGuide(Long id, String username) {
+        Guide guide = new Guide();
+        guide.setId(id);
+        guide.setUsername(username);
+        guide.setFavoritePlaces(new AbstractSet<>() {
+            @Override
+            public Iterator<Place> iterator() {
+                throw new LazyInitializationException("could not initialize proxy - no Session");
+            }
+
+            @Override
+            public int size() {
+                throw new LazyInitializationException("could not initialize proxy - no Session");
+            }
+        });
+        return guide;
+    }
+
+    private static TourPersonnalise tour(Long id, String titre, String description) {
+        TourPersonnalise tour = new TourPersonnalise();
+        tour.setId(id);
+        tour.setTitre(titre);
+        tour.setDescription(description);
+        return tour;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.config.StompAuthInterceptor;
+import com.tuniway.jwt.JwtClaims;
+import com.tuniway.jwt.JwtUtils;
+import com.tuniway.model.User;
+import com.tuniway.model.enums.RoleType;
+import com.tuniway.security.UserPrincipalCache;
+import com.tuniway.service.UserDetailsImpl;
+import com.tuniway.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StompAuthInterceptorTest {
+
+    @Mock
+    private JwtUtils jwtUtils;
+
+    @Mock
+    private UserPrincipalCache principalCache;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private MessageChannel channel;
+
+    @InjectMocks
+    private StompAuthInterceptor interceptor;
+
+    @Test
+    void preSend_WithValidToken_ShouldSetPrincipalNamedByUserId() {
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("alice");
+        user.setRole(RoleType.CLIENT);
+        when(jwtUtils.verifyJwtToken("good")).thenReturn(Optional.of(new JwtClaims("alice", List.of(), null, null)));
+        when(principalCache.getOrLoad(eq("alice"), any())).thenReturn(UserDetailsImpl.build(user));
+
+        Message<?> result = interceptor.preSend(connect("Bearer good"), channel);
+
+        assertThat(StompHeaderAccessor.wrap(result).getUser().getName()).isEqualTo("42");
+    }
+
+    @Test
+    void preSend_WithoutToken_ShouldStayAnonymous() {
+        Message<?> result = interceptor.preSend(connect(null), channel);
+
+        assertThat(StompHeaderAccessor.wrap(result).getUser()).isNull();
+        verifyNoInteractions(jwtUtils);
+    }
+
+    @Test
+    void preSend_WithInvalidToken_ShouldRejectConnect() {
+        when(jwtUtils.verifyJwtToken("bad")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> interceptor.preSend(connect("Bearer bad"), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    private static Message<byte[]> connect(String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
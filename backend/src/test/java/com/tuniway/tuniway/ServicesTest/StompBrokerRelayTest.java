@@ -0,0 +1,348 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.config.MessageDeliveryMetrics;
+import com.tuniway.config.StompAuthInterceptor;
+import com.tuniway.config.WebSocketBrokerConfiguration;
+import com.tuniway.config.WebSocketConfig;
+import com.tuniway.config.WebSocketSessionMonitor;
+import com.tuniway.jwt.JwtUtils;
+import com.tuniway.security.UserPrincipalCache;
+import com.tuniway.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs two chat nodes in relay mode against an in-process STOMP broker
+ * stand-in and checks that a message published on one node reaches a
+ * session connected to the other.
+ */
+class StompBrokerRelayTest {
+
+    private StompBrokerStandIn broker;
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        broker = new StompBrokerStandIn();
+        nodeA = startNode(broker.getPort());
+        nodeB = startNode(broker.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        broker.close();
+    }
+
+    @Test
+    void topicMessage_ShouldReachSessionOnOtherNode() throws Exception {
+        BlockingQueue<Message<?>> received = connectSession(nodeB, "b1");
+        subscribe(nodeB, "b1", "/topic/public");
+        broker.awaitSubscribers("/topic/public", 1);
+
+        nodeA.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class)
+                .convertAndSend("/topic/public", "hello from A");
+
+        Message<?> message = awaitFrame(received, StompCommand.MESSAGE);
+        assertThat(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8)).isEqualTo("hello from A");
+        assertThat(StompHeaderAccessor.wrap(message).getSubscriptionId()).isEqualTo("sub-0");
+        assertThat(nodeB.getBean(MessageDeliveryMetrics.class).snapshot().get("topicDeliveries")).isEqualTo(1L);
+    }
+
+    @Test
+    void topicMessage_ShouldFanOutToSessionsOnBothNodes() throws Exception {
+        BlockingQueue<Message<?>> onA = connectSession(nodeA, "a1");
+        BlockingQueue<Message<?>> onB = connectSession(nodeB, "b1");
+        subscribe(nodeA, "a1", "/topic/typing");
+        subscribe(nodeB, "b1", "/topic/typing");
+        broker.awaitSubscribers("/topic/typing", 2);
+
+        nodeB.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class)
+                .convertAndSend("/topic/typing", "snapshot");
+
+        assertThat(awaitFrame(onA, StompCommand.MESSAGE).getPayload()).isEqualTo("snapshot".getBytes(StandardCharsets.UTF_8));
+        assertThat(awaitFrame(onB, StompCommand.MESSAGE).getPayload()).isEqualTo("snapshot".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private AnnotationConfigApplicationContext startNode(int brokerPort) throws InterruptedException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("chat.broker.mode", "relay");
+        properties.put("chat.broker.relay.port", brokerPort);
+        properties.put("chat.broker.relay.heartbeat-ms", 0);
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("relay-test", properties));
+        context.register(WebSocketBrokerConfiguration.class, WebSocketConfig.class,
+                WebSocketSessionMonitor.class, MessageDeliveryMetrics.class);
+        // Sessions in this test connect without a token, so the interceptor never consults its collaborators
+        context.registerBean(StompAuthInterceptor.class, () -> new StompAuthInterceptor(
+                mock(JwtUtils.class), mock(UserPrincipalCache.class), mock(UserDetailsServiceImpl.class)));
+        context.refresh();
+
+        AbstractBrokerMessageHandler relay =
+                context.getBean("stompBrokerRelayMessageHandler", AbstractBrokerMessageHandler.class);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!relay.isBrokerAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(relay.isBrokerAvailable()).isTrue();
+        return context;
+    }
+
+    // Plays the part of SubProtocolWebSocketHandler: feed client frames in, collect frames out
+    private BlockingQueue<Message<?>> connectSession(AnnotationConfigApplicationContext node, String sessionId)
+            throws InterruptedException {
+        BlockingQueue<Message<?>> received = new LinkedBlockingQueue<>();
+        node.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(message -> {
+            if (sessionId.equals(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+                received.add(message);
+            }
+        });
+
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setSessionId(sessionId);
+        connect.setAcceptVersion("1.2");
+        connect.setHeartbeat(0, 0);
+        sendFromClient(node, connect);
+        awaitFrame(received, StompCommand.CONNECTED);
+        return received;
+    }
+
+    private void subscribe(AnnotationConfigApplicationContext node, String sessionId, String destination) {
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setSessionId(sessionId);
+        subscribe.setSubscriptionId("sub-0");
+        subscribe.setDestination(destination);
+        sendFromClient(node, subscribe);
+    }
+
+    private void sendFromClient(AnnotationConfigApplicationContext node, StompHeaderAccessor accessor) {
+        accessor.setSessionAttributes(new HashMap<>());
+        node.getBean("clientInboundChannel", SubscribableChannel.class)
+                .send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    private Message<?> awaitFrame(BlockingQueue<Message<?>> received, StompCommand command) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Message<?> message = received.poll(100, TimeUnit.MILLISECONDS);
+            if (message != null && StompHeaderAccessor.wrap(message).getCommand() == command) {
+                return message;
+            }
+        }
+        throw new AssertionError("No " + command + " frame received");
+    }
+
+    /**
+     * Minimal STOMP 1.2 broker: CONNECT, SUBSCRIBE, UNSUBSCRIBE, SEND and
+     * DISCONNECT, with topic-style fan-out to every subscriber of a destination.
+     */
+    private static final class StompBrokerStandIn {
+
+        private final ServerSocket serverSocket;
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private final List<Socket> connections = new CopyOnWriteArrayList<>();
+        private final AtomicLong messageIds = new AtomicLong();
+
+        StompBrokerStandIn() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::acceptLoop, "stomp-stand-in");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        void awaitSubscribers(String destination, int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline) {
+                if (subscriptions.stream().filter(s -> s.destination.equals(destination)).count() >= count) {
+                    return;
+                }
+                Thread.sleep(20);
+            }
+            throw new AssertionError("No subscriber for " + destination);
+        }
+
+        void close() {
+            try {
+                serverSocket.close();
+                for (Socket socket : connections) {
+                    socket.close();
+                }
+            } catch (IOException ignored) {
+                // shutting down
+            }
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.add(socket);
+                    Thread reader = new Thread(() -> serve(socket), "stomp-stand-in-conn");
+                    reader.setDaemon(true);
+                    reader.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket) {
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                Frame frame;
+                while ((frame = Frame.read(in)) != null) {
+                    handle(frame, socket, out);
+                    if ("DISCONNECT".equals(frame.command)) {
+                        return;
+                    }
+                }
+            } catch (IOException ignored) {
+                // connection closed by the relay
+            } finally {
+                subscriptions.removeIf(s -> s.socket == socket);
+            }
+        }
+
+        private void handle(Frame frame, Socket socket, OutputStream out) throws IOException {
+            switch (frame.command) {
+                case "CONNECT", "STOMP" -> write(out, "CONNECTED", Map.of("version", "1.2", "heart-beat", "0,0"), new byte[0]);
+                case "SUBSCRIBE" -> subscriptions.add(new Subscription(socket, out,
+                        frame.headers.get("id"), frame.headers.get("destination")));
+                case "UNSUBSCRIBE" -> subscriptions.removeIf(s -> s.out == out && s.id.equals(frame.headers.get("id")));
+                case "SEND" -> deliver(frame);
+                default -> { }
+            }
+            String receipt = frame.headers.get("receipt");
+            if (receipt != null) {
+                write(out, "RECEIPT", Map.of("receipt-id", receipt), new byte[0]);
+            }
+        }
+
+        private void deliver(Frame frame) throws IOException {
+            String destination = frame.headers.get("destination");
+            for (Subscription subscription : subscriptions) {
+                if (!subscription.destination.equals(destination)) {
+                    continue;
+                }
+                Map<String, String> headers = new LinkedHashMap<>();
+                headers.put("destination", destination);
+                headers.put("subscription", subscription.id);
+                headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+                if (frame.headers.containsKey("content-type")) {
+                    headers.put("content-type", frame.headers.get("content-type"));
+                }
+                write(subscription.out, "MESSAGE", headers, frame.body);
+            }
+        }
+
+        private static void write(OutputStream out, String command, Map<String, String> headers, byte[] body)
+                throws IOException {
+            StringBuilder head = new StringBuilder(command).append('\n');
+            headers.forEach((name, value) -> head.append(name).append(':').append(value).append('\n'));
+            head.append("content-length:").append(body.length).append("\n\n");
+            synchronized (out) {
+                out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+                out.write(body);
+                out.write(0);
+                out.flush();
+            }
+        }
+    }
+
+    private record Subscription(Socket socket, OutputStream out, String id, String destination) {
+    }
+
+    private record Frame(String command, Map<String, String> headers, byte[] body) {
+
+        static Frame read(InputStream in) throws IOException {
+            int b;
+            // Skip heart-beat EOLs between frames
+            do {
+                b = in.read();
+                if (b == -1) {
+                    return null;
+                }
+            } while (b == '\n' || b == '\r');
+
+            String command = (char) b + readLine(in);
+            Map<String, String> headers = new HashMap<>();
+            String line;
+            while (!(line = readLine(in)).isEmpty()) {
+                int colon = line.indexOf(':');
+                // First occurrence wins, per the STOMP spec
+                headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+            }
+
+            byte[] body;
+            if (headers.containsKey("content-length")) {
+                body = in.readNBytes(Integer.parseInt(headers.get("content-length")));
+                in.read();
+            } else {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                while ((b = in.read()) > 0) {
+                    buffer.write(b);
+                }
+                body = buffer.toByteArray();
+            }
+            return new Frame(command, headers, body);
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                if (b != '\r') {
+                    buffer.write(b);
+                }
+            }
+            if (b == -1) {
+                throw new IOException("Connection closed mid-frame");
+            }
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.util.text.TextNormalizer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTest {
+
+    @Test
+    void normalize_ShouldIgnoreCasePunctuationAndStopwords() {
+        assertThat(TextNormalizer.normalize("What are the best beaches in Hammamet?"))
+                .isEqualTo(TextNormalizer.normalize("best beaches hammamet, what"));
+    }
+
+    @Test
+    void normalize_ShouldFoldAccents() {
+        assertThat(TextNormalizer.normalize("Médina de Tunis")).isEqualTo("medina tunis");
+    }
+
+    @Test
+    void normalize_ShouldKeepQuestionWords() {
+        assertThat(TextNormalizer.normalize("where is Djerba"))
+                .isNotEqualTo(TextNormalizer.normalize("how is Djerba"));
+    }
+
+    @Test
+    void normalize_WithOnlyStopwords_ShouldReturnEmpty() {
+        assertThat(TextNormalizer.normalize("is it the ...")).isEmpty();
+        assertThat(TextNormalizer.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void searchTokens_ShouldFoldTransliterationVariants() {
+        assertThat(TextNormalizer.searchTokens("Hammamet")).isEqualTo(TextNormalizer.searchTokens("hamamet"));
+        assertThat(TextNormalizer.searchTokens("Djerba")).isEqualTo(TextNormalizer.searchTokens("Jerba"));
+        assertThat(TextNormalizer.searchTokens("Qairouan")).isEqualTo(TextNormalizer.searchTokens("Kairouan"));
+        assertThat(TextNormalizer.searchTokens("Sidi Bou Saïd")).isEqualTo(TextNormalizer.searchTokens("sidi bu said"));
+    }
+
+    @Test
+    void searchTokens_ShouldDropArabicArticlesAndUnifyArabicLetters() {
+        assertThat(TextNormalizer.searchTokens("El Jem")).isEqualTo(TextNormalizer.searchTokens("Jem"));
+        assertThat(TextNormalizer.searchTokens("\u0633\u0648\u0633\u0629"))
+                .isEqualTo(TextNormalizer.searchTokens("\u0633\u0648\u0633\u0647"));
+    }
+}
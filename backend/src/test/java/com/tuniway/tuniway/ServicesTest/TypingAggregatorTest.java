@@ -0,0 +1,105 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.service.TypingAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TypingAggregatorTest {
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private TypingAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new TypingAggregator(messagingTemplate, 3000, 100, 2, now::get);
+    }
+
+    @Test
+    void flush_ShouldCoalesceRepeatedSignalsIntoOneSnapshot() {
+        for (int i = 0; i < 50; i++) {
+            aggregator.typing("bob");
+            aggregator.typing("alice");
+        }
+
+        aggregator.flush();
+
+        Map<String, Object> snapshot = captureLastSnapshot(1);
+        assertThat(snapshot.get("typing")).isEqualTo(List.of("alice", "bob"));
+        assertThat(snapshot.get("count")).isEqualTo(2);
+        assertThat(aggregator.snapshot().get("signalsReceived")).isEqualTo(100L);
+    }
+
+    @Test
+    void flush_ShouldSkipUnchangedSnapshots() {
+        aggregator.typing("alice");
+        aggregator.flush();
+        now.addAndGet(500);
+        aggregator.typing("alice");
+        aggregator.flush();
+
+        verify(messagingTemplate, times(1)).convertAndSend(eq(TypingAggregator.TYPING_TOPIC), any(Object.class));
+    }
+
+    @Test
+    void flush_ShouldExpireStaleTypersAndPublishTheChange() {
+        aggregator.typing("alice");
+        aggregator.flush();
+        now.addAndGet(3001);
+
+        aggregator.flush();
+
+        Map<String, Object> snapshot = captureLastSnapshot(2);
+        assertThat(snapshot.get("typing")).isEqualTo(List.of());
+        assertThat(aggregator.snapshot().get("activeTypers")).isEqualTo(0);
+    }
+
+    @Test
+    void flush_ShouldCapListedNamesButReportFullCount() {
+        aggregator.typing("carol");
+        aggregator.typing("alice");
+        aggregator.typing("bob");
+
+        aggregator.flush();
+
+        Map<String, Object> snapshot = captureLastSnapshot(1);
+        assertThat(snapshot.get("typing")).isEqualTo(List.of("alice", "bob"));
+        assertThat(snapshot.get("count")).isEqualTo(3);
+    }
+
+    @Test
+    void stopped_ShouldRemoveSenderBeforeExpiry() {
+        aggregator.typing("alice");
+        aggregator.stopped("alice");
+
+        aggregator.flush();
+
+        verify(messagingTemplate, never()).convertAndSend(eq(TypingAggregator.TYPING_TOPIC), any(Object.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> captureLastSnapshot(int expectedSends) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(expectedSends)).convertAndSend(eq(TypingAggregator.TYPING_TOPIC), captor.capture());
+        return (Map<String, Object>) captor.getValue();
+    }
+}
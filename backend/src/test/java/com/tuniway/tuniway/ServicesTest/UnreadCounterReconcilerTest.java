@@ -0,0 +1,74 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.config.UnreadCounterReconciler;
+import com.tuniway.repository.UnreadCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadCounterReconcilerTest {
+
+    @Mock
+    private UnreadCounterRepository unreadCounterRepository;
+
+    @InjectMocks
+    private UnreadCounterReconciler reconciler;
+
+    @Test
+    void reconcile_ShouldRecountEveryDriftedUserAndSkipFailures() {
+        when(unreadCounterRepository.findDriftedUserIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(unreadCounterRepository.reconcile(anyLong())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0, Long.class) == 2L) {
+                throw new CannotAcquireLockException("deadlock");
+            }
+            return 1;
+        });
+
+        assertThat(reconciler.reconcile()).isEqualTo(2);
+        verify(unreadCounterRepository).reconcile(1L);
+        verify(unreadCounterRepository).reconcile(3L);
+    }
+
+    @Test
+    void queries_ShouldCreateAddAndRecountCountersAgainstMessages() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        MessageBatchWriterTest.createSchema(jdbcTemplate);
+        // User 2 has history from before counters, user 3 a counter left too high, user 4 is right
+        jdbcTemplate.update("INSERT INTO Message (sender_id, receiver_id, content, isRead) VALUES " +
+                "(1, 2, 'a', false), (1, 2, 'b', false), (1, 4, 'c', false), (1, 3, 'd', true)");
+        jdbcTemplate.update("INSERT INTO UnreadCounter (userId, unreadCount) VALUES (3, 2), (4, 1)");
+
+        assertThat(jdbcTemplate.queryForList(sql("findDriftedUserIds"), Long.class)).containsExactlyInAnyOrder(2L, 3L);
+
+        jdbcTemplate.update(sql("reconcile", Long.class), 2L, 2L);
+        jdbcTemplate.update(sql("reconcile", Long.class), 3L, 3L);
+        assertThat(jdbcTemplate.queryForList(sql("findDriftedUserIds"), Long.class)).isEmpty();
+
+        jdbcTemplate.update(sql("add", Long.class, long.class), 2L, 1L);
+        jdbcTemplate.update(sql("add", Long.class, long.class), 5L, 1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT unreadCount FROM UnreadCounter WHERE userId = 2", Long.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT unreadCount FROM UnreadCounter WHERE userId = 5", Long.class)).isEqualTo(1);
+    }
+
+    // The repository's native SQL with named parameters turned into JDBC placeholders
+    private static String sql(String method, Class<?>... parameterTypes) throws NoSuchMethodException {
+        String query = UnreadCounterRepository.class.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+        return query.replaceAll(":\\w+", "?");
+    }
+}
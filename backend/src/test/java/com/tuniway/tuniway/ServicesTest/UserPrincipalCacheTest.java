@@ -0,0 +1,107 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.security.UserPrincipalCache;
+import com.tuniway.service.UserDetailsImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPrincipalCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, UserDetails> loader = username -> {
+        loads.incrementAndGet();
+        long id = username.hashCode();
+        return new UserDetailsImpl(id, username, username + "@example.com", "secret",
+                new SimpleGrantedAuthority("ROLE_CLIENT"));
+    };
+
+    @Test
+    void getOrLoad_ShouldHitCacheOnSecondLookup() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 60_000);
+
+        UserDetails first = cache.getOrLoad("alice", loader);
+        UserDetails second = cache.getOrLoad("alice", loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.snapshot().get("hits")).isEqualTo(1L);
+        assertThat(cache.snapshot().get("misses")).isEqualTo(1L);
+    }
+
+    @Test
+    void getOrLoad_ShouldReloadExpiredEntries() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 0);
+
+        cache.getOrLoad("alice", loader);
+        cache.getOrLoad("alice", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.snapshot().get("evictions")).isEqualTo(1L);
+    }
+
+    @Test
+    void getOrLoad_ShouldEvictLeastRecentlyUsedWhenFull() {
+        UserPrincipalCache cache = new UserPrincipalCache(2, 60_000);
+
+        cache.getOrLoad("alice", loader);
+        cache.getOrLoad("bob", loader);
+        cache.getOrLoad("alice", loader);
+        cache.getOrLoad("carol", loader);
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.getOrLoad("alice", loader);
+        assertThat(loads.get()).isEqualTo(3);
+        cache.getOrLoad("bob", loader);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidate_ShouldDropEntryByUserId() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 60_000);
+        UserDetailsImpl alice = (UserDetailsImpl) cache.getOrLoad("alice", loader);
+
+        cache.invalidate(alice.getId());
+        cache.getOrLoad("alice", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.snapshot().get("invalidations")).isEqualTo(1L);
+    }
+
+    @Test
+    void getOrLoad_ShouldNotCachePrincipalInvalidatedWhileLoading() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 60_000);
+        // updateUser commits and invalidates between the row read and the put
+        Function<String, UserDetails> racingLoader = username -> {
+            UserDetails loaded = loader.apply(username);
+            cache.invalidate(((UserDetailsImpl) loaded).getId());
+            return loaded;
+        };
+
+        cache.getOrLoad("alice", racingLoader);
+        cache.getOrLoad("alice", loader);
+        cache.getOrLoad("alice", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void getOrLoad_ShouldNotCachePrincipalLoadedAcrossInvalidateAll() {
+        UserPrincipalCache cache = new UserPrincipalCache(10, 60_000);
+
+        cache.getOrLoad("alice", username -> {
+            UserDetails loaded = loader.apply(username);
+            cache.invalidateAll();
+            return loaded;
+        });
+        cache.getOrLoad("alice", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
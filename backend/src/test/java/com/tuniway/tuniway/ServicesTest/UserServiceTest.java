@@ -2,6 +2,8 @@ package com.tuniway.tuniway.ServicesTest;
 
 import com.tuniway.model.User;
 import com.tuniway.repository.UserRepository;
+import com.tuniway.security.UserPrincipalCache;
+import com.tuniway.service.ProfilePictureService;
 import com.tuniway.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
+    @Mock
+    private ProfilePictureService profilePictureService;
+
     @InjectMocks
     private UserService userService;
 
@@ -104,6 +112,18 @@ class UserServiceTest {
         verify(userRepository, times(1)).save(testUser);
     }
 
+    @Test
+    void updateUser_WithInlinePicture_ShouldStoreReferenceOnly() {
+        testUser.setProfilePicture("data:image/png;base64,AAAA");
+        when(profilePictureService.toReference("data:image/png;base64,AAAA")).thenReturn("/api/pictures/abc");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User result = userService.updateUser(testUser);
+
+        assertThat(result.getProfilePicture()).isEqualTo("/api/pictures/abc");
+        verify(userPrincipalCache).invalidate(1L);
+    }
+
     @Test
     void updateUser_ShouldSaveAndReturnUpdated() {
         testUser.setEmail("newemail@example.com");
@@ -113,6 +133,7 @@ class UserServiceTest {
 
         assertThat(result.getEmail()).isEqualTo("newemail@example.com");
         verify(userRepository, times(1)).save(testUser);
+        verify(userPrincipalCache, times(1)).invalidate(1L);
     }
 
     @Test
@@ -122,6 +143,7 @@ class UserServiceTest {
         userService.deleteUser(1L);
 
         verify(userRepository, times(1)).deleteById(1L);
+        verify(userPrincipalCache, times(1)).invalidate(1L);
     }
 
     @Test
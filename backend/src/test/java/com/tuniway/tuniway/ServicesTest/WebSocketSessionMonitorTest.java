@@ -0,0 +1,118 @@
+package com.tuniway.tuniway.ServicesTest;
+
+import com.tuniway.config.WebSocketSessionMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketSessionMonitorTest {
+
+    @Mock
+    private WebSocketSession delegate;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final CountDownLatch releaseSend = new CountDownLatch(1);
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+    private WebSocketSessionMonitor monitor;
+    private ConcurrentWebSocketSessionDecorator session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(delegate.getId()).thenReturn("s1");
+        lenient().when(delegate.isOpen()).thenReturn(true);
+        monitor = new WebSocketSessionMonitor(10, 5000, 60_000, 10, now::get);
+        session = new ConcurrentWebSocketSessionDecorator(delegate, 60_000, 1024 * 1024);
+        monitor.register(session);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSend.countDown();
+        sender.shutdownNow();
+    }
+
+    @Test
+    void evictSlowConsumers_ShouldCloseSessionAboveThresholdAfterGracePeriod() throws Exception {
+        bufferBehindBlockedSend();
+
+        monitor.evictSlowConsumers();
+        verify(delegate, never()).close(any(CloseStatus.class));
+        assertThat(monitor.snapshot().get("slowSessions")).isEqualTo(1);
+
+        now.addAndGet(5000);
+        monitor.evictSlowConsumers();
+
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(monitor.snapshot().get("slowConsumerEvictions")).isEqualTo(1L);
+        assertThat(monitor.getConnectedSessions()).isZero();
+    }
+
+    @Test
+    void evictSlowConsumers_ShouldForgiveSessionThatDrainsInTime() throws Exception {
+        bufferBehindBlockedSend();
+        monitor.evictSlowConsumers();
+
+        releaseSend.countDown();
+        awaitDrained();
+        now.addAndGet(5000);
+        monitor.evictSlowConsumers();
+
+        verify(delegate, never()).close(any(CloseStatus.class));
+        assertThat(monitor.snapshot().get("slowSessions")).isEqualTo(0);
+    }
+
+    @Test
+    void snapshot_ShouldReportBufferedBytesPerSession() throws Exception {
+        bufferBehindBlockedSend();
+
+        assertThat(monitor.snapshot().get("connectedSessions")).isEqualTo(1);
+        assertThat((long) monitor.snapshot().get("totalBufferedBytes")).isGreaterThan(10);
+    }
+
+    // One send blocks inside the delegate, so the next one is queued in the decorator's buffer
+    private void bufferBehindBlockedSend() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            releaseSend.await();
+            return null;
+        }).when(delegate).sendMessage(any());
+
+        sender.submit(() -> {
+            session.sendMessage(new TextMessage("first"));
+            return null;
+        });
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        session.sendMessage(new TextMessage("a message waiting in the buffer"));
+        assertThat(session.getBufferSize()).isGreaterThan(10);
+    }
+
+    private void awaitDrained() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (session.getBufferSize() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
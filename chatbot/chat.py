@@ -5,6 +5,7 @@ from lib.model import NeuralNet
 from lib.nltk_utils import bag_word, tokenize
 import json
 import random
+import numpy as np
 
 app = Flask(__name__)
 CORS(app)
@@ -48,6 +49,27 @@ class ChatBotAPI:
         
         return response, confidence, tag
 
+    def get_responses(self, user_inputs):
+        # One forward pass for the whole batch
+        X = np.stack([bag_word(tokenize(text), self.all_words) for text in user_inputs])
+        X = torch.from_numpy(X).to(self.device)
+
+        with torch.no_grad():
+            output = self.model(X)
+            probs = torch.softmax(output, dim=1)
+            confidences, predicted = torch.max(probs, dim=1)
+
+        results = []
+        for index, confidence in zip(predicted.tolist(), confidences.tolist()):
+            tag = self.tags[index]
+            if confidence > 0.75:
+                response = random.choice(self.intent_lookup[tag]['responses'])
+            else:
+                response = "I'm not quite sure about that. Could you rephrase?"
+            results.append((response, confidence, tag))
+
+        return results
+
 chatbot = ChatBotAPI()
 
 @app.route('/chat', methods=['POST'])
@@ -66,6 +88,26 @@ def chat():
         'tag': tag
     })
 
+@app.route('/chat/batch', methods=['POST'])
+def chat_batch():
+    data = request.json or {}
+    messages = data.get('messages')
+
+    if not isinstance(messages, list) or not messages:
+        return jsonify({'error': 'No messages provided'}), 400
+    if not all(isinstance(message, str) and message for message in messages):
+        return jsonify({'error': 'Messages must be non-empty strings'}), 400
+
+    # Replies are returned in request order
+    results = chatbot.get_responses(messages)
+
+    return jsonify({
+        'responses': [
+            {'response': response, 'confidence': confidence, 'tag': tag}
+            for response, confidence, tag in results
+        ]
+    })
+
 @app.route('/health', methods=['GET'])
 def health():
     return jsonify({'status': 'ok'})